@@ -0,0 +1,40 @@
+package com.template.Benchmarks;
+
+import com.template.Main;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * BenchmarkConfig
+ * <p>
+ *     Loads discord.properties for the benchmarks, with the settings that would distort a measurement turned off.
+ *     It has to run before the first manager class is loaded, since they read their settings once.
+ * </p>
+ */
+final class BenchmarkConfig {
+
+    private static boolean loaded;
+
+    private BenchmarkConfig() {
+    }
+
+    static synchronized void load() {
+        if (loaded) {
+            return;
+        }
+        try (InputStreamReader reader = new InputStreamReader(new FileInputStream("src/main/resources/discord.properties"), StandardCharsets.UTF_8)) {
+            Main.discord.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        // The watchdog would schedule a deferral per dispatched event, which piles up at millions of operations
+        Main.discord.setProperty("execution.ackBudget", "0");
+        Main.discord.setProperty("execution.mode", "inline");
+        Main.discord.setProperty("cooldown.backend", "memory");
+        loaded = true;
+    }
+}
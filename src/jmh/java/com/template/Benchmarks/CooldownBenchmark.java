@@ -0,0 +1,126 @@
+package com.template.Benchmarks;
+
+import com.template.Bot.Managers.Cooldown;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.interactions.Interaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * CooldownBenchmark
+ * <p>
+ *     Measures {@link Cooldown#isOnCooldown} for every scope over a small, a typical and a large number of distinct
+ *     keys. A single interaction stand-in answers with the key of the current operation, so the key cardinality does
+ *     not depend on how many interaction objects fit into the heap. The shard scope has at most 16 keys.
+ * </p>
+ * <p>
+ *     The cooldown is long enough that every key stays on cooldown once it was used, so after the first round the
+ *     benchmark measures the lookup of a live entry, which is what the dispatch of a spamming user costs.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CooldownBenchmark {
+
+    private static final long USER_BASE = 100_000_000_000_000_000L;
+    private static final long GUILD_BASE = 200_000_000_000_000_000L;
+
+    @Param({"USER", "CHANNEL", "GUILD", "USER_IN_GUILD", "SHARD"})
+    public Cooldown.Scope scope;
+
+    @Param({"1", "1000", "1000000"})
+    public int cardinality;
+
+    private long[] keys;
+    private int next;
+    private long currentKey;
+    private Interaction interaction;
+    private Cooldown cooldown;
+    private Cooldown.Holder holder;
+
+    @Setup
+    public void setup() {
+        BenchmarkConfig.load();
+        SplittableRandom random = new SplittableRandom(42);
+        keys = new long[cardinality];
+        for (int i = 0; i < cardinality; i++) {
+            keys[i] = random.nextLong(1L << 40);
+        }
+        cooldown = new Cooldown(1, Cooldown.Time.DAYS, scope);
+        holder = new Cooldown.Holder() {
+            @Override
+            public Cooldown getCooldown() {
+                return cooldown;
+            }
+
+            @Override
+            public String getCooldownName() {
+                return "benchmark";
+            }
+        };
+        interaction = interaction();
+    }
+
+    @Benchmark
+    public boolean isOnCooldown() {
+        currentKey = keys[next];
+        if (++next == cardinality) {
+            next = 0;
+        }
+        return cooldown.isOnCooldown(interaction, holder);
+    }
+
+    /**
+     * An interaction whose user, channel, guild and shard are all derived from the current key. Users are spread over
+     * 100 guilds, so {@link Cooldown.Scope#USER_IN_GUILD} has composite keys.
+     */
+    private Interaction interaction() {
+        User user = stub(User.class, "getIdLong", () -> USER_BASE + currentKey);
+        Guild guild = stub(Guild.class, "getIdLong", () -> GUILD_BASE + (scope == Cooldown.Scope.GUILD ? currentKey : currentKey % 100));
+        JDA jda = stub(JDA.class, "getShardInfo", () -> new JDA.ShardInfo((int) (currentKey & 15), 16));
+        return (Interaction) Proxy.newProxyInstance(Interaction.class.getClassLoader(), new Class<?>[]{Interaction.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getUser" -> user;
+                    case "getGuild" -> guild;
+                    case "getJDA" -> jda;
+                    case "getChannelIdLong" -> GUILD_BASE + 1 + currentKey;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static <T> T stub(Class<T> type, String methodName, Supplier<Object> answer) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> {
+                        if (!method.getName().equals(methodName)) {
+                            throw new UnsupportedOperationException(method.getName());
+                        }
+                        yield answer.get();
+                    }
+                }));
+    }
+}
@@ -0,0 +1,75 @@
+package com.template.Benchmarks;
+
+import com.template.Bot.Managers.Command.CommandManager;
+import com.template.Bot.Managers.Command.SlashCommand;
+import com.template.LoadTest.FakeInteractions;
+import com.template.LoadTest.ReplyRecorder;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DispatchBenchmark
+ * <p>
+ *     Measures {@link CommandManager#onSlashCommandInteraction} from the lookup of the command by name to the reply
+ *     of its handler, with more or fewer commands registered. The events are created up front from the stand-ins of
+ *     the load test, so only the dispatch is measured.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DispatchBenchmark {
+
+    private static final int EVENTS = 1024;
+
+    @Param({"1", "50", "500"})
+    public int registeredCommands;
+
+    @Param({"ping", "unknown"})
+    public String commandName;
+
+    private CommandManager commandManager;
+    private SlashCommandInteractionEvent[] events;
+    private int next;
+
+    @Setup
+    public void setup() {
+        BenchmarkConfig.load();
+        commandManager = new CommandManager();
+        for (int i = commandManager.getCommands().size(); i < registeredCommands; i++) {
+            commandManager.registerCommand(new SlashCommand("bench-" + i, "Benchmark command " + i) {
+                @Override
+                public void execute(SlashCommandInteractionEvent event) {
+                    event.reply("bench").queue();
+                }
+            });
+        }
+        FakeInteractions interactions = new FakeInteractions(new ReplyRecorder(EVENTS));
+        events = new SlashCommandInteractionEvent[EVENTS];
+        for (int i = 0; i < EVENTS; i++) {
+            events[i] = interactions.slashCommand(commandName, 100_000_000_000_000_000L + i, 200_000_000_000_000_000L, System.nanoTime());
+        }
+    }
+
+    @Benchmark
+    public SlashCommandInteractionEvent dispatchByName() {
+        SlashCommandInteractionEvent event = events[next++ & (EVENTS - 1)];
+        commandManager.onSlashCommandInteraction(event);
+        return event;
+    }
+}
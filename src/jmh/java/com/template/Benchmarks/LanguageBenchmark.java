@@ -0,0 +1,90 @@
+package com.template.Benchmarks;
+
+import com.template.Language.LanguageUtils;
+import net.dv8tion.jda.api.interactions.DiscordLocale;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LanguageBenchmark
+ * <p>
+ *     Measures the lookup of a localized reply, which runs for every cooldown, busy and error reply, and the
+ *     generation of a map with all localizations of a key, which runs when commands are registered. The locales are
+ *     one with its own file, one that only has the base file and one Discord does not know.
+ * </p>
+ * <p>
+ *     The names and descriptions of commands are generated from the fixture bundle
+ *     {@code languages.commands.benchmark} in src/jmh/resources, which has a base file and four translations.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LanguageBenchmark {
+
+    private static final String BUNDLE = "languages.bot.global";
+    private static final String KEY = "command.cooldown.response";
+    private static final String COMMAND = "benchmark";
+
+    @Param({"de", "fr", "xx"})
+    public String language;
+
+    private Locale locale;
+
+    @Setup
+    public void setup() {
+        BenchmarkConfig.load();
+        locale = Locale.forLanguageTag(language);
+        if (!LanguageUtils.generateCommandNameMap(COMMAND).get(DiscordLocale.GERMAN).equals("messung")) {
+            throw new IllegalStateException("The fixture bundle languages.commands." + COMMAND + " is not on the classpath");
+        }
+    }
+
+    @Benchmark
+    public String getLanguageString() {
+        return LanguageUtils.getLanguageString(BUNDLE, KEY, locale);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 10)
+    public Map<DiscordLocale, String> generateLanguageMap() {
+        return LanguageUtils.generateLanguageMap(BUNDLE, KEY);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 10)
+    public Map<DiscordLocale, String> generateCommandNameMap() {
+        return LanguageUtils.generateCommandNameMap(COMMAND);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 10)
+    public Map<DiscordLocale, String> generateCommandDescriptionMap() {
+        return LanguageUtils.generateCommandDescriptionMap(COMMAND);
+    }
+}
@@ -0,0 +1,261 @@
+package com.template.LoadTest;
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.events.interaction.command.MessageContextInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.command.UserContextInteractionEvent;
+import net.dv8tion.jda.api.interactions.DiscordLocale;
+import net.dv8tion.jda.api.interactions.InteractionHook;
+import net.dv8tion.jda.api.interactions.InteractionType;
+import net.dv8tion.jda.api.interactions.commands.Command;
+import net.dv8tion.jda.api.interactions.commands.SlashCommandInteraction;
+import net.dv8tion.jda.api.interactions.commands.context.MessageContextInteraction;
+import net.dv8tion.jda.api.interactions.commands.context.UserContextInteraction;
+import net.dv8tion.jda.api.requests.RestAction;
+import net.dv8tion.jda.api.requests.restaction.interactions.ReplyCallbackAction;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * FakeInteractions
+ * <p>
+ *     Creates interaction events that look real to the managers, without a connection to Discord. The JDA entities
+ *     are dynamic proxies that only answer the calls the dispatch path makes; every other call returns an empty value,
+ *     the proxy itself for builder methods, or an action that completes immediately.
+ * </p>
+ * <p>
+ *     The first reply of an interaction, or its deferral, is reported to the {@link ReplyRecorder} together with the
+ *     time the interaction was dispatched.
+ * </p>
+ */
+public final class FakeInteractions {
+
+    private static final long DISCORD_EPOCH = 1420070400000L;
+
+    private final JDA jda = stub(JDA.class, Map.of(
+            "getShardInfo", args -> new JDA.ShardInfo(0, 1),
+            "getGatewayPing", args -> 42L,
+            "getStatus", args -> JDA.Status.CONNECTED));
+    private final ReplyRecorder recorder;
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * @param recorder The recorder the replies are reported to
+     */
+    public FakeInteractions(ReplyRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * @param name        The name of the slash command
+     * @param userId      The id of the invoking user
+     * @param guildId     The id of the guild the command is used in
+     * @param dispatchedAt The {@link System#nanoTime()} the interaction counts as dispatched at
+     * @return The event
+     */
+    public SlashCommandInteractionEvent slashCommand(String name, long userId, long guildId, long dispatchedAt) {
+        Map<String, Function<Object[], Object>> answers = interaction(Command.Type.SLASH, name, userId, guildId, dispatchedAt);
+        answers.put("getOptions", args -> List.of());
+        answers.put("getSubcommandName", args -> null);
+        answers.put("getSubcommandGroup", args -> null);
+        answers.put("getFullCommandName", args -> name);
+        SlashCommandInteraction interaction = stub(SlashCommandInteraction.class, answers);
+        return new SlashCommandInteractionEvent(jda, sequence.get(), interaction);
+    }
+
+    /**
+     * @param name         The name of the message context interaction
+     * @param userId       The id of the invoking user
+     * @param guildId      The id of the guild the interaction is used in
+     * @param dispatchedAt The {@link System#nanoTime()} the interaction counts as dispatched at
+     * @return The event
+     */
+    public MessageContextInteractionEvent messageContext(String name, long userId, long guildId, long dispatchedAt) {
+        Map<String, Function<Object[], Object>> answers = interaction(Command.Type.MESSAGE, name, userId, guildId, dispatchedAt);
+        long messageId = snowflake();
+        answers.put("getTarget", args -> stub(Message.class, Map.of(
+                "getIdLong", ignored -> messageId,
+                "getId", ignored -> Long.toUnsignedString(messageId))));
+        MessageContextInteraction interaction = stub(MessageContextInteraction.class, answers);
+        return new MessageContextInteractionEvent(jda, sequence.get(), interaction);
+    }
+
+    /**
+     * @param name         The name of the user context interaction
+     * @param userId       The id of the invoking user
+     * @param guildId      The id of the guild the interaction is used in
+     * @param dispatchedAt The {@link System#nanoTime()} the interaction counts as dispatched at
+     * @return The event
+     */
+    public UserContextInteractionEvent userContext(String name, long userId, long guildId, long dispatchedAt) {
+        Map<String, Function<Object[], Object>> answers = interaction(Command.Type.USER, name, userId, guildId, dispatchedAt);
+        answers.put("getTarget", args -> user(userId + 1));
+        UserContextInteraction interaction = stub(UserContextInteraction.class, answers);
+        return new UserContextInteractionEvent(jda, sequence.get(), interaction);
+    }
+
+    /**
+     * The answers every interaction shares. Replies are created by {@code deferReply}, the other reply methods are
+     * default methods ending there.
+     */
+    private Map<String, Function<Object[], Object>> interaction(Command.Type type, String name, long userId, long guildId, long dispatchedAt) {
+        long id = snowflake();
+        long channelId = guildId + 1;
+        User user = user(userId);
+        Guild guild = stub(Guild.class, Map.of(
+                "getIdLong", args -> guildId,
+                "getId", args -> Long.toUnsignedString(guildId)));
+        AtomicBoolean acknowledged = new AtomicBoolean();
+        InteractionHook hook = stub(InteractionHook.class, Map.of("getJDA", args -> jda));
+
+        Map<String, Function<Object[], Object>> answers = new HashMap<>();
+        answers.put("getIdLong", args -> id);
+        answers.put("getId", args -> Long.toUnsignedString(id));
+        answers.put("getJDA", args -> jda);
+        answers.put("getType", args -> InteractionType.COMMAND);
+        answers.put("getTypeRaw", args -> InteractionType.COMMAND.getKey());
+        answers.put("getCommandType", args -> type);
+        answers.put("getName", args -> name);
+        answers.put("getUser", args -> user);
+        answers.put("getGuild", args -> guild);
+        answers.put("isFromGuild", args -> true);
+        answers.put("getChannelIdLong", args -> channelId);
+        answers.put("getUserLocale", args -> DiscordLocale.ENGLISH_US);
+        answers.put("getGuildLocale", args -> DiscordLocale.ENGLISH_US);
+        answers.put("isAcknowledged", args -> acknowledged.get());
+        answers.put("getHook", args -> hook);
+        answers.put("deferReply", args -> reply(acknowledged, hook, dispatchedAt));
+        return answers;
+    }
+
+    private User user(long userId) {
+        return stub(User.class, Map.of(
+                "getIdLong", args -> userId,
+                "getId", args -> Long.toUnsignedString(userId),
+                "getAsMention", args -> "<@" + userId + ">",
+                "getName", args -> "user" + userId));
+    }
+
+    /**
+     * A reply that records itself once it is sent and then behaves as if Discord accepted it.
+     */
+    @SuppressWarnings("unchecked")
+    private ReplyCallbackAction reply(AtomicBoolean acknowledged, InteractionHook hook, long dispatchedAt) {
+        StringBuilder content = new StringBuilder();
+        boolean[] ephemeral = new boolean[1];
+        Map<String, Function<Object[], Object>> answers = new HashMap<>();
+        answers.put("setContent", args -> {
+            content.setLength(0);
+            content.append(args[0] == null ? "" : args[0]);
+            return null;
+        });
+        answers.put("setEphemeral", args -> {
+            ephemeral[0] = (boolean) args[0];
+            return null;
+        });
+        answers.put("getContent", args -> content.toString());
+        Runnable send = () -> {
+            if (!acknowledged.getAndSet(true)) {
+                recorder.record(System.nanoTime() - dispatchedAt, ephemeral[0]);
+            }
+        };
+        answers.put("queue", args -> {
+            send.run();
+            if (args != null && args.length > 0 && args[0] != null) {
+                ((Consumer<Object>) args[0]).accept(hook);
+            }
+            return null;
+        });
+        answers.put("submit", args -> {
+            send.run();
+            return CompletableFuture.completedFuture(hook);
+        });
+        answers.put("complete", args -> {
+            send.run();
+            return hook;
+        });
+        return stub(ReplyCallbackAction.class, answers);
+    }
+
+    private long snowflake() {
+        return ((System.currentTimeMillis() - DISCORD_EPOCH) << 22) | (sequence.incrementAndGet() & 0x3FFFFF);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, new Stub(type, answers));
+    }
+
+    /**
+     * Answers the known calls, forwards default methods to their implementation and fills in everything else.
+     * An answer returning null for a method that returns the stub type keeps builder chains on the stub.
+     */
+    private record Stub(Class<?> type, Map<String, Function<Object[], Object>> answers) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer != null) {
+                Object result = answer.apply(args);
+                return result == null && method.getReturnType().isInstance(proxy) ? proxy : result;
+            }
+            if (method.isDefault()) {
+                return InvocationHandler.invokeDefault(proxy, method, args);
+            }
+            return switch (method.getName()) {
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "toString" -> "Fake" + type.getSimpleName();
+                default -> fill(proxy, method.getReturnType());
+            };
+        }
+
+        private static Object fill(Object proxy, Class<?> returnType) {
+            if (returnType == boolean.class) {
+                return false;
+            }
+            if (returnType == long.class) {
+                return 0L;
+            }
+            if (returnType == int.class) {
+                return 0;
+            }
+            if (returnType == double.class) {
+                return 0.0;
+            }
+            if (returnType == List.class || returnType == Collection.class) {
+                return List.of();
+            }
+            if (returnType == Set.class) {
+                return Set.of();
+            }
+            if (returnType.isInstance(proxy)) {
+                return proxy;
+            }
+            if (returnType.isInterface() && RestAction.class.isAssignableFrom(returnType)) {
+                // Deleting or editing messages completes immediately without a result
+                return stub(returnType, Map.of(
+                        "queue", args -> null,
+                        "queueAfter", args -> null,
+                        "submit", args -> CompletableFuture.completedFuture(null),
+                        "complete", args -> null));
+            }
+            return null;
+        }
+    }
+}
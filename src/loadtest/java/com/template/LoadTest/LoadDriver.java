@@ -0,0 +1,199 @@
+package com.template.LoadTest;
+
+import com.template.Bot.Managers.Command.CommandManager;
+import com.template.Bot.Managers.Command.SlashCommand;
+import com.template.Bot.Managers.Cooldown;
+import com.template.Bot.Managers.Interaction.ContextInteraction;
+import com.template.Bot.Managers.Interaction.InteractionManager;
+import com.template.Main;
+import net.dv8tion.jda.api.interactions.commands.Command;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * LoadDriver
+ * <p>
+ *     Fires synthetic slash commands and context interactions at the {@link CommandManager} and
+ *     {@link InteractionManager}, without Discord, and reports the throughput and the dispatch-to-reply latencies.
+ *     The load is open: every thread dispatches on a fixed schedule, and a dispatch that runs late counts its delay
+ *     into the latency, so a stalled dispatch path shows up in the percentiles instead of lowering the rate.
+ * </p>
+ * <p>
+ *     Configured with system properties, run with {@code mvn -Ploadtest verify}:
+ *     loadtest.rate: Interactions per second over all threads (default 5000)
+ *     loadtest.threads: Dispatching threads, like the event threads of the shards (default 4)
+ *     loadtest.duration: Seconds to run after the warmup (default 20)
+ *     loadtest.warmup: Seconds of load before measuring (default 5)
+ *     loadtest.users: Distinct users the interactions come from (default 10000)
+ *     loadtest.guilds: Distinct guilds the interactions come from (default 100)
+ *     loadtest.mix: Weighted names, e.g. "ping:8,delete Message:1,mention User:1" (default: all, equally weighted)
+ *     loadtest.cooldown: Seconds of a per user cooldown put on every command and interaction, 0 keeps their own (default 0)
+ * </p>
+ */
+public final class LoadDriver {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadDriver.class);
+
+    private LoadDriver() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        loadProperties();
+
+        int rate = Integer.getInteger("loadtest.rate", 5000);
+        int threads = Integer.getInteger("loadtest.threads", 4);
+        int duration = Integer.getInteger("loadtest.duration", 20);
+        int warmup = Integer.getInteger("loadtest.warmup", 5);
+        int users = Integer.getInteger("loadtest.users", 10000);
+        int guilds = Integer.getInteger("loadtest.guilds", 100);
+        int cooldown = Integer.getInteger("loadtest.cooldown", 0);
+
+        CommandManager commandManager = new CommandManager();
+        InteractionManager interactionManager = new InteractionManager();
+        if (cooldown > 0) {
+            Cooldown userCooldown = new Cooldown(cooldown, Cooldown.Time.SECONDS, Cooldown.Scope.USER);
+            commandManager.getCommands().forEach(command -> command.setCooldown(userCooldown));
+            interactionManager.getInteractions().forEach(interaction -> interaction.setCooldown(userCooldown));
+        }
+        List<Target> mix = parseMix(System.getProperty("loadtest.mix", ""), commandManager, interactionManager);
+        logger.info("Load test: {} interactions/s on {} threads for {} s after {} s warmup, {} users, {} guilds, mix {}",
+                rate, threads, duration, warmup, users, guilds, mix);
+
+        run(commandManager, interactionManager, mix, rate, threads, warmup, users, guilds, new ReplyRecorder(16));
+        ReplyRecorder recorder = new ReplyRecorder((int) Math.min(Integer.MAX_VALUE - 8, (long) rate * duration * 2));
+        Result result = run(commandManager, interactionManager, mix, rate, threads, duration, users, guilds, recorder);
+        report(recorder, result, duration);
+        System.exit(0);
+    }
+
+    private static Result run(CommandManager commandManager, InteractionManager interactionManager, List<Target> mix,
+                              int rate, int threads, int seconds, int users, int guilds, ReplyRecorder recorder) throws InterruptedException {
+        FakeInteractions interactions = new FakeInteractions(recorder);
+        LongAdder dispatched = new LongAdder();
+        AtomicLong failed = new AtomicLong();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(threads) / rate;
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        int totalWeight = mix.stream().mapToInt(Target::weight).sum();
+
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long offset = intervalNanos * t / threads;
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (long next = start + offset; next < end; next += intervalNanos) {
+                    long wait = next - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    long userId = 100_000_000_000_000_000L + random.nextInt(users);
+                    long guildId = 200_000_000_000_000_000L + random.nextInt(guilds) * 1000L;
+                    Target target = pick(mix, random.nextInt(totalWeight));
+                    dispatched.increment();
+                    try {
+                        dispatch(target, interactions, commandManager, interactionManager, userId, guildId, next);
+                    } catch (RuntimeException e) {
+                        // Like the event manager of JDA, a failing dispatch must not stop the thread
+                        if (failed.incrementAndGet() == 1) {
+                            logger.error("Dispatch of {} failed, further failures are only counted", target.name(), e);
+                        }
+                    }
+                }
+            }, "LoadTest-" + t);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        // Handlers on virtual threads may still be answering
+        long drainUntil = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (recorder.getReplies() + failed.get() < dispatched.sum() && System.nanoTime() < drainUntil) {
+            Thread.sleep(10);
+        }
+        return new Result(dispatched.sum(), failed.get());
+    }
+
+    private static void dispatch(Target target, FakeInteractions interactions, CommandManager commandManager,
+                                 InteractionManager interactionManager, long userId, long guildId, long dispatchedAt) {
+        switch (target.type()) {
+            case SLASH -> commandManager.onSlashCommandInteraction(interactions.slashCommand(target.name(), userId, guildId, dispatchedAt));
+            case MESSAGE -> interactionManager.onMessageContextInteraction(interactions.messageContext(target.name(), userId, guildId, dispatchedAt));
+            case USER -> interactionManager.onUserContextInteraction(interactions.userContext(target.name(), userId, guildId, dispatchedAt));
+            default -> throw new IllegalStateException("Unsupported interaction type " + target.type());
+        }
+    }
+
+    private static void report(ReplyRecorder recorder, Result result, int seconds) {
+        long[] latencies = recorder.getSortedLatencies();
+        long replies = recorder.getReplies();
+        logger.info("Dispatched {}, answered {} ({} ephemeral, e.g. cooldown), failed {}, unanswered {}",
+                result.dispatched(), replies, recorder.getEphemeralReplies(), result.failed(), result.dispatched() - replies - result.failed());
+        logger.info("Throughput {} replies/s", replies / seconds);
+        logger.info("Dispatch to reply latency: p50 {} us, p99 {} us, p999 {} us, max {} us",
+                ReplyRecorder.percentile(latencies, 0.50) / 1000, ReplyRecorder.percentile(latencies, 0.99) / 1000,
+                ReplyRecorder.percentile(latencies, 0.999) / 1000, ReplyRecorder.percentile(latencies, 1.0) / 1000);
+    }
+
+    private static Target pick(List<Target> mix, int roll) {
+        for (Target target : mix) {
+            roll -= target.weight();
+            if (roll < 0) {
+                return target;
+            }
+        }
+        return mix.get(mix.size() - 1);
+    }
+
+    /**
+     * Parses the mix, names are matched against the registered commands and interactions. The weight follows the
+     * last colon, so names may contain spaces.
+     */
+    private static List<Target> parseMix(String mix, CommandManager commandManager, InteractionManager interactionManager) {
+        List<Target> targets = new ArrayList<>();
+        if (mix.isBlank()) {
+            commandManager.getCommands().forEach(command -> targets.add(new Target(command.getDefaultCommandName(), Command.Type.SLASH, 1)));
+            interactionManager.getInteractions().forEach(interaction -> targets.add(new Target(interaction.getDefaultInteractionName(), interaction.getType(), 1)));
+            return targets;
+        }
+        for (String entry : mix.split(",")) {
+            int colon = entry.lastIndexOf(':');
+            String name = (colon < 0 ? entry : entry.substring(0, colon)).trim();
+            int weight = colon < 0 ? 1 : Integer.parseInt(entry.substring(colon + 1).trim());
+            Command.Type type = commandManager.getCommands().stream().map(SlashCommand::getDefaultCommandName).anyMatch(name::equals) ? Command.Type.SLASH
+                    : interactionManager.getInteractions().stream().filter(interaction -> interaction.getDefaultInteractionName().equals(name))
+                    .map(ContextInteraction::getType).findFirst().orElseThrow(() -> new IllegalArgumentException("Unknown command or interaction " + name));
+            targets.add(new Target(name, type, weight));
+        }
+        return targets;
+    }
+
+    private static void loadProperties() throws IOException {
+        try (InputStreamReader reader = new InputStreamReader(new FileInputStream("src/main/resources/discord.properties"), StandardCharsets.UTF_8)) {
+            Main.discord.load(reader);
+        }
+    }
+
+    private record Result(long dispatched, long failed) {
+    }
+
+    private record Target(String name, Command.Type type, int weight) {
+
+        @Override
+        public String toString() {
+            return name + ":" + weight;
+        }
+    }
+}
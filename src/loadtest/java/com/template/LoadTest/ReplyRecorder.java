@@ -0,0 +1,79 @@
+package com.template.LoadTest;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ReplyRecorder
+ * <p>
+ *     Collects the dispatch-to-reply latency of every answered interaction. The latencies are written into a
+ *     preallocated array, so recording from the handler threads neither locks nor allocates; replies beyond its
+ *     capacity are only counted.
+ * </p>
+ */
+public final class ReplyRecorder {
+
+    private final long[] latencies;
+    private final AtomicInteger recorded = new AtomicInteger();
+    private final LongAdder replies = new LongAdder();
+    private final LongAdder ephemeralReplies = new LongAdder();
+
+    /**
+     * @param capacity The number of latencies kept for the percentiles
+     */
+    public ReplyRecorder(int capacity) {
+        this.latencies = new long[capacity];
+    }
+
+    /**
+     * @param latencyNanos The time from the dispatch of the interaction to its first reply
+     * @param ephemeral    Whether the reply was ephemeral, which cooldown, busy and error replies are
+     */
+    public void record(long latencyNanos, boolean ephemeral) {
+        replies.increment();
+        if (ephemeral) {
+            ephemeralReplies.increment();
+        }
+        int index = recorded.getAndIncrement();
+        if (index < latencies.length) {
+            latencies[index] = latencyNanos;
+        }
+    }
+
+    /**
+     * @return The number of replies
+     */
+    public long getReplies() {
+        return replies.sum();
+    }
+
+    /**
+     * @return The number of ephemeral replies
+     */
+    public long getEphemeralReplies() {
+        return ephemeralReplies.sum();
+    }
+
+    /**
+     * @return The recorded latencies in ascending order
+     */
+    public long[] getSortedLatencies() {
+        long[] sorted = Arrays.copyOf(latencies, Math.min(recorded.get(), latencies.length));
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    /**
+     * @param sorted   Latencies in ascending order
+     * @param quantile The quantile between 0 and 1
+     * @return The latency at the quantile, 0 if there are none
+     */
+    public static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+}
@@ -1,27 +1,37 @@
 package com.template.Bot;
 
+import com.template.Bot.Cluster.ClusterAssignment;
+import com.template.Bot.Cluster.ClusterCoordinator;
+import com.template.Bot.Cluster.ClusterMember;
+import com.template.Bot.Cluster.ClusterRole;
+import com.template.Bot.Cluster.ClusterSessionController;
+import com.template.Bot.Managers.Cache.EntityCache;
 import com.template.Bot.Managers.Command.CommandManager;
+import com.template.Bot.Managers.CommandSync;
+import com.template.Bot.Managers.Component.ComponentManager;
+import com.template.Bot.Managers.GatewayProfile;
 import com.template.Bot.Managers.Interaction.InteractionManager;
+import com.template.Bot.Managers.Metrics.MetricsServer;
+import com.template.Bot.Managers.Metrics.RestMetrics;
 import com.template.Main;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.entities.Activity;
 import net.dv8tion.jda.api.entities.Guild;
-import net.dv8tion.jda.api.events.session.ReadyEvent;
-import net.dv8tion.jda.api.hooks.ListenerAdapter;
-import net.dv8tion.jda.api.interactions.commands.Command;
-import net.dv8tion.jda.api.interactions.commands.build.CommandData;
 import net.dv8tion.jda.api.requests.GatewayIntent;
+import net.dv8tion.jda.api.requests.RestConfig;
 import net.dv8tion.jda.api.sharding.DefaultShardManagerBuilder;
 import net.dv8tion.jda.api.sharding.ShardManager;
-import net.dv8tion.jda.api.utils.ChunkingFilter;
-import net.dv8tion.jda.api.utils.MemberCachePolicy;
-import net.dv8tion.jda.api.utils.cache.CacheFlag;
-import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Collection;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 
 public class Bot {
 
@@ -31,35 +41,50 @@ public class Bot {
     public static ShardManager shardManager;
     private static CommandManager commandManager;
     private static InteractionManager interactionManager;
+    private static ComponentManager componentManager;
+    private static StartupCoordinator startupCoordinator;
+    private static GatewayProfile gatewayProfile;
+    private static ClusterCoordinator clusterCoordinator;
+    private static ClusterMember clusterMember;
+    private static MetricsServer metricsServer;
 
     public static void stopDiscordBot() {
         shardManager.shutdown();
+        EntityCache.clear();
         logger.info("Bot stopped");
     }
 
     public static void startDiscordBot() throws InterruptedException {
-        builder = DefaultShardManagerBuilder.create(discord.getProperty("discord.bot.token"),
-                // This is a privileged gateway intent that is used to update user information and join/leaves (including kicks). This is required to cache all members of a guild (including chunking)
-                GatewayIntent.GUILD_MEMBERS,
-                // This will only track guild webhook create/update/delete.
-                GatewayIntent.GUILD_WEBHOOKS,
-                // This is used to receive incoming messages in guilds (servers), most bots will need this for commands.
-                GatewayIntent.GUILD_MESSAGES,
-                // This is used to track reactions on messages in guilds (servers).
-                GatewayIntent.GUILD_MESSAGE_REACTIONS,
-                // This is used to receive incoming messages in private channels (DMs).
-                GatewayIntent.DIRECT_MESSAGES,
-                // This is used to track reactions on messages in private channels (DMs).
-                GatewayIntent.DIRECT_MESSAGE_REACTIONS,
-                GatewayIntent.MESSAGE_CONTENT);
-        builder.disableCache(CacheFlag.ACTIVITY, CacheFlag.CLIENT_STATUS, CacheFlag.EMOJI, CacheFlag.FORUM_TAGS, CacheFlag.ONLINE_STATUS, CacheFlag.SCHEDULED_EVENTS, CacheFlag.STICKER, CacheFlag.VOICE_STATE);
-        builder.setMemberCachePolicy(MemberCachePolicy.ONLINE);
-        ChunkingFilter chunkingFilter = ChunkingFilter.include(Long.parseLong(discord.getProperty("discord.server.id")));
-        builder.setChunkingFilter(chunkingFilter);
+        // The managers instantiate all features, which decide the intents and caches the shards need
+        commandManager = new CommandManager();
+        interactionManager = new InteractionManager();
+        componentManager = new ComponentManager();
+
+        List<GatewayProfile.Holder> features = new ArrayList<>(commandManager.getCommands());
+        features.addAll(interactionManager.getInteractions());
+        features.addAll(componentManager.getHandlers());
+        gatewayProfile = GatewayProfile.resolve(GatewayProfile.Mode.getMode(discord.getProperty("gateway.profile", "auto")),
+                parseIntents(discord.getProperty("gateway.intents", "")),
+                Long.parseLong(discord.getProperty("discord.server.id").trim()), features);
+        builder = gatewayProfile.createBuilder(discord.getProperty("discord.bot.token"));
         builder.setBulkDeleteSplittingEnabled(false);
         builder.setLargeThreshold(250);
         builder.setAutoReconnect(true);
-        builder.setShardsTotal(-1);
+        builder.setRestConfig(RestMetrics.instrument(new RestConfig()));
+        builder.setHttpClientBuilder(RestMetrics.createHttpClientBuilder());
+
+        // Either run all shards in this process or the range the cluster coordinator assigns to it
+        ClusterRole clusterRole = ClusterRole.getRole(discord.getProperty("cluster.role", "none"));
+        int expectedShards = -1;
+        if (clusterRole == ClusterRole.NONE) {
+            builder.setShardsTotal(-1);
+        } else {
+            ClusterAssignment assignment = joinCluster(clusterRole);
+            builder.setShardsTotal(assignment.shardsTotal());
+            builder.setShards(assignment.firstShard(), assignment.lastShard());
+            builder.setSessionController(new ClusterSessionController(clusterMember));
+            expectedShards = assignment.shardCount();
+        }
 
         String activity = discord.getProperty("discord.bot.activityName");
         String activityType = discord.getProperty("discord.bot.activityType");
@@ -71,24 +96,87 @@ public class Bot {
             default -> builder.setActivity(Activity.customStatus(activity));
         }
 
-        commandManager = new CommandManager();
-        interactionManager = new InteractionManager();
+        startupCoordinator = new StartupCoordinator(expectedShards);
         builder.addEventListeners(
                 commandManager,
-                interactionManager
+                interactionManager,
+                componentManager,
+                startupCoordinator,
+                new EntityCache.Invalidator()
         );
-
-        builder.addEventListeners(new ListenerAdapter() {
-            @Override
-            public void onReady(@NotNull ReadyEvent event) {
-                super.onReady(event);
-                logger.info("Bot is ready");
-                registerEverything();
-            }
-        });
+        registerEverything();
+        startupCoordinator.awaitReady().thenRun(() -> gatewayProfile.logHeapUsage(shardManager));
 
         shardManager = builder.build();
 
+        if (clusterMember != null) {
+            clusterMember.startHealthReports(shardManager, Long.parseLong(discord.getProperty("cluster.healthInterval", "10").trim()));
+        }
+        startMetricsServer();
+    }
+
+    /**
+     * Starts the metrics endpoint once, a restart of the bot keeps it running. A port of 0 disables it.
+     */
+    private static void startMetricsServer() {
+        int port = Integer.parseInt(discord.getProperty("metrics.port", "0").trim());
+        if (port <= 0 || metricsServer != null) {
+            return;
+        }
+        try {
+            metricsServer = MetricsServer.start(discord.getProperty("metrics.host", "127.0.0.1").trim(), port);
+        } catch (IOException e) {
+            // Metrics are not worth failing the startup for
+            logger.error("Could not start the metrics endpoint on port {}", port, e);
+        }
+    }
+
+    /**
+     * Starts the cluster coordinator if this process is the coordinator and connects to it.
+     * @return The shard range of this process
+     */
+    private static ClusterAssignment joinCluster(ClusterRole role) {
+        String host = discord.getProperty("cluster.coordinator.host", "127.0.0.1").trim();
+        int port = Integer.parseInt(discord.getProperty("cluster.coordinator.port", "7420").trim());
+        try {
+            if (role == ClusterRole.COORDINATOR && clusterCoordinator == null) {
+                int clusterCount = Integer.parseInt(discord.getProperty("cluster.count", "1").trim());
+                int shardsTotal = Integer.parseInt(discord.getProperty("cluster.shardsTotal", "-1").trim());
+                int maxConcurrency = Integer.parseInt(discord.getProperty("cluster.maxConcurrency", "-1").trim());
+                if (shardsTotal <= 0 || maxConcurrency <= 0) {
+                    ClusterCoordinator.Gateway gateway = ClusterCoordinator.fetchGateway(discord.getProperty("discord.bot.token"));
+                    shardsTotal = shardsTotal > 0 ? shardsTotal : Math.max(gateway.shards(), clusterCount);
+                    maxConcurrency = maxConcurrency > 0 ? maxConcurrency : gateway.maxConcurrency();
+                }
+                clusterCoordinator = new ClusterCoordinator(clusterCount, shardsTotal, maxConcurrency,
+                        Long.parseLong(discord.getProperty("cluster.healthInterval", "10").trim()));
+                clusterCoordinator.start(InetAddress.getByName(host), port);
+            }
+            if (clusterMember == null) {
+                clusterMember = ClusterMember.connect(host, port);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not join the cluster", e);
+        }
+        return clusterMember.getAssignment();
+    }
+
+    /**
+     * Parses a comma separated list of gateway intents, unknown intents are logged and skipped.
+     */
+    private static Set<GatewayIntent> parseIntents(String intents) {
+        Set<GatewayIntent> parsed = EnumSet.noneOf(GatewayIntent.class);
+        for (String intent : intents.split(",")) {
+            if (intent.isBlank()) {
+                continue;
+            }
+            try {
+                parsed.add(GatewayIntent.valueOf(intent.trim().toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                logger.warn("Unknown gateway intent {} in gateway.intents", intent.trim());
+            }
+        }
+        return parsed;
     }
 
     public static JDA getJDA(int shardId) {
@@ -119,44 +207,69 @@ public class Bot {
         logger.info("Bot started");
     }
 
+    /**
+     * Builds the command data and synchronizes it with Discord in the background, once per start.
+     * The global commands are synchronized as soon as the first shard is ready, the home guild commands once all
+     * shards are ready, so the shard holding the home guild is connected as well.
+     * In a cluster the global commands are synchronized by cluster 0 and the home guild commands by the cluster
+     * running the shard of the home guild.
+     */
     private static void registerEverything() {
+        startupCoordinator.awaitFirstShard().thenAccept(jda -> {
+            commandManager.registerCommands();
+            interactionManager.registerInteractions();
 
-        commandManager.registerCommands();
-        interactionManager.registerInteractions();
+            commandManager.getCommandData().addAll(interactionManager.getInteractionData());
+            commandManager.getHomeGuildCommandData().addAll(interactionManager.getHomeGuildInteractionData());
 
-        Collection<CommandData> commands = commandManager.getCommandData();
-        Collection<CommandData> homeGuildCommands = commandManager.getHomeGuildCommandData();
-        Collection<CommandData> interactions = interactionManager.getInteractionData();
-        Collection<CommandData> homeGuildInteractions = interactionManager.getHomeGuildInteractionData();
-
-        commands.addAll(interactions);
-        homeGuildCommands.addAll(homeGuildInteractions);
-
-        getHomeGuild().updateCommands().addCommands(homeGuildCommands).complete();
-        getJDA().updateCommands().addCommands(commands).complete();
-
-        logger.info("Global Commands:");
-        getJDA().retrieveCommands().queue(jdaCommands -> {
-            for (Command jdaCommand : jdaCommands) {
-                logger.info("Command Name: {}, Description: {}, Options: {}",
-                        jdaCommand.getName(),
-                        jdaCommand.getDescription(),
-                        jdaCommand.getOptions());
+            if (clusterMember == null || clusterMember.getAssignment().clusterId() == 0) {
+                CommandSync.sync(jda, commandManager.getCommandData());
             }
-        });
-
-        logger.info("Home Guild Commands:");
-        getHomeGuild().retrieveCommands().queue(guildCommands -> {
-            for (Command guildCommand : guildCommands) {
-                logger.info("Command Name: {}, Description: {}, Options: {}",
-                        guildCommand.getName(),
-                        guildCommand.getDescription(),
-                        guildCommand.getOptions());
+        }).thenCombine(startupCoordinator.awaitReady(), (result, ready) -> getHomeGuild()).thenAccept(homeGuild -> {
+            if (!isHomeGuildLocal()) {
+                return;
             }
+            if (homeGuild == null) {
+                logger.warn("The home guild {} was not found, its commands are not registered", discord.getProperty("discord.server.id"));
+                return;
+            }
+            CommandSync.sync(homeGuild, commandManager.getHomeGuildCommandData());
+        }).exceptionally(throwable -> {
+            logger.error("Failed to register the commands", throwable);
+            return null;
         });
+    }
 
+    /**
+     * @return The connection to the cluster coordinator, or null if this process runs all shards
+     */
+    public static ClusterMember getClusterMember() {
+        return clusterMember;
     }
+
+    /**
+     * Home guild only features have to run in the process that holds the home guild.
+     * @return True if the shard of the home guild runs in this process
+     */
+    public static boolean isHomeGuildLocal() {
+        return clusterMember == null || clusterMember.getAssignment().ownsGuild(Long.parseLong(discord.getProperty("discord.server.id").trim()));
+    }
+
+    /**
+     * @return The {@link GatewayProfile} the shards were built with
+     */
+    public static GatewayProfile getGatewayProfile() {
+        return gatewayProfile;
+    }
+
+    /**
+     * @return The {@link StartupCoordinator} tracking which shards are ready
+     */
+    public static StartupCoordinator getStartupCoordinator() {
+        return startupCoordinator;
+    }
+
     public static Guild getHomeGuild() {
-        return getJDA().getGuildById(Main.discord.get("discord.server.id").toString());
+        return shardManager.getGuildById(Main.discord.get("discord.server.id").toString());
     }
 }
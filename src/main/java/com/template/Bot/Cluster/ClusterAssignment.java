@@ -0,0 +1,39 @@
+package com.template.Bot.Cluster;
+
+/**
+ * ClusterAssignment
+ * <p>
+ *     The shard range a process was assigned by the {@link ClusterCoordinator}.
+ * </p>
+ *
+ * @param clusterId      The id of the cluster, 0 to the number of clusters - 1
+ * @param firstShard     The first shard of the range
+ * @param lastShard      The last shard of the range, inclusive
+ * @param shardsTotal    The total number of shards of the bot
+ * @param maxConcurrency The number of shards that may identify at the same time
+ */
+public record ClusterAssignment(int clusterId, int firstShard, int lastShard, int shardsTotal, int maxConcurrency) {
+
+    /**
+     * @return The number of shards of the cluster
+     */
+    public int shardCount() {
+        return lastShard - firstShard + 1;
+    }
+
+    /**
+     * @param shardId The id of a shard
+     * @return True if the shard runs in this cluster
+     */
+    public boolean ownsShard(int shardId) {
+        return shardId >= firstShard && shardId <= lastShard;
+    }
+
+    /**
+     * @param guildId The id of a guild
+     * @return True if the shard of the guild runs in this cluster
+     */
+    public boolean ownsGuild(long guildId) {
+        return ownsShard((int) ((guildId >>> 22) % shardsTotal));
+    }
+}
@@ -0,0 +1,290 @@
+package com.template.Bot.Cluster;
+
+import net.dv8tion.jda.api.utils.SessionController;
+import net.dv8tion.jda.api.utils.data.DataObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ClusterCoordinator
+ * <p>
+ *     Splits the shards of the bot into one range per cluster and hands them to the processes that connect, see
+ *     {@link ClusterMember}. Members ask the coordinator before a shard identifies, so all processes together never
+ *     identify more than {@code max_concurrency} shards every five seconds. Members also report their health, which
+ *     the coordinator logs regularly.
+ * </p>
+ * <p>
+ *     The coordinator speaks a line based text protocol over TCP and is meant to listen on loopback or a private
+ *     network only, it does not authenticate its members.
+ * </p>
+ * <pre>
+ *     HELLO                                        -> ASSIGN clusterId firstShard lastShard shardsTotal maxConcurrency | FULL
+ *     IDENTIFY shardId                             -> GRANT shardId, once the shard may identify
+ *     HEALTH ready shards guilds ping heapMb       (no answer)
+ * </pre>
+ */
+public final class ClusterCoordinator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterCoordinator.class);
+
+    private static final long IDENTIFY_INTERVAL = TimeUnit.SECONDS.toMillis(SessionController.IDENTIFY_DELAY);
+    // Reports older than this many report intervals mark a cluster as stale
+    private static final int STALE_REPORTS = 3;
+
+    private final int clusterCount;
+    private final int shardsTotal;
+    private final int maxConcurrency;
+    private final long healthInterval;
+    private final Connection[] members;
+    private final long[] nextIdentify;
+    private final Map<Integer, Health> health = new ConcurrentHashMap<>();
+    private final ScheduledThreadPoolExecutor healthExecutor = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "Cluster-Health");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private ServerSocket serverSocket;
+
+    /**
+     * @param clusterCount   The number of processes the shards are split into
+     * @param shardsTotal    The total number of shards of the bot
+     * @param maxConcurrency The number of shards that may identify at the same time
+     * @param healthInterval The seconds between two health reports of a member
+     */
+    public ClusterCoordinator(int clusterCount, int shardsTotal, int maxConcurrency, long healthInterval) {
+        if (clusterCount < 1 || shardsTotal < clusterCount || maxConcurrency < 1) {
+            throw new IllegalArgumentException("Every cluster needs at least one shard and the concurrency has to be positive");
+        }
+        this.clusterCount = clusterCount;
+        this.shardsTotal = shardsTotal;
+        this.maxConcurrency = maxConcurrency;
+        this.healthInterval = healthInterval;
+        this.members = new Connection[clusterCount];
+        this.nextIdentify = new long[maxConcurrency];
+    }
+
+    /**
+     * Starts listening for members.
+     *
+     * @param address The address to listen on, usually {@link InetAddress#getLoopbackAddress()}
+     * @param port    The port to listen on
+     * @throws IOException If the port can not be bound
+     */
+    public void start(InetAddress address, int port) throws IOException {
+        serverSocket = new ServerSocket(port, 50, address);
+        Thread acceptThread = new Thread(this::acceptMembers, "Cluster-Coordinator");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+        healthExecutor.scheduleAtFixedRate(this::logHealth, healthInterval * 2, healthInterval * 2, TimeUnit.SECONDS);
+        logger.info("Cluster coordinator listening on {}:{}, {} shards in {} clusters, identify concurrency {}",
+                address.getHostAddress(), port, shardsTotal, clusterCount, maxConcurrency);
+    }
+
+    /**
+     * Stops the coordinator and disconnects all members.
+     */
+    public void stop() {
+        healthExecutor.shutdownNow();
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to close the cluster coordinator: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return The last health report of every connected cluster, by cluster id
+     */
+    public Map<Integer, Health> getHealth() {
+        return new TreeMap<>(health);
+    }
+
+    /**
+     * Asks Discord for the recommended shard count and the identify concurrency of the bot.
+     *
+     * @param token The bot token
+     * @return The {@link Gateway} information
+     * @throws IOException If Discord could not be reached
+     */
+    public static Gateway fetchGateway(String token) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("https://discord.com/api/v10/gateway/bot"))
+                .header("Authorization", "Bot " + token)
+                .GET()
+                .build();
+        try {
+            HttpResponse<String> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IOException("Discord answered " + response.statusCode() + " to the gateway request");
+            }
+            DataObject data = DataObject.fromJson(response.body());
+            return new Gateway(data.getInt("shards"), data.getObject("session_start_limit").getInt("max_concurrency", 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while fetching the gateway information", e);
+        }
+    }
+
+    private void acceptMembers() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread.ofVirtual().name("Cluster-Member").start(() -> serve(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    logger.error("Failed to accept a cluster member: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        Connection connection = null;
+        try (socket;
+             BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+            connection = new Connection(new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.trim().split(" ");
+                switch (parts[0]) {
+                    case "HELLO" -> assign(connection);
+                    case "IDENTIFY" -> grantIdentify(connection, Integer.parseInt(parts[1]));
+                    case "HEALTH" -> {
+                        if (connection.clusterId >= 0) {
+                            health.put(connection.clusterId, new Health(connection.clusterId, Integer.parseInt(parts[1]), Integer.parseInt(parts[2]),
+                                    Long.parseLong(parts[3]), Long.parseLong(parts[4]), Long.parseLong(parts[5]), System.currentTimeMillis()));
+                        }
+                    }
+                    default -> logger.warn("Unknown message from a cluster member: {}", line);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Connection to a cluster member failed: {}", e.getMessage());
+        } finally {
+            if (connection != null) {
+                release(connection);
+            }
+        }
+    }
+
+    private void assign(Connection connection) {
+        int clusterId;
+        synchronized (members) {
+            clusterId = connection.clusterId;
+            for (int i = 0; i < members.length && clusterId < 0; i++) {
+                if (members[i] == null) {
+                    members[i] = connection;
+                    clusterId = i;
+                }
+            }
+            connection.clusterId = clusterId;
+        }
+        if (clusterId < 0) {
+            connection.send("FULL");
+            logger.warn("A member connected, but all {} clusters are taken", clusterCount);
+            return;
+        }
+        int firstShard = clusterId * shardsTotal / clusterCount;
+        int lastShard = (clusterId + 1) * shardsTotal / clusterCount - 1;
+        connection.send("ASSIGN " + clusterId + " " + firstShard + " " + lastShard + " " + shardsTotal + " " + maxConcurrency);
+        logger.info("Cluster {} joined with shards {} to {}", clusterId, firstShard, lastShard);
+    }
+
+    private void grantIdentify(Connection connection, int shardId) {
+        long delay;
+        // Identifies of the same bucket have to be five seconds apart, across all processes
+        synchronized (nextIdentify) {
+            int bucket = shardId % maxConcurrency;
+            long now = System.currentTimeMillis();
+            long identifyAt = Math.max(now, nextIdentify[bucket]);
+            nextIdentify[bucket] = identifyAt + IDENTIFY_INTERVAL;
+            delay = identifyAt - now;
+        }
+        Thread.ofVirtual().start(() -> {
+            try {
+                Thread.sleep(delay);
+                connection.send("GRANT " + shardId);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    private void release(Connection connection) {
+        synchronized (members) {
+            if (connection.clusterId >= 0 && members[connection.clusterId] == connection) {
+                members[connection.clusterId] = null;
+                health.remove(connection.clusterId);
+                logger.warn("Cluster {} disconnected, its shards are free for the next member", connection.clusterId);
+            }
+        }
+    }
+
+    private void logHealth() {
+        long staleBefore = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(healthInterval * STALE_REPORTS);
+        for (Health report : getHealth().values()) {
+            if (report.reportedAt() < staleBefore) {
+                logger.warn("Cluster {} has not reported for {} s", report.clusterId(), (System.currentTimeMillis() - report.reportedAt()) / 1000);
+                continue;
+            }
+            logger.info("Cluster {}: {}/{} shards ready, {} guilds, {} ms gateway ping, {} MB heap used",
+                    report.clusterId(), report.readyShards(), report.shards(), report.guilds(), report.gatewayPing(), report.heapUsedMb());
+        }
+    }
+
+    /**
+     * The recommended shard count and the identify concurrency of the bot.
+     *
+     * @param shards         The recommended number of shards
+     * @param maxConcurrency The number of shards that may identify at the same time
+     */
+    public record Gateway(int shards, int maxConcurrency) {
+    }
+
+    /**
+     * The last health report of a cluster.
+     *
+     * @param clusterId   The id of the cluster
+     * @param readyShards The number of connected shards
+     * @param shards      The number of shards of the cluster
+     * @param guilds      The number of guilds of the cluster
+     * @param gatewayPing The average gateway ping of the shards in milliseconds
+     * @param heapUsedMb  The heap used by the process in megabytes
+     * @param reportedAt  When the report arrived, in epoch milliseconds
+     */
+    public record Health(int clusterId, int readyShards, int shards, long guilds, long gatewayPing, long heapUsedMb, long reportedAt) {
+    }
+
+    private static final class Connection {
+
+        private final PrintWriter writer;
+        private int clusterId = -1;
+
+        private Connection(PrintWriter writer) {
+            this.writer = writer;
+        }
+
+        private synchronized void send(String line) {
+            writer.println(line);
+        }
+    }
+}
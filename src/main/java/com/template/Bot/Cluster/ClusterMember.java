@@ -0,0 +1,214 @@
+package com.template.Bot.Cluster;
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.sharding.ShardManager;
+import net.dv8tion.jda.api.utils.SessionController;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * ClusterMember
+ * <p>
+ *     The connection of a bot process to the {@link ClusterCoordinator}. The member receives its
+ *     {@link ClusterAssignment} on connect, asks for permission before each shard identifies, see
+ *     {@link ClusterSessionController}, and reports the health of its shards.
+ * </p>
+ * <p>
+ *     If the connection to the coordinator is lost, running shards keep running; shards that have to identify again
+ *     fall back to waiting the identify delay locally.
+ * </p>
+ */
+public final class ClusterMember implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterMember.class);
+
+    private static final long CONNECT_RETRY = TimeUnit.SECONDS.toMillis(2);
+    private static final long CONNECT_TIMEOUT = TimeUnit.MINUTES.toMillis(1);
+
+    private final Socket socket;
+    private final PrintWriter writer;
+    private final ClusterAssignment assignment;
+    private final Map<Integer, CompletableFuture<Void>> pendingIdentifies = new ConcurrentHashMap<>();
+    private final ScheduledThreadPoolExecutor healthExecutor = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "Cluster-Health-Report");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean connected = true;
+    private volatile ShardManager reportedShardManager;
+
+    private ClusterMember(Socket socket, BufferedReader reader, PrintWriter writer, ClusterAssignment assignment) {
+        this.socket = socket;
+        this.writer = writer;
+        this.assignment = assignment;
+        Thread readerThread = new Thread(() -> readGrants(reader), "Cluster-Member-Reader");
+        readerThread.setDaemon(true);
+        readerThread.start();
+    }
+
+    /**
+     * Connects to the coordinator and waits for the shard range of this process.
+     * The coordinator may still be starting, so the connection is retried for up to a minute.
+     *
+     * @param host The host of the coordinator
+     * @param port The port of the coordinator
+     * @return The connected member
+     * @throws IOException If the coordinator could not be reached or has no free cluster left
+     */
+    public static ClusterMember connect(String host, int port) throws IOException {
+        long deadline = System.currentTimeMillis() + CONNECT_TIMEOUT;
+        while (true) {
+            try {
+                Socket socket = new Socket(host, port);
+                BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                PrintWriter writer = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+                writer.println("HELLO");
+                String line = reader.readLine();
+                if (line == null || !line.startsWith("ASSIGN ")) {
+                    socket.close();
+                    throw new IOException("The cluster coordinator did not assign any shards: " + line);
+                }
+                String[] parts = line.split(" ");
+                ClusterAssignment assignment = new ClusterAssignment(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]),
+                        Integer.parseInt(parts[3]), Integer.parseInt(parts[4]), Integer.parseInt(parts[5]));
+                logger.info("Joined the cluster as cluster {} with shards {} to {} of {}", assignment.clusterId(),
+                        assignment.firstShard(), assignment.lastShard(), assignment.shardsTotal());
+                return new ClusterMember(socket, reader, writer, assignment);
+            } catch (java.net.ConnectException e) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw e;
+                }
+                logger.info("Waiting for the cluster coordinator on {}:{}", host, port);
+                try {
+                    Thread.sleep(CONNECT_RETRY);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while connecting to the cluster coordinator", interrupted);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The shard range of this process
+     */
+    public ClusterAssignment getAssignment() {
+        return assignment;
+    }
+
+    /**
+     * Blocks until the coordinator allows the shard to identify.
+     * The wait is bounded by the time every shard of the bot in the same identify bucket would need, after that
+     * the shard waits the identify delay on its own.
+     *
+     * @param shardId The id of the shard
+     * @throws InterruptedException If the waiting thread was interrupted
+     */
+    public void awaitIdentify(int shardId) throws InterruptedException {
+        if (connected) {
+            CompletableFuture<Void> grant = pendingIdentifies.computeIfAbsent(shardId, id -> new CompletableFuture<>());
+            // The reader clears connected before failing the pending grants, so a grant it missed is failed here
+            if (!connected) {
+                pendingIdentifies.remove(shardId, grant);
+                grant.completeExceptionally(new IOException("Connection to the cluster coordinator lost"));
+            } else {
+                synchronized (writer) {
+                    writer.println("IDENTIFY " + shardId);
+                }
+            }
+            long timeout = (assignment.shardsTotal() / assignment.maxConcurrency() + 1) * SessionController.IDENTIFY_DELAY;
+            try {
+                grant.get(timeout, TimeUnit.SECONDS);
+                return;
+            } catch (ExecutionException e) {
+                logger.warn("Cluster coordinator unavailable, shard {} waits the identify delay on its own", shardId);
+            } catch (TimeoutException e) {
+                pendingIdentifies.remove(shardId, grant);
+                logger.warn("Cluster coordinator did not answer within {} seconds, shard {} waits the identify delay on its own",
+                        timeout, shardId);
+            }
+        }
+        Thread.sleep(TimeUnit.SECONDS.toMillis(SessionController.IDENTIFY_DELAY));
+    }
+
+    /**
+     * Starts reporting the health of the shards of this process to the coordinator.
+     * Calling it again, e.g. after a restart of the bot, only replaces the reported shard manager.
+     *
+     * @param shardManager    The shard manager of this process
+     * @param intervalSeconds The seconds between two reports
+     */
+    public void startHealthReports(ShardManager shardManager, long intervalSeconds) {
+        boolean started = reportedShardManager != null;
+        reportedShardManager = shardManager;
+        if (started) {
+            return;
+        }
+        healthExecutor.scheduleAtFixedRate(() -> {
+            ShardManager current = reportedShardManager;
+            if (!connected) {
+                return;
+            }
+            int readyShards = 0;
+            for (JDA shard : current.getShardCache()) {
+                if (shard.getStatus() == JDA.Status.CONNECTED) {
+                    readyShards++;
+                }
+            }
+            Runtime runtime = Runtime.getRuntime();
+            long heapUsedMb = (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024);
+            synchronized (writer) {
+                writer.println("HEALTH " + readyShards + " " + assignment.shardCount() + " " + current.getGuildCache().size()
+                        + " " + (long) current.getAverageGatewayPing() + " " + heapUsedMb);
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Leaves the cluster, freeing the shard range for another process.
+     */
+    @Override
+    public void close() throws IOException {
+        healthExecutor.shutdownNow();
+        socket.close();
+    }
+
+    private void readGrants(BufferedReader reader) {
+        try (reader) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("GRANT ")) {
+                    CompletableFuture<Void> grant = pendingIdentifies.remove(Integer.parseInt(line.substring(6).trim()));
+                    if (grant != null) {
+                        grant.complete(null);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.debug("Cluster connection closed: {}", e.getMessage());
+        } finally {
+            connected = false;
+            IOException lost = new IOException("Connection to the cluster coordinator lost");
+            pendingIdentifies.values().forEach(grant -> grant.completeExceptionally(lost));
+            pendingIdentifies.clear();
+            if (!socket.isClosed()) {
+                logger.error("Lost the connection to the cluster coordinator");
+            }
+        }
+    }
+}
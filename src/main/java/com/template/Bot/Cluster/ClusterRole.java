@@ -0,0 +1,30 @@
+package com.template.Bot.Cluster;
+
+/**
+ * Cluster Role
+ * <p>
+ *     NONE: The process runs all shards on its own
+ *     COORDINATOR: The process runs the {@link ClusterCoordinator} and the shards it assigns to itself
+ *     MEMBER: The process runs the shards the coordinator assigns to it
+ * </p>
+ */
+public enum ClusterRole {
+
+    NONE,
+    COORDINATOR,
+    MEMBER;
+
+    /**
+     * Get the role of a process
+     * Valid roles are: none, coordinator, member
+     * @param role The role as a String
+     * @return The ClusterRole, {@link #NONE} if the role is unknown
+     */
+    public static ClusterRole getRole(String role) {
+        return switch (role.trim().toLowerCase()) {
+            case "coordinator" -> COORDINATOR;
+            case "member" -> MEMBER;
+            default -> NONE;
+        };
+    }
+}
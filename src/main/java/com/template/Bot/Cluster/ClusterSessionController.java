@@ -0,0 +1,65 @@
+package com.template.Bot.Cluster;
+
+import net.dv8tion.jda.api.utils.SessionControllerAdapter;
+
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * ClusterSessionController
+ * <p>
+ *     Decides when the shards of this process may identify. Like JDA's concurrent session controller it keeps one
+ *     queue per identify bucket ({@code shardId % maxConcurrency}), but each identify waits for the
+ *     {@link ClusterCoordinator}, which spaces the identifies of a bucket across all processes.
+ * </p>
+ */
+public class ClusterSessionController extends SessionControllerAdapter {
+
+    private final ClusterMember member;
+    private final int maxConcurrency;
+    private final Map<Integer, BlockingQueue<SessionConnectNode>> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * @param member The connection to the coordinator
+     */
+    public ClusterSessionController(ClusterMember member) {
+        this.member = member;
+        this.maxConcurrency = member.getAssignment().maxConcurrency();
+    }
+
+    @Override
+    public void appendSession(SessionConnectNode node) {
+        int bucket = node.getShardInfo().getShardId() % maxConcurrency;
+        buckets.computeIfAbsent(bucket, this::startBucket).add(node);
+    }
+
+    @Override
+    public void removeSession(SessionConnectNode node) {
+        buckets.values().forEach(queue -> queue.remove(node));
+    }
+
+    private BlockingQueue<SessionConnectNode> startBucket(int bucket) {
+        BlockingQueue<SessionConnectNode> queue = new LinkedBlockingQueue<>();
+        Thread worker = new Thread(() -> runBucket(queue), "SessionController-Bucket-" + bucket);
+        worker.setDaemon(true);
+        worker.start();
+        return queue;
+    }
+
+    private void runBucket(BlockingQueue<SessionConnectNode> queue) {
+        while (true) {
+            try {
+                SessionConnectNode node = queue.take();
+                member.awaitIdentify(node.getShardInfo().getShardId());
+                node.run(queue.isEmpty());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Failed to start a shard session", e);
+            }
+        }
+    }
+}
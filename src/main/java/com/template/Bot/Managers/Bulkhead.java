@@ -0,0 +1,123 @@
+package com.template.Bot.Managers;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bulkhead
+ * <p>
+ *     Limits how many executions of one {@link com.template.Bot.Managers.Command.SlashCommand} or
+ *     {@link com.template.Bot.Managers.Interaction.ContextInteraction} run at the same time and how many may wait
+ *     for a free slot. An execution that finds the queue full is rejected immediately, so a single heavy command
+ *     can neither use up the capacity of the {@link CommandExecutor} nor leave users waiting until the interaction
+ *     times out.
+ * </p>
+ * <p>
+ *     Waiting executions park their own virtual thread, which is why a command with a bulkhead is always
+ *     executed in {@link CommandExecutor.Mode#VIRTUAL}.
+ * </p>
+ */
+public final class Bulkhead {
+
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final Semaphore permits;
+    // Executions that were admitted and have not finished yet, running or queued
+    private final AtomicInteger admitted = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param maxConcurrent The number of executions that may run at the same time
+     * @param maxQueued     The number of executions that may wait for a free slot, 0 to reject as soon as all slots are taken
+     */
+    public Bulkhead(int maxConcurrent, int maxQueued) {
+        if (maxConcurrent < 1 || maxQueued < 0) {
+            throw new IllegalArgumentException("A bulkhead needs at least one slot and a queue that is not negative");
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * @return The number of executions that may run at the same time
+     */
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    /**
+     * @return The number of executions that may wait for a free slot
+     */
+    public int getMaxQueued() {
+        return maxQueued;
+    }
+
+    /**
+     * @return The number of executions that are running right now
+     */
+    public int getRunningCount() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    /**
+     * @return The number of executions waiting for a free slot right now
+     */
+    public int getQueueDepth() {
+        return Math.max(0, admitted.get() - getRunningCount());
+    }
+
+    /**
+     * @return The number of executions that were rejected because the queue was full
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Reserves a place for an execution, either a free slot or a place in the queue.
+     * Called on the event thread before the execution is handed to a virtual thread.
+     *
+     * @return False if the queue is full and the execution has to be rejected
+     */
+    boolean tryAdmit() {
+        int limit = maxConcurrent + maxQueued;
+        while (true) {
+            int current = admitted.get();
+            if (current >= limit) {
+                rejected.increment();
+                return false;
+            }
+            if (admitted.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Waits for a free slot. Only called after {@link #tryAdmit()} succeeded.
+     *
+     * @throws InterruptedException If the waiting thread was interrupted, in which case the place has already been given up
+     */
+    void acquire() throws InterruptedException {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            leave();
+            throw e;
+        }
+    }
+
+    /**
+     * Frees the slot of a finished execution.
+     */
+    void release() {
+        permits.release();
+        leave();
+    }
+
+    private void leave() {
+        admitted.decrementAndGet();
+    }
+}
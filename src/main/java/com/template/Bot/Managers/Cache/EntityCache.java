@@ -0,0 +1,244 @@
+package com.template.Bot.Managers.Cache;
+
+import com.template.Main;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.events.guild.member.GenericGuildMemberEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRemoveEvent;
+import net.dv8tion.jda.api.events.user.GenericUserEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * EntityCache
+ * <p>
+ *     Lets commands ask for a member or user without caring whether it is cached. A lookup first checks the cache of
+ *     JDA, which holds what the {@link com.template.Bot.Managers.GatewayProfile} keeps, then a bounded
+ *     {@link SnowflakeCache}, and only then asks Discord. Concurrent lookups of the same entity share one REST request.
+ * </p>
+ * <p>
+ *     The size and time to live of both caches are set in discord.properties ({@code cache.members.*} and
+ *     {@code cache.users.*}). A member weighs one plus the number of its roles.
+ * </p>
+ */
+public final class EntityCache {
+
+    private static final SnowflakeCache<Member> members = new SnowflakeCache<>(
+            Long.parseLong(Main.discord.getProperty("cache.members.maxWeight", "50000").trim()),
+            Long.parseLong(Main.discord.getProperty("cache.members.ttl", "300").trim()));
+    private static final SnowflakeCache<User> users = new SnowflakeCache<>(
+            Long.parseLong(Main.discord.getProperty("cache.users.maxWeight", "20000").trim()),
+            Long.parseLong(Main.discord.getProperty("cache.users.ttl", "900").trim()));
+
+    private static final Map<Key, CompletableFuture<Member>> pendingMembers = new ConcurrentHashMap<>();
+    private static final Map<Key, CompletableFuture<User>> pendingUsers = new ConcurrentHashMap<>();
+    private static final LongAdder jdaHits = new LongAdder();
+    private static final LongAdder fetches = new LongAdder();
+    private static final LongAdder coalesced = new LongAdder();
+
+    private EntityCache() {
+    }
+
+    /**
+     * Gets a member from a cache, or retrieves it from Discord.
+     *
+     * @param guild  The guild of the member
+     * @param userId The id of the user
+     * @return A future completed with the member, or failed with the error of Discord, e.g. if the user is no member
+     */
+    public static CompletableFuture<Member> getMember(Guild guild, long userId) {
+        Member member = guild.getMemberById(userId);
+        if (member != null) {
+            jdaHits.increment();
+            return CompletableFuture.completedFuture(member);
+        }
+        member = members.get(userId, guild.getIdLong());
+        if (member != null) {
+            return CompletableFuture.completedFuture(member);
+        }
+        return fetch(pendingMembers, new Key(userId, guild.getIdLong()), () -> guild.retrieveMemberById(userId).submit(),
+                fetched -> members.put(userId, guild.getIdLong(), fetched, 1 + fetched.getRoles().size()));
+    }
+
+    /**
+     * Gets a user from a cache, or retrieves it from Discord.
+     *
+     * @param jda    Any shard of the bot
+     * @param userId The id of the user
+     * @return A future completed with the user, or failed with the error of Discord, e.g. if the user does not exist
+     */
+    public static CompletableFuture<User> getUser(JDA jda, long userId) {
+        User user = jda.getUserById(userId);
+        if (user != null) {
+            jdaHits.increment();
+            return CompletableFuture.completedFuture(user);
+        }
+        user = users.get(userId, 0);
+        if (user != null) {
+            return CompletableFuture.completedFuture(user);
+        }
+        return fetch(pendingUsers, new Key(userId, 0), () -> jda.retrieveUserById(userId).submit(),
+                fetched -> users.put(userId, 0, fetched, 1));
+    }
+
+    /**
+     * Removes a member from the cache, so the next lookup retrieves it again.
+     *
+     * @param guildId The id of the guild
+     * @param userId  The id of the user
+     */
+    public static void invalidateMember(long guildId, long userId) {
+        members.invalidate(userId, guildId);
+    }
+
+    /**
+     * Removes a user from the cache, so the next lookup retrieves it again.
+     *
+     * @param userId The id of the user
+     */
+    public static void invalidateUser(long userId) {
+        users.invalidate(userId, 0);
+    }
+
+    /**
+     * Drops every cached member and user and forgets the requests in flight. The entities are bound to the shards
+     * that created them, so this is called when the shards are shut down, e.g. by {@code Bot.restartDiscordBot()}.
+     */
+    public static void clear() {
+        pendingMembers.clear();
+        pendingUsers.clear();
+        members.clear();
+        users.clear();
+    }
+
+    /**
+     * @return The statistics of the member cache
+     */
+    public static Stats getMemberStats() {
+        return stats(members);
+    }
+
+    /**
+     * @return The statistics of the user cache
+     */
+    public static Stats getUserStats() {
+        return stats(users);
+    }
+
+    /**
+     * @return The number of lookups answered by the cache of JDA
+     */
+    public static long getJdaHits() {
+        return jdaHits.sum();
+    }
+
+    /**
+     * @return The number of REST requests made for lookups
+     */
+    public static long getFetches() {
+        return fetches.sum();
+    }
+
+    /**
+     * @return The number of lookups that joined a REST request already in flight
+     */
+    public static long getCoalescedFetches() {
+        return coalesced.sum();
+    }
+
+    /**
+     * Joins the request in flight for the key or starts a new one. The entity is cached before the request is
+     * removed, so a lookup never misses both. A request that was forgotten by {@link #clear()} in the meantime does
+     * not cache its entity.
+     */
+    private static <T> CompletableFuture<T> fetch(Map<Key, CompletableFuture<T>> pending, Key key,
+                                                  Supplier<CompletableFuture<T>> request, Consumer<T> store) {
+        CompletableFuture<T> started = new CompletableFuture<>();
+        CompletableFuture<T> inFlight = pending.putIfAbsent(key, started);
+        if (inFlight != null) {
+            coalesced.increment();
+            return inFlight.copy();
+        }
+        fetches.increment();
+        CompletableFuture<T> response;
+        try {
+            response = request.get();
+        } catch (RuntimeException e) {
+            // JDA rejects the request right away once the shard is shut down
+            pending.remove(key, started);
+            started.completeExceptionally(e);
+            return started.copy();
+        }
+        response.whenComplete((entity, throwable) -> {
+            if (throwable == null && pending.get(key) == started) {
+                store.accept(entity);
+            }
+            pending.remove(key, started);
+            if (throwable == null) {
+                started.complete(entity);
+            } else {
+                started.completeExceptionally(throwable);
+            }
+        });
+        return started.copy();
+    }
+
+    private static Stats stats(SnowflakeCache<?> cache) {
+        return new Stats(cache.hits(), cache.misses(), cache.evictions(), cache.expirations(), cache.size(), cache.weight());
+    }
+
+    /**
+     * The statistics of a cache.
+     *
+     * @param hits        Lookups answered by the cache
+     * @param misses      Lookups the cache could not answer
+     * @param evictions   Entities dropped to make room
+     * @param expirations Entities dropped because their time to live passed
+     * @param size        The number of cached entities
+     * @param weight      The total weight of the cached entities
+     */
+    public record Stats(long hits, long misses, long evictions, long expirations, long size, long weight) {
+
+        /**
+         * @return The share of lookups answered by the cache, 0 if there were none
+         */
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+
+    /**
+     * Drops cached members and users when the gateway reports a change. Without the intents for these events, the
+     * entries are only refreshed after their time to live.
+     */
+    public static class Invalidator extends ListenerAdapter {
+
+        @Override
+        public void onGenericGuildMember(@NotNull GenericGuildMemberEvent event) {
+            invalidateMember(event.getGuild().getIdLong(), event.getUser().getIdLong());
+        }
+
+        @Override
+        public void onGuildMemberRemove(@NotNull GuildMemberRemoveEvent event) {
+            invalidateMember(event.getGuild().getIdLong(), event.getUser().getIdLong());
+        }
+
+        @Override
+        public void onGenericUser(@NotNull GenericUserEvent event) {
+            invalidateUser(event.getUser().getIdLong());
+        }
+    }
+
+    private record Key(long id, long scopeId) {
+    }
+}
@@ -0,0 +1,335 @@
+package com.template.Bot.Managers.Cache;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SnowflakeCache
+ * <p>
+ *     A bounded cache keyed by the raw {@code long} snowflake of an entity and a second {@code long} that narrows it,
+ *     such as the guild of a member (0 if the entity needs no scope). Every entry has a weight, and the cache evicts the
+ *     least recently used entries once the total weight exceeds its budget. Entries also expire after a fixed time to
+ *     live, which bounds how stale a cached entity can get when no event invalidates it.
+ * </p>
+ * <p>
+ *     The cache is split into lock stripes. Each stripe keeps its entries in fixed slot arrays, linked into a
+ *     recency list, and finds them through an open-addressing table of slot indices, so a lookup never allocates.
+ *     Expired entries are dropped when they are read or reach the end of the recency list.
+ * </p>
+ *
+ * @param <V> The type of the cached entities
+ */
+public final class SnowflakeCache<V> {
+
+    private static final int STRIPE_COUNT = 16;
+
+    private final Stripe[] stripes = new Stripe[STRIPE_COUNT];
+    private final long ttlNanos;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    /**
+     * @param maxWeight  The total weight of all entries, also the maximum number of entries
+     * @param ttlSeconds The seconds an entry stays valid after it was put into the cache
+     */
+    public SnowflakeCache(long maxWeight, long ttlSeconds) {
+        if (maxWeight < STRIPE_COUNT || ttlSeconds <= 0) {
+            throw new IllegalArgumentException("The cache needs a weight of at least " + STRIPE_COUNT + " and a positive time to live");
+        }
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new Stripe((int) Math.min(Integer.MAX_VALUE / 4, maxWeight / STRIPE_COUNT));
+        }
+    }
+
+    /**
+     * @param id      The snowflake of the entity
+     * @param scopeId The snowflake narrowing the entity, otherwise 0
+     * @return The cached entity, or null if it is not cached or expired
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long id, long scopeId) {
+        int hash = hash(id, scopeId);
+        Stripe stripe = stripeFor(hash);
+        long now = System.nanoTime();
+        synchronized (stripe) {
+            int slot = stripe.find(id, scopeId, hash);
+            if (slot < 0) {
+                misses.increment();
+                return null;
+            }
+            if (stripe.expiresAt[slot] - now <= 0) {
+                stripe.remove(slot, hash);
+                expirations.increment();
+                misses.increment();
+                return null;
+            }
+            stripe.touch(slot);
+            hits.increment();
+            return (V) stripe.values[slot];
+        }
+    }
+
+    /**
+     * Puts an entity into the cache, evicting the least recently used entries of its stripe if needed.
+     * Entities heavier than a whole stripe are not cached.
+     *
+     * @param id      The snowflake of the entity
+     * @param scopeId The snowflake narrowing the entity, otherwise 0
+     * @param value   The entity
+     * @param weight  The weight of the entity, at least 1
+     */
+    public void put(long id, long scopeId, V value, int weight) {
+        int hash = hash(id, scopeId);
+        Stripe stripe = stripeFor(hash);
+        weight = Math.max(1, weight);
+        long now = System.nanoTime();
+        synchronized (stripe) {
+            int slot = stripe.find(id, scopeId, hash);
+            if (slot >= 0) {
+                stripe.remove(slot, hash);
+            }
+            if (weight > stripe.maxWeight) {
+                return;
+            }
+            while (stripe.freeCount == 0 || stripe.weight + weight > stripe.maxWeight) {
+                int eldest = stripe.tail;
+                if (stripe.expiresAt[eldest] - now <= 0) {
+                    expirations.increment();
+                } else {
+                    evictions.increment();
+                }
+                stripe.remove(eldest, hash(stripe.ids[eldest], stripe.scopeIds[eldest]));
+            }
+            stripe.insert(id, scopeId, value, weight, now + ttlNanos, hash);
+        }
+    }
+
+    /**
+     * Removes an entity, e.g. because an event reported a change.
+     *
+     * @param id      The snowflake of the entity
+     * @param scopeId The snowflake narrowing the entity, otherwise 0
+     */
+    public void invalidate(long id, long scopeId) {
+        int hash = hash(id, scopeId);
+        Stripe stripe = stripeFor(hash);
+        synchronized (stripe) {
+            int slot = stripe.find(id, scopeId, hash);
+            if (slot >= 0) {
+                stripe.remove(slot, hash);
+            }
+        }
+    }
+
+    /**
+     * Removes all entities.
+     */
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                while (stripe.tail >= 0) {
+                    stripe.remove(stripe.tail, hash(stripe.ids[stripe.tail], stripe.scopeIds[stripe.tail]));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The number of cached entities, including expired ones that were not dropped yet
+     */
+    public long size() {
+        long size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.slotCount() - stripe.freeCount;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return The total weight of the cached entities
+     */
+    public long weight() {
+        long weight = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                weight += stripe.weight;
+            }
+        }
+        return weight;
+    }
+
+    /**
+     * @return The number of lookups that found a valid entity
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return The number of lookups that found nothing or an expired entity
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return The number of entities dropped to make room before they expired
+     */
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return The number of entities dropped because their time to live passed
+     */
+    public long expirations() {
+        return expirations.sum();
+    }
+
+    private static int hash(long id, long scopeId) {
+        long mixed = id * 0x9E3779B97F4A7C15L ^ scopeId * 0xC2B2AE3D27D4EB4FL;
+        return (int) (mixed ^ (mixed >>> 32));
+    }
+
+    private Stripe stripeFor(int hash) {
+        return stripes[(hash >>> 28) & (STRIPE_COUNT - 1)];
+    }
+
+    private static final class Stripe {
+
+        private final long maxWeight;
+        private final long[] ids;
+        private final long[] scopeIds;
+        private final Object[] values;
+        private final int[] weights;
+        private final long[] expiresAt;
+        // Recency list, head is the most recently used slot
+        private final int[] previous;
+        private final int[] next;
+        private final int[] freeSlots;
+        // Open-addressing table of slot index + 1, 0 marks an empty bucket
+        private final int[] table;
+        private int head = -1;
+        private int tail = -1;
+        private int freeCount;
+        private long weight;
+
+        private Stripe(int capacity) {
+            maxWeight = capacity;
+            ids = new long[capacity];
+            scopeIds = new long[capacity];
+            values = new Object[capacity];
+            weights = new int[capacity];
+            expiresAt = new long[capacity];
+            previous = new int[capacity];
+            next = new int[capacity];
+            freeSlots = new int[capacity];
+            for (int i = 0; i < capacity; i++) {
+                freeSlots[i] = capacity - 1 - i;
+            }
+            freeCount = capacity;
+            table = new int[Integer.highestOneBit(capacity * 2 - 1) << 1];
+        }
+
+        private int slotCount() {
+            return ids.length;
+        }
+
+        private int find(long id, long scopeId, int hash) {
+            int mask = table.length - 1;
+            for (int index = hash & mask; ; index = (index + 1) & mask) {
+                int slot = table[index] - 1;
+                if (slot < 0) {
+                    return -1;
+                }
+                if (ids[slot] == id && scopeIds[slot] == scopeId) {
+                    return slot;
+                }
+            }
+        }
+
+        private void insert(long id, long scopeId, Object value, int entryWeight, long expires, int hash) {
+            int slot = freeSlots[--freeCount];
+            ids[slot] = id;
+            scopeIds[slot] = scopeId;
+            values[slot] = value;
+            weights[slot] = entryWeight;
+            expiresAt[slot] = expires;
+            weight += entryWeight;
+            linkFirst(slot);
+
+            int mask = table.length - 1;
+            int index = hash & mask;
+            while (table[index] != 0) {
+                index = (index + 1) & mask;
+            }
+            table[index] = slot + 1;
+        }
+
+        /**
+         * Removes the slot from the recency list and the table. The following buckets of its probe run are shifted
+         * back, so lookups never need tombstones.
+         */
+        private void remove(int slot, int hash) {
+            int mask = table.length - 1;
+            int hole = hash & mask;
+            while (table[hole] != slot + 1) {
+                hole = (hole + 1) & mask;
+            }
+            for (int i = (hole + 1) & mask; table[i] != 0; i = (i + 1) & mask) {
+                int moved = table[i] - 1;
+                int home = hash(ids[moved], scopeIds[moved]) & mask;
+                boolean reachable = hole <= i ? (home > hole && home <= i) : (home > hole || home <= i);
+                if (!reachable) {
+                    table[hole] = table[i];
+                    hole = i;
+                }
+            }
+            table[hole] = 0;
+
+            unlink(slot);
+            weight -= weights[slot];
+            values[slot] = null;
+            freeSlots[freeCount++] = slot;
+        }
+
+        private void touch(int slot) {
+            if (head != slot) {
+                unlink(slot);
+                linkFirst(slot);
+            }
+        }
+
+        private void linkFirst(int slot) {
+            previous[slot] = -1;
+            next[slot] = head;
+            if (head >= 0) {
+                previous[head] = slot;
+            }
+            head = slot;
+            if (tail < 0) {
+                tail = slot;
+            }
+        }
+
+        private void unlink(int slot) {
+            int before = previous[slot];
+            int after = next[slot];
+            if (before >= 0) {
+                next[before] = after;
+            } else {
+                head = after;
+            }
+            if (after >= 0) {
+                previous[after] = before;
+            } else {
+                tail = before;
+            }
+        }
+    }
+}
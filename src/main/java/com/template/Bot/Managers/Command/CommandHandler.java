@@ -0,0 +1,50 @@
+package com.template.Bot.Managers.Command;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * CommandHandler
+ * <p>
+ *     Marks a method of a {@link SlashCommand} that executes the command, or one of its subcommands, with typed options.
+ *     The first parameter of the method is the {@code SlashCommandInteractionEvent}, every further parameter is
+ *     annotated with {@link Option}:
+ * </p>
+ * <pre>{@code
+ * @CommandHandler(subcommand = "add", description = "Adds a reminder")
+ * public void add(SlashCommandInteractionEvent event,
+ *                 @Option(name = "text", description = "What to remind you of") String text,
+ *                 @Option(name = "minutes", description = "When to remind you", required = false) Integer minutes) {
+ * }
+ * }</pre>
+ * <p>
+ *     The options and subcommands are derived from the methods when the command is registered, so they must not be
+ *     added again by hand. A handler without a subcommand replaces {@link SlashCommand#execute}.
+ * </p>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface CommandHandler {
+
+    /**
+     * @return The name of the subcommand the method executes, empty if it executes the command itself
+     */
+    String subcommand() default "";
+
+    /**
+     * @return The description of the subcommand, the subcommand name if empty
+     */
+    String description() default "";
+
+    /**
+     * @return The name of the subcommand group the subcommand belongs to, empty for none
+     */
+    String group() default "";
+
+    /**
+     * @return The description of the subcommand group if it is created by this method, the group name if empty
+     */
+    String groupDescription() default "";
+}
@@ -1,24 +1,26 @@
 package com.template.Bot.Managers.Command;
 
 import com.template.Bot.Bot;
+import com.template.Bot.Managers.CommandExecutor;
+import com.template.Bot.Managers.CommandRegistry;
+import com.template.Bot.Managers.InteractionWatchdog;
+import com.template.Bot.Managers.Metrics.DispatchMetrics;
 import com.template.Language.LanguageUtils;
-import com.template.Main;
 import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import net.dv8tion.jda.api.interactions.commands.Command;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
 import net.dv8tion.jda.api.interactions.commands.build.Commands;
+import net.dv8tion.jda.api.interactions.commands.build.OptionData;
 import net.dv8tion.jda.api.interactions.commands.build.SlashCommandData;
+import net.dv8tion.jda.api.interactions.commands.build.SubcommandData;
+import net.dv8tion.jda.api.interactions.commands.build.SubcommandGroupData;
 import org.jetbrains.annotations.NotNull;
-import org.reflections.Reflections;
-import org.reflections.util.ClasspathHelper;
-import org.reflections.util.ConfigurationBuilder;
-import org.reflections.util.FilterBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
 import java.util.*;
 
 /**
@@ -34,43 +36,91 @@ public class CommandManager extends ListenerAdapter {
     private final Collection<CommandData> commandData = new ArrayList<>();
     private final Collection<CommandData> homeGuildCommandData = new ArrayList<>();
 
+    // Immutable routing table from command name to route, replaced as a whole on registration and read without locks
+    private volatile Map<String, CommandRoute> routes = Map.of();
+
     /**
      * Constructor for CommandManager.
-     * Automatically registers all commands in the package basePackage if they extend the Command class.
+     * Automatically registers all commands that extend the SlashCommand class, as listed in the {@link CommandRegistry}
+     * generated at compile time. No classpath scanning is needed on startup.
      * If a Command is registered, it will be added to the commandData list, which is used to register the commands in the Discord API.
-     * If the Command file is not in the package basePackage, it will not be registered automatically.
+     * Commands that are not public or lack a public no-argument constructor are reported as a compiler warning and have to be registered manually.
      */
     public CommandManager() {
-        String basePackage = Main.basePackage;
-
-        // Create a new Reflections object to scan for all classes that extend SlashCommand
-        Reflections reflections = new Reflections(new ConfigurationBuilder()
-                .setUrls(ClasspathHelper.forPackage(basePackage))
-                .filterInputsBy(new FilterBuilder().include(FilterBuilder.prefix(basePackage))));
-
-        Set<Class<? extends SlashCommand>> commandClasses = reflections.getSubTypesOf(SlashCommand.class);
-
-        for (Class<? extends SlashCommand> commandClass : commandClasses){
-            try {
-                Constructor<? extends SlashCommand> constructor = commandClass.getDeclaredConstructor();
-                SlashCommand command = constructor.newInstance();
+        for (SlashCommand command : CommandRegistry.createCommands()) {
+            registerCommand(command);
 
-                registerCommand(command);
-
-                logger.info("Automatically registered command: " + command.getDefaultCommandName());
-            } catch (NoSuchMethodException | InvocationTargetException | IllegalAccessException | InstantiationException e) {
-                logger.error("Failed to register command from class: " + commandClass.getName(), e);
-            }
+            logger.info("Automatically registered command: {}", command.getDefaultCommandName());
         }
     }
 
     /**
      * Registers a new slash command.
+     * The {@link CommandHandler} methods of the command are bound here, adding the options and subcommands derived from them.
+     * The routing table is rebuilt with the new command, so subcommand handlers have to be added before.
+     * A command is rejected if the command itself, one of its subcommands or subcommand groups has no handler and the
+     * command does not implement {@link SlashCommand#execute(SlashCommandInteractionEvent)} to fall back to.
      *
      * @param command The slash command to register.
      */
-    public void registerCommand(SlashCommand command) {
+    public synchronized void registerCommand(SlashCommand command) {
+        String name = command.getDefaultCommandName();
+        if (routes.containsKey(name)) {
+            logger.warn("A command named {} is already registered, ignoring {}", name, command.getClass().getName());
+            return;
+        }
+        OptionBinder.bind(command);
+        String unhandled = findUnhandledRoute(command);
+        if (unhandled != null) {
+            logger.error("The {} of command {} has no handler and {} does not implement execute, ignoring the command",
+                    unhandled, name, command.getClass().getName());
+            return;
+        }
         commands.add(command);
+
+        Map<String, CommandRoute> updatedRoutes = new HashMap<>(routes);
+        updatedRoutes.put(name, new CommandRoute(command));
+        routes = Map.copyOf(updatedRoutes);
+    }
+
+    /**
+     * Finds a route of the command that would end up in {@link SlashCommand#execute(SlashCommandInteractionEvent)}
+     * without the command implementing it.
+     *
+     * @param command The slash command to check.
+     * @return A description of the first route without a handler, or null if every route has one.
+     */
+    private static String findUnhandledRoute(SlashCommand command) {
+        try {
+            if (command.getClass().getMethod("execute", SlashCommandInteractionEvent.class).getDeclaringClass() != SlashCommand.class) {
+                return null;
+            }
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+        if (command.hasHandler()) {
+            return null;
+        }
+        if (!command.hasSubcommands() && !command.hasSubcommandGroups()) {
+            return "command";
+        }
+        Map<String, Map<String, SlashCommand.SubcommandHandler>> handlers = command.getSubcommandHandlers();
+        for (SubcommandData subcommand : command.getSubcommands()) {
+            if (!handlers.getOrDefault("", Map.of()).containsKey(subcommand.getName())) {
+                return "subcommand " + subcommand.getName();
+            }
+        }
+        for (SubcommandGroupData group : command.getSubcommandGroups()) {
+            if (group.getSubcommands().isEmpty()) {
+                return "subcommand group " + group.getName();
+            }
+            for (SubcommandData subcommand : group.getSubcommands()) {
+                if (!handlers.getOrDefault(group.getName(), Map.of()).containsKey(subcommand.getName())) {
+                    return "subcommand " + group.getName() + " " + subcommand.getName();
+                }
+            }
+        }
+        return null;
     }
 
     /**
@@ -103,7 +153,8 @@ public class CommandManager extends ListenerAdapter {
     /**
      * Registers slash commands with Discord.
      * This method is called in the Bot class.
-     * It iterates through all registered commands and creates CommandData for each command.
+     * It iterates through all registered commands and creates CommandData for each command,
+     * including the options and subcommands derived from their {@link CommandHandler} methods.
      */
     public void registerCommands() {
         // JDA instance for interacting with Discord
@@ -125,6 +176,10 @@ public class CommandManager extends ListenerAdapter {
 
             Optional.ofNullable(command.getDefaultMemberPermissions()).ifPresent(currentCommandData::setDefaultPermissions);
 
+            if (command.hasAutocomplete()) {
+                markAutocomplete(command);
+            }
+
             if (command.hasOptions()) {
                 currentCommandData.addOptions(command.getOptions());
             }
@@ -148,7 +203,34 @@ public class CommandManager extends ListenerAdapter {
             }
 
             // Log the registration of the command
-            logger.info(String.format("Registered command: %s", command.getDefaultCommandName()));
+            logger.info("Registered command: {}", command.getDefaultCommandName());
+        }
+    }
+
+    /**
+     * Marks every option of the command that has an autocomplete handler as an autocomplete option.
+     *
+     * @param command The slash command with autocomplete handlers.
+     */
+    private void markAutocomplete(SlashCommand command) {
+        List<OptionData> options = new ArrayList<>(command.getOptions());
+        for (SubcommandData subcommand : command.getSubcommands()) {
+            options.addAll(subcommand.getOptions());
+        }
+        for (SubcommandGroupData group : command.getSubcommandGroups()) {
+            for (SubcommandData subcommand : group.getSubcommands()) {
+                options.addAll(subcommand.getOptions());
+            }
+        }
+        for (OptionData option : options) {
+            if (!command.getAutocompleteHandlers().containsKey(option.getName())) {
+                continue;
+            }
+            if (!option.getType().canSupportChoices() || !option.getChoices().isEmpty()) {
+                logger.error("Option {} of command {} can not use autocomplete", option.getName(), command.getDefaultCommandName());
+                continue;
+            }
+            option.setAutoComplete(true);
         }
     }
 
@@ -158,22 +240,58 @@ public class CommandManager extends ListenerAdapter {
      * @param event The SlashCommandInteractionEvent representing the interaction.
      */
     public void onSlashCommandInteraction(@NotNull SlashCommandInteractionEvent event) {
-        // Find the corresponding command based on the interaction name
-        commands.stream()
-                .filter(command -> command.getDefaultCommandName().equalsIgnoreCase(event.getName()))
-                .findFirst()
-                .ifPresentOrElse(command -> {
-                    // Check for cooldown and execute the command
-                    if (command.hasCooldown() && command.getCooldown().isOnCooldown(event, command)) {
-                        Locale userLocal = event.getUserLocale().toLocale();
-                        String message = LanguageUtils.getLanguageString("languages.bot.global", "command.cooldown.response", userLocal);
-
-                        String timeRelative = command.getCooldown().getEndTimeRelative(event, command);
-
-                        event.reply(String.format(message, timeRelative)).setEphemeral(true).queue();
-                        return;
-                    }
-                    command.execute(event);
-                }, () -> event.reply("This Command is currently not available").setEphemeral(true).queue());
+        long dispatchedAt = System.nanoTime();
+        // Find the corresponding route based on the interaction name
+        CommandRoute route = routes.get(event.getName());
+        if (route == null) {
+            event.reply("This Command is currently not available").setEphemeral(true).queue();
+            DispatchMetrics.record(DispatchMetrics.Kind.COMMAND, DispatchMetrics.UNKNOWN, event, DispatchMetrics.Outcome.NOT_FOUND, dispatchedAt);
+            return;
+        }
+
+        // Check for cooldown and execute the command
+        SlashCommand command = route.getCommand();
+        if (command.hasCooldown() && command.getCooldown().isOnCooldown(event, command)) {
+            Locale userLocal = event.getUserLocale().toLocale();
+            String message = LanguageUtils.getLanguageString("languages.bot.global", "command.cooldown.response", userLocal);
+
+            String timeRelative = command.getCooldown().getEndTimeRelative(event, command);
+
+            event.reply(String.format(message, timeRelative)).setEphemeral(true).queue();
+            DispatchMetrics.record(DispatchMetrics.Kind.COMMAND, command.getDefaultCommandName(), event, DispatchMetrics.Outcome.COOLDOWN, dispatchedAt);
+            return;
+        }
+        SlashCommand.SubcommandHandler handler = route.resolve(event.getSubcommandGroup(), event.getSubcommandName());
+        SlashCommandInteractionEvent watchedEvent = InteractionWatchdog.watch(event, command.getDefaultCommandName());
+        CommandExecutor.execute(watchedEvent, DispatchMetrics.Kind.COMMAND, command.getDefaultCommandName(), dispatchedAt,
+                command.getExecutionMode(), command.getBulkhead(), () -> handler.execute(watchedEvent));
+    }
+
+    /**
+     * Handles autocomplete interactions, which are sent on every keystroke in an autocomplete option.
+     * The handler runs on the event thread without cooldown checks, so it has to answer from memory.
+     *
+     * @param event The CommandAutoCompleteInteractionEvent representing the interaction.
+     */
+    @Override
+    public void onCommandAutoCompleteInteraction(@NotNull CommandAutoCompleteInteractionEvent event) {
+        CommandRoute route = routes.get(event.getName());
+        SlashCommand.AutocompleteHandler handler = route != null ? route.resolveAutocomplete(event.getFocusedOption().getName()) : null;
+        if (handler == null) {
+            event.replyChoices(List.of()).queue();
+            return;
+        }
+
+        List<Command.Choice> choices;
+        try {
+            choices = handler.complete(event, event.getFocusedOption().getValue());
+        } catch (RuntimeException e) {
+            logger.error("Autocomplete of {} failed", event.getName(), e);
+            choices = List.of();
+        }
+        if (choices.size() > OptionData.MAX_CHOICES) {
+            choices = choices.subList(0, OptionData.MAX_CHOICES);
+        }
+        event.replyChoices(choices).queue();
     }
 }
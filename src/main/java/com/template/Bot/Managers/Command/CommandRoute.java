@@ -0,0 +1,71 @@
+package com.template.Bot.Managers.Command;
+
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * CommandRoute
+ * <p>
+ *     The immutable routing entry of one {@link SlashCommand}, built once when the command is registered.
+ *     It maps the subcommand group and subcommand of an interaction straight to the {@link SlashCommand.SubcommandHandler}
+ *     that executes it, so dispatching an interaction only takes two map lookups on strings JDA already holds.
+ * </p>
+ */
+final class CommandRoute {
+
+    private final SlashCommand command;
+    private final SlashCommand.SubcommandHandler defaultHandler;
+    private final Map<String, Map<String, SlashCommand.SubcommandHandler>> handlers;
+    private final Map<String, SlashCommand.AutocompleteHandler> autocompleteHandlers;
+
+    /**
+     * @param command The {@link SlashCommand} to route to
+     */
+    CommandRoute(SlashCommand command) {
+        this.command = command;
+        this.defaultHandler = command.hasHandler() ? command.getHandler() : command::execute;
+
+        Map<String, Map<String, SlashCommand.SubcommandHandler>> handlers = new HashMap<>();
+        command.getSubcommandHandlers().forEach((group, subcommands) -> handlers.put(group, Map.copyOf(subcommands)));
+        this.handlers = Map.copyOf(handlers);
+        this.autocompleteHandlers = Map.copyOf(command.getAutocompleteHandlers());
+    }
+
+    /**
+     * @return The {@link SlashCommand} of the route
+     */
+    SlashCommand getCommand() {
+        return command;
+    }
+
+    /**
+     * Resolves the handler of an interaction. Subcommands without a handler of their own fall back to the handler
+     * of the command, or {@link SlashCommand#execute(SlashCommandInteractionEvent)} if it has none.
+     *
+     * @param group      The subcommand group of the interaction, or null
+     * @param subcommand The subcommand of the interaction, or null
+     * @return The {@link SlashCommand.SubcommandHandler} executing the interaction
+     */
+    SlashCommand.SubcommandHandler resolve(String group, String subcommand) {
+        if (subcommand == null) {
+            return defaultHandler;
+        }
+        Map<String, SlashCommand.SubcommandHandler> subcommands = handlers.get(group != null ? group : "");
+        if (subcommands == null) {
+            return defaultHandler;
+        }
+        return subcommands.getOrDefault(subcommand, defaultHandler);
+    }
+
+    /**
+     * Resolves the autocomplete handler of an option.
+     *
+     * @param optionName The name of the focused option
+     * @return The {@link SlashCommand.AutocompleteHandler} of the option, or null if it has none
+     */
+    SlashCommand.AutocompleteHandler resolveAutocomplete(String optionName) {
+        return autocompleteHandlers.get(optionName);
+    }
+}
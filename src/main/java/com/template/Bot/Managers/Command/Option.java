@@ -0,0 +1,39 @@
+package com.template.Bot.Managers.Command;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Option
+ * <p>
+ *     Declares a parameter of a {@link CommandHandler} method as an option of the slash command. The option type is
+ *     derived from the parameter type, the value is converted before the method is called.
+ * </p>
+ * <p>
+ *     Supported parameter types are {@code String}, {@code long}, {@code int}, {@code double}, {@code boolean}
+ *     (and their wrappers), {@code User}, {@code Member}, {@code Role}, {@code GuildChannel},
+ *     {@code GuildChannelUnion}, {@code IMentionable} and {@code Message.Attachment}. Options that are not required
+ *     are null if the user left them out, so they can not use a primitive type.
+ * </p>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+public @interface Option {
+
+    /**
+     * @return The name of the option, lowercase as required by Discord
+     */
+    String name();
+
+    /**
+     * @return The description of the option
+     */
+    String description();
+
+    /**
+     * @return Whether the user has to fill in the option, required options have to come before all others
+     */
+    boolean required() default true;
+}
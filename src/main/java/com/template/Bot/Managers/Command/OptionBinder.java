@@ -0,0 +1,286 @@
+package com.template.Bot.Managers.Command;
+
+import net.dv8tion.jda.api.entities.IMentionable;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
+import net.dv8tion.jda.api.entities.channel.unions.GuildChannelUnion;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.OptionMapping;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+import net.dv8tion.jda.api.interactions.commands.build.OptionData;
+import net.dv8tion.jda.api.interactions.commands.build.SubcommandData;
+import net.dv8tion.jda.api.interactions.commands.build.SubcommandGroupData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * OptionBinder
+ * <p>
+ *     Turns the {@link CommandHandler} methods of a {@link SlashCommand} into options, subcommands and
+ *     {@link SlashCommand.SubcommandHandler}s. It runs once when the command is registered.
+ * </p>
+ * <p>
+ *     Each handler is compiled into a single {@link MethodHandle} that reads every option from the event and passes
+ *     it straight to the method, so executing it needs no reflection, no lookups by parameter and no boxing of
+ *     primitive options.
+ * </p>
+ */
+final class OptionBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(OptionBinder.class);
+
+    private static final MethodType HANDLER_TYPE = MethodType.methodType(void.class, SlashCommandInteractionEvent.class);
+    private static final Map<Class<?>, Reader> readers = new HashMap<>();
+
+    static {
+        reader(String.class, OptionType.STRING, "readString", String.class);
+        reader(long.class, OptionType.INTEGER, "readLong", long.class);
+        reader(Long.class, OptionType.INTEGER, "readBoxedLong", Long.class);
+        reader(int.class, OptionType.INTEGER, "readInt", int.class);
+        reader(Integer.class, OptionType.INTEGER, "readBoxedInt", Integer.class);
+        reader(double.class, OptionType.NUMBER, "readDouble", double.class);
+        reader(Double.class, OptionType.NUMBER, "readBoxedDouble", Double.class);
+        reader(boolean.class, OptionType.BOOLEAN, "readBoolean", boolean.class);
+        reader(Boolean.class, OptionType.BOOLEAN, "readBoxedBoolean", Boolean.class);
+        reader(User.class, OptionType.USER, "readUser", User.class);
+        reader(Member.class, OptionType.USER, "readMember", Member.class);
+        reader(Role.class, OptionType.ROLE, "readRole", Role.class);
+        reader(GuildChannelUnion.class, OptionType.CHANNEL, "readChannel", GuildChannelUnion.class);
+        reader(GuildChannel.class, OptionType.CHANNEL, "readChannel", GuildChannelUnion.class);
+        reader(IMentionable.class, OptionType.MENTIONABLE, "readMentionable", IMentionable.class);
+        reader(Message.Attachment.class, OptionType.ATTACHMENT, "readAttachment", Message.Attachment.class);
+    }
+
+    private OptionBinder() {
+    }
+
+    /**
+     * Binds all {@link CommandHandler} methods of the command and adds the derived options and subcommands to it.
+     * Methods with an invalid signature are logged and skipped.
+     *
+     * @param command The {@link SlashCommand} to bind
+     */
+    static void bind(SlashCommand command) {
+        List<Method> methods = new ArrayList<>();
+        for (Class<?> type = command.getClass(); type != SlashCommand.class; type = type.getSuperclass()) {
+            for (Method method : type.getDeclaredMethods()) {
+                if (method.isAnnotationPresent(CommandHandler.class)) {
+                    methods.add(method);
+                }
+            }
+        }
+        if (methods.isEmpty()) {
+            return;
+        }
+        // getDeclaredMethods has no defined order, sort so the subcommands are always published in the same order
+        methods.sort(Comparator.comparing(Method::getName));
+
+        for (Method method : methods) {
+            try {
+                bind(command, method);
+            } catch (IllegalArgumentException | ReflectiveOperationException e) {
+                logger.error("Could not bind {}.{} of command {}: {}", method.getDeclaringClass().getName(), method.getName(),
+                        command.getDefaultCommandName(), e.getMessage());
+            }
+        }
+    }
+
+    private static void bind(SlashCommand command, Method method) throws ReflectiveOperationException {
+        CommandHandler annotation = method.getAnnotation(CommandHandler.class);
+        Parameter[] parameters = method.getParameters();
+        if (parameters.length == 0 || !parameters[0].getType().isAssignableFrom(SlashCommandInteractionEvent.class)) {
+            throw new IllegalArgumentException("the first parameter has to be the SlashCommandInteractionEvent");
+        }
+
+        List<OptionData> options = new ArrayList<>();
+        MethodHandle[] optionReaders = new MethodHandle[parameters.length - 1];
+        boolean optionalSeen = false;
+        for (int i = 1; i < parameters.length; i++) {
+            Parameter parameter = parameters[i];
+            Option option = parameter.getAnnotation(Option.class);
+            if (option == null) {
+                throw new IllegalArgumentException("parameter " + i + " is not annotated with @Option");
+            }
+            Reader reader = readers.get(parameter.getType());
+            if (reader == null) {
+                throw new IllegalArgumentException("option " + option.name() + " has the unsupported type " + parameter.getType().getName());
+            }
+            if (!option.required() && parameter.getType().isPrimitive()) {
+                throw new IllegalArgumentException("option " + option.name() + " is not required and needs a wrapper type instead of " + parameter.getType());
+            }
+            if (option.required() && optionalSeen) {
+                throw new IllegalArgumentException("the required option " + option.name() + " has to come before all options that are not required");
+            }
+            optionalSeen |= !option.required();
+
+            OptionData data = new OptionData(reader.type(), option.name(), option.description(), option.required());
+            if (parameter.getType() == int.class || parameter.getType() == Integer.class) {
+                data.setRequiredRange(Integer.MIN_VALUE, Integer.MAX_VALUE);
+            }
+            options.add(data);
+            optionReaders[i - 1] = MethodHandles.insertArguments(reader.handle(), 1, option.name())
+                    .asType(MethodType.methodType(parameter.getType(), SlashCommandInteractionEvent.class));
+        }
+
+        // (command, event, option...) -> (event, option...) -> (event, event...) -> (event)
+        MethodHandle handle = MethodHandles.privateLookupIn(method.getDeclaringClass(), MethodHandles.lookup())
+                .unreflect(method)
+                .bindTo(command);
+        handle = handle.asType(handle.type().changeReturnType(void.class).changeParameterType(0, SlashCommandInteractionEvent.class));
+        handle = MethodHandles.filterArguments(handle, 1, optionReaders);
+        handle = MethodHandles.permuteArguments(handle, HANDLER_TYPE, new int[parameters.length]);
+        SlashCommand.SubcommandHandler handler = new BoundHandler(handle);
+
+        if (annotation.subcommand().isEmpty()) {
+            if (command.hasHandler() || command.hasSubcommands() || command.hasSubcommandGroups()) {
+                throw new IllegalArgumentException("a command with a handler of its own can not have a second handler or subcommands");
+            }
+            command.addOptions(options);
+            command.setHandler(handler);
+            return;
+        }
+        if (command.hasHandler()) {
+            throw new IllegalArgumentException("a command with a handler of its own can not have subcommands");
+        }
+
+        SubcommandData subcommand = new SubcommandData(annotation.subcommand(), orName(annotation.description(), annotation.subcommand()))
+                .addOptions(options);
+        if (annotation.group().isEmpty()) {
+            command.addSubcommand(subcommand, handler);
+            return;
+        }
+        SubcommandGroupData group = command.getSubcommandGroups().stream()
+                .filter(existing -> existing.getName().equals(annotation.group()))
+                .findFirst()
+                .orElseGet(() -> new SubcommandGroupData(annotation.group(), orName(annotation.groupDescription(), annotation.group())));
+        command.addSubcommand(group, subcommand, handler);
+    }
+
+    private static String orName(String description, String name) {
+        return description.isEmpty() ? name : description;
+    }
+
+    private static void reader(Class<?> parameterType, OptionType optionType, String methodName, Class<?> returnType) {
+        try {
+            MethodHandle handle = MethodHandles.lookup().findStatic(OptionBinder.class, methodName,
+                    MethodType.methodType(returnType, SlashCommandInteractionEvent.class, String.class));
+            readers.put(parameterType, new Reader(optionType, handle));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * The option type of a parameter type and the handle reading it, {@code (event, name) -> value}.
+     */
+    private record Reader(OptionType type, MethodHandle handle) {
+    }
+
+    /**
+     * The invoker of a bound handler method. The handle is exactly {@code (SlashCommandInteractionEvent) -> void}.
+     */
+    private record BoundHandler(MethodHandle handle) implements SlashCommand.SubcommandHandler {
+
+        @Override
+        public void execute(SlashCommandInteractionEvent event) {
+            try {
+                handle.invokeExact(event);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable throwable) {
+                throw new RuntimeException(throwable);
+            }
+        }
+    }
+
+    // Option readers, missing options are null or zero for primitives, which are only allowed for required options
+
+    private static String readString(SlashCommandInteractionEvent event, String name) {
+        OptionMapping option = event.getOption(name);
+        return option != null ? option.getAsString() : null;
+    }
+
+    private static long readLong(SlashCommandInteractionEvent event, String name) {
+        OptionMapping option = event.getOption(name);
+        return option != null ? option.getAsLong() : 0;
+    }
+
+    private static Long readBoxedLong(SlashCommandInteractionEvent event, String name) {
+        OptionMapping option = event.getOption(name);
+        return option != null ? option.getAsLong() : null;
+    }
+
+    private static int readInt(SlashCommandInteractionEvent event, String name) {
+        OptionMapping option = event.getOption(name);
+        return option != null ? option.getAsInt() : 0;
+    }
+
+    private static Integer readBoxedInt(SlashCommandInteractionEvent event, String name) {
+        OptionMapping option = event.getOption(name);
+        return option != null ? option.getAsInt() : null;
+    }
+
+    private static double readDouble(SlashCommandInteractionEvent event, String name) {
+        OptionMapping option = event.getOption(name);
+        return option != null ? option.getAsDouble() : 0;
+    }
+
+    private static Double readBoxedDouble(SlashCommandInteractionEvent event, String name) {
+        OptionMapping option = event.getOption(name);
+        return option != null ? option.getAsDouble() : null;
+    }
+
+    private static boolean readBoolean(SlashCommandInteractionEvent event, String name) {
+        OptionMapping option = event.getOption(name);
+        return option != null && option.getAsBoolean();
+    }
+
+    private static Boolean readBoxedBoolean(SlashCommandInteractionEvent event, String name) {
+        OptionMapping option = event.getOption(name);
+        return option != null ? option.getAsBoolean() : null;
+    }
+
+    private static User readUser(SlashCommandInteractionEvent event, String name) {
+        OptionMapping option = event.getOption(name);
+        return option != null ? option.getAsUser() : null;
+    }
+
+    private static Member readMember(SlashCommandInteractionEvent event, String name) {
+        OptionMapping option = event.getOption(name);
+        return option != null ? option.getAsMember() : null;
+    }
+
+    private static Role readRole(SlashCommandInteractionEvent event, String name) {
+        OptionMapping option = event.getOption(name);
+        return option != null ? option.getAsRole() : null;
+    }
+
+    private static GuildChannelUnion readChannel(SlashCommandInteractionEvent event, String name) {
+        OptionMapping option = event.getOption(name);
+        return option != null ? option.getAsChannel() : null;
+    }
+
+    private static IMentionable readMentionable(SlashCommandInteractionEvent event, String name) {
+        OptionMapping option = event.getOption(name);
+        return option != null ? option.getAsMentionable() : null;
+    }
+
+    private static Message.Attachment readAttachment(SlashCommandInteractionEvent event, String name) {
+        OptionMapping option = event.getOption(name);
+        return option != null ? option.getAsAttachment() : null;
+    }
+}
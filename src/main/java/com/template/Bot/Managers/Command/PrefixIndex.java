@@ -0,0 +1,261 @@
+package com.template.Bot.Managers.Command;
+
+import com.template.Database.MySQL;
+import net.dv8tion.jda.api.interactions.commands.Command;
+import net.dv8tion.jda.api.interactions.commands.build.OptionData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * PrefixIndex
+ * <p>
+ *     An in-memory index of autocomplete candidates, see {@link SlashCommand#addAutocomplete(String, PrefixIndex)}.
+ *     The candidates are kept sorted by their lowercase name, so all candidates starting with the typed text form one
+ *     range that is found by binary search. Within that range the best candidates are picked by exact match, weight
+ *     and name, at most {@link OptionData#MAX_CHOICES} of them.
+ * </p>
+ * <p>
+ *     A refresh builds a complete new snapshot and swaps it in at once, lookups keep using the old snapshot until then
+ *     and never wait for a refresh.
+ * </p>
+ */
+public final class PrefixIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(PrefixIndex.class);
+
+    private static final Executor refreshExecutor = runnable -> Thread.ofVirtual().name("PrefixIndex-Refresh").start(runnable);
+
+    private volatile Snapshot snapshot = Snapshot.build(List.of());
+
+    /**
+     * Creates an empty index.
+     */
+    public PrefixIndex() {
+    }
+
+    /**
+     * Creates an index of the given candidates.
+     *
+     * @param entries The candidates of the index
+     */
+    public PrefixIndex(Collection<Entry> entries) {
+        refresh(entries);
+    }
+
+    /**
+     * Replaces all candidates of the index.
+     *
+     * @param entries The new candidates of the index
+     */
+    public void refresh(Collection<Entry> entries) {
+        snapshot = Snapshot.build(entries);
+    }
+
+    /**
+     * Replaces all candidates of the index with the rows of a query, loaded on a separate database connection in the
+     * background. The first column is the name shown to the user, the optional second column the value sent to the
+     * bot (the name if missing) and the optional third column the weight, higher weights are suggested first.
+     * If the query fails, the index keeps its current candidates.
+     *
+     * @param query The SQL query returning the candidates
+     * @return A future completed with the number of candidates once the new candidates are in use
+     */
+    public CompletableFuture<Integer> refreshFromDatabase(String query) {
+        return CompletableFuture.supplyAsync(() -> {
+            List<Entry> entries = new ArrayList<>();
+            try (Connection connection = MySQL.createConnection("");
+                 Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(query)) {
+                int columns = resultSet.getMetaData().getColumnCount();
+                while (resultSet.next()) {
+                    String name = resultSet.getString(1);
+                    if (name == null) {
+                        continue;
+                    }
+                    String value = columns >= 2 ? resultSet.getString(2) : name;
+                    long weight = columns >= 3 ? resultSet.getLong(3) : 0;
+                    entries.add(new Entry(name, value != null ? value : name, weight));
+                }
+            } catch (SQLException e) {
+                logger.error("Could not refresh the autocomplete index: {}", e.getMessage());
+                throw new IllegalStateException(e);
+            }
+            refresh(entries);
+            return entries.size();
+        }, refreshExecutor);
+    }
+
+    /**
+     * Looks up the best candidates starting with the given text, ignoring case.
+     *
+     * @param prefix The text the user typed so far
+     * @return At most {@link OptionData#MAX_CHOICES} choices, best first
+     */
+    public List<Command.Choice> lookup(String prefix) {
+        return lookup(prefix, OptionData.MAX_CHOICES);
+    }
+
+    /**
+     * Looks up the best candidates starting with the given text, ignoring case.
+     *
+     * @param prefix The text the user typed so far
+     * @param limit  The maximum number of choices, capped at {@link OptionData#MAX_CHOICES}
+     * @return At most limit choices, best first
+     */
+    public List<Command.Choice> lookup(String prefix, int limit) {
+        return snapshot.lookup(normalize(prefix), Math.min(limit, OptionData.MAX_CHOICES));
+    }
+
+    /**
+     * @return The number of candidates in the index
+     */
+    public int size() {
+        return snapshot.keys.length;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.strip().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * A candidate of the index.
+     *
+     * @param name   The name shown to the user and matched against the typed text
+     * @param value  The value sent to the bot when the user picks the candidate
+     * @param weight The rank of the candidate, higher weights are suggested first
+     */
+    public record Entry(String name, String value, long weight) {
+    }
+
+    /**
+     * The immutable state of the index. All arrays are sorted by key.
+     */
+    private static final class Snapshot {
+
+        private final String[] keys;
+        private final long[] weights;
+        // Choices are only created for the results, creating one per candidate is slow and memory hungry
+        private final String[] names;
+        private final String[] values;
+        // The answer for an empty prefix, which would otherwise rank the whole index on every call
+        private final List<Command.Choice> top;
+
+        private Snapshot(String[] keys, long[] weights, String[] names, String[] values) {
+            this.keys = keys;
+            this.weights = weights;
+            this.names = names;
+            this.values = values;
+            this.top = select("", 0, keys.length, OptionData.MAX_CHOICES);
+        }
+
+        private static Snapshot build(Collection<Entry> entries) {
+            Entry[] sorted = entries.toArray(new Entry[0]);
+            String[] keys = new String[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                keys[i] = normalize(sorted[i].name());
+            }
+            Integer[] order = new Integer[sorted.length];
+            Arrays.setAll(order, i -> i);
+            Arrays.sort(order, Comparator.comparing(i -> keys[i]));
+
+            String[] sortedKeys = new String[sorted.length];
+            long[] weights = new long[sorted.length];
+            String[] names = new String[sorted.length];
+            String[] values = new String[sorted.length];
+            for (int i = 0; i < order.length; i++) {
+                Entry entry = sorted[order[i]];
+                sortedKeys[i] = keys[order[i]];
+                weights[i] = entry.weight();
+                names[i] = entry.name();
+                values[i] = entry.value();
+            }
+            return new Snapshot(sortedKeys, weights, names, values);
+        }
+
+        private List<Command.Choice> lookup(String prefix, int limit) {
+            if (prefix.isEmpty()) {
+                return limit >= top.size() ? top : top.subList(0, limit);
+            }
+            int from = firstNotBefore(prefix);
+            int to = from;
+            // The keys starting with the prefix directly follow its position, find where they end
+            int high = keys.length;
+            while (to < high) {
+                int middle = (to + high) >>> 1;
+                if (keys[middle].startsWith(prefix)) {
+                    to = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return select(prefix, from, to, limit);
+        }
+
+        private int firstNotBefore(String prefix) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (keys[middle].compareTo(prefix) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Picks the best candidates of a range by keeping a small sorted array of the best ones seen so far.
+         */
+        private List<Command.Choice> select(String prefix, int from, int to, int limit) {
+            if (limit <= 0 || from >= to) {
+                return List.of();
+            }
+            int[] best = new int[Math.min(limit, to - from)];
+            int size = 0;
+            for (int i = from; i < to; i++) {
+                if (size == best.length && !isBetter(prefix, i, best[size - 1])) {
+                    continue;
+                }
+                int position = size == best.length ? size - 1 : size++;
+                while (position > 0 && isBetter(prefix, i, best[position - 1])) {
+                    best[position] = best[position - 1];
+                    position--;
+                }
+                best[position] = i;
+            }
+            Command.Choice[] result = new Command.Choice[size];
+            for (int i = 0; i < size; i++) {
+                result[i] = new Command.Choice(names[best[i]], values[best[i]]);
+            }
+            return List.of(result);
+        }
+
+        private boolean isBetter(String prefix, int candidate, int other) {
+            boolean candidateExact = keys[candidate].length() == prefix.length();
+            boolean otherExact = keys[other].length() == prefix.length();
+            if (candidateExact != otherExact) {
+                return candidateExact;
+            }
+            if (weights[candidate] != weights[other]) {
+                return weights[candidate] > weights[other];
+            }
+            // Same rank, the range is scanned in key order so the earlier candidate stays first
+            return false;
+        }
+    }
+}
@@ -1,24 +1,34 @@
 package com.template.Bot.Managers.Command;
 
+import com.template.Bot.Managers.Bulkhead;
+import com.template.Bot.Managers.CommandExecutor;
 import com.template.Bot.Managers.Cooldown;
+import com.template.Bot.Managers.GatewayProfile;
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.interactions.DiscordLocale;
+import net.dv8tion.jda.api.interactions.commands.Command;
 import net.dv8tion.jda.api.interactions.commands.DefaultMemberPermissions;
 import net.dv8tion.jda.api.interactions.commands.build.OptionData;
 import net.dv8tion.jda.api.interactions.commands.build.SubcommandData;
 import net.dv8tion.jda.api.interactions.commands.build.SubcommandGroupData;
+import net.dv8tion.jda.api.requests.GatewayIntent;
+import net.dv8tion.jda.api.utils.MemberCachePolicy;
+import net.dv8tion.jda.api.utils.cache.CacheFlag;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * The SlashCommand class is the base class for all slash commands.
  * It contains all information about the slash command.
  * It also contains the execute method, which is called when the slash command is executed.
  */
-public abstract class SlashCommand {
+public abstract class SlashCommand implements Cooldown.Holder, GatewayProfile.Holder {
 
     private Map<DiscordLocale, String> commandNames = new HashMap<>();
     private Map<DiscordLocale, String> descriptions = new HashMap<>();
@@ -27,16 +37,29 @@ public abstract class SlashCommand {
     private boolean NSFW = false;
     private DefaultMemberPermissions defaultMemberPermissions;
     private Cooldown cooldown;
+    private CommandExecutor.Mode executionMode = CommandExecutor.Mode.DEFAULT;
+    private Bulkhead bulkhead;
+    private final Set<GatewayIntent> requiredIntents = EnumSet.noneOf(GatewayIntent.class);
+    private final Set<CacheFlag> requiredCacheFlags = EnumSet.noneOf(CacheFlag.class);
+    private MemberCachePolicy memberCachePolicy;
     private List<OptionData> options = new ArrayList<>();
     private List<SubcommandData> subcommands = new ArrayList<>();
     private List<SubcommandGroupData> subcommandGroups = new ArrayList<>();
+    private Map<String, Map<String, SubcommandHandler>> subcommandHandlers = new HashMap<>();
+    private SubcommandHandler handler;
+    private Map<String, AutocompleteHandler> autocompleteHandlers = new HashMap<>();
     private String helpMessage;
 
     /**
      * The execute method is called when the slash command is executed.
+     * It is also called for subcommands that were added without a {@link SubcommandHandler}.
+     * Slash commands that are executed by {@link CommandHandler} methods do not need to implement it, all others are
+     * rejected by {@link CommandManager#registerCommand(SlashCommand)} if they do not.
      * @param event The SlashCommandInteractionEvent
      */
-    public abstract void execute(SlashCommandInteractionEvent event);
+    public void execute(SlashCommandInteractionEvent event) {
+        throw new IllegalStateException("Command " + getDefaultCommandName() + " was registered without a handler");
+    }
 
     /**
      * The SlashCommand constructor is used to set the default name and description of the slash command.
@@ -226,10 +249,20 @@ public abstract class SlashCommand {
      * Returns the cooldown of the slash command.
      * @return The {@link Cooldown} of the slash command
      */
+    @Override
     public Cooldown getCooldown() {
         return cooldown;
     }
 
+    /**
+     * Returns the name the cooldowns of the slash command are stored under.
+     * @return The default name of the slash command
+     */
+    @Override
+    public String getCooldownName() {
+        return getDefaultCommandName();
+    }
+
     /**
      * Returns whether the slash command has a cooldown.
      * @return True if the slash command has a cooldown, false otherwise
@@ -238,6 +271,99 @@ public abstract class SlashCommand {
         return cooldown != null;
     }
 
+    /**
+     * Sets how the slash command is executed, for example on a virtual thread if it blocks.
+     * @param executionMode The {@link CommandExecutor.Mode} of the slash command
+     */
+    public void setExecutionMode(CommandExecutor.Mode executionMode) {
+        this.executionMode = executionMode;
+    }
+
+    /**
+     * Returns how the slash command is executed.
+     * @return The {@link CommandExecutor.Mode} of the slash command, {@link CommandExecutor.Mode#DEFAULT} if not set
+     */
+    public CommandExecutor.Mode getExecutionMode() {
+        return executionMode;
+    }
+
+    /**
+     * Sets the bulkhead of the slash command, which limits its concurrent executions and queued executions.
+     * A slash command with a bulkhead is always executed on a virtual thread.
+     * @param bulkhead The {@link Bulkhead} of the slash command
+     */
+    public void setBulkhead(Bulkhead bulkhead) {
+        this.bulkhead = bulkhead;
+    }
+
+    /**
+     * Returns the bulkhead of the slash command, which also holds its queue depth and rejection count.
+     * @return The {@link Bulkhead} of the slash command, or null if it has none
+     */
+    public Bulkhead getBulkhead() {
+        return bulkhead;
+    }
+
+    /**
+     * Returns whether the slash command has a bulkhead.
+     * @return True if the slash command has a bulkhead, false otherwise
+     */
+    public boolean hasBulkhead() {
+        return bulkhead != null;
+    }
+
+    /**
+     * Declares gateway intents the slash command needs, e.g. {@link GatewayIntent#GUILD_MEMBERS} to look up other members.
+     * They are enabled on startup unless the lean gateway profile is used, see {@link GatewayProfile}.
+     * @param intents The gateway intents the slash command needs
+     */
+    public void requireIntents(GatewayIntent... intents) {
+        this.requiredIntents.addAll(Set.of(intents));
+    }
+
+    /**
+     * Returns the gateway intents the slash command needs.
+     * @return The gateway intents of the slash command
+     */
+    @Override
+    public Set<GatewayIntent> getRequiredIntents() {
+        return requiredIntents;
+    }
+
+    /**
+     * Declares cache flags the slash command needs. The intents of the cache flags are enabled as well.
+     * @param cacheFlags The cache flags the slash command needs
+     */
+    public void requireCacheFlags(CacheFlag... cacheFlags) {
+        this.requiredCacheFlags.addAll(Set.of(cacheFlags));
+    }
+
+    /**
+     * Returns the cache flags the slash command needs.
+     * @return The cache flags of the slash command
+     */
+    @Override
+    public Set<CacheFlag> getRequiredCacheFlags() {
+        return requiredCacheFlags;
+    }
+
+    /**
+     * Sets which members the slash command needs cached. The policies of all features are combined.
+     * @param memberCachePolicy The {@link MemberCachePolicy} of the slash command
+     */
+    public void setMemberCachePolicy(MemberCachePolicy memberCachePolicy) {
+        this.memberCachePolicy = memberCachePolicy;
+    }
+
+    /**
+     * Returns which members the slash command needs cached.
+     * @return The {@link MemberCachePolicy} of the slash command, or null if it needs no members cached
+     */
+    @Override
+    public MemberCachePolicy getMemberCachePolicy() {
+        return memberCachePolicy;
+    }
+
     /**
      * Sets the options of the slash command.
      * @param options A List containing all options of the slash command
@@ -302,6 +428,99 @@ public abstract class SlashCommand {
         return !subcommands.isEmpty();
     }
 
+    /**
+     * Adds a subcommand that is executed by its own handler instead of {@link #execute(SlashCommandInteractionEvent)}.
+     * @param subcommand The subcommand to add
+     * @param handler The {@link SubcommandHandler} executing the subcommand
+     */
+    public void addSubcommand(SubcommandData subcommand, SubcommandHandler handler) {
+        subcommands.add(subcommand);
+        subcommandHandlers.computeIfAbsent("", group -> new HashMap<>()).put(subcommand.getName(), handler);
+    }
+
+    /**
+     * Adds a subcommand to a subcommand group, adding the group to the slash command if it is not part of it yet.
+     * The subcommand is executed by its own handler instead of {@link #execute(SlashCommandInteractionEvent)}.
+     * @param group The subcommand group the subcommand belongs to
+     * @param subcommand The subcommand to add
+     * @param handler The {@link SubcommandHandler} executing the subcommand
+     */
+    public void addSubcommand(SubcommandGroupData group, SubcommandData subcommand, SubcommandHandler handler) {
+        if (!subcommandGroups.contains(group)) {
+            subcommandGroups.add(group);
+        }
+        group.addSubcommands(subcommand);
+        subcommandHandlers.computeIfAbsent(group.getName(), name -> new HashMap<>()).put(subcommand.getName(), handler);
+    }
+
+    /**
+     * Returns the handlers of the subcommands, keyed by subcommand group ("" for none) and subcommand name.
+     * @return A Map containing all subcommand handlers of the slash command
+     */
+    public Map<String, Map<String, SubcommandHandler>> getSubcommandHandlers() {
+        return subcommandHandlers;
+    }
+
+    /**
+     * Sets the handler executing the slash command itself instead of {@link #execute(SlashCommandInteractionEvent)}.
+     * Set when the slash command is registered if it has a {@link CommandHandler} method without a subcommand.
+     * @param handler The {@link SubcommandHandler} executing the slash command
+     */
+    public void setHandler(SubcommandHandler handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * Returns the handler executing the slash command itself.
+     * @return The {@link SubcommandHandler} of the slash command, or null if it is executed by {@link #execute(SlashCommandInteractionEvent)}
+     */
+    public SubcommandHandler getHandler() {
+        return handler;
+    }
+
+    /**
+     * Returns whether the slash command is executed by a handler instead of {@link #execute(SlashCommandInteractionEvent)}.
+     * @return True if the slash command has a handler, false otherwise
+     */
+    public boolean hasHandler() {
+        return handler != null;
+    }
+
+    /**
+     * Adds an autocomplete handler suggesting values for the options with the given name.
+     * The options are marked as autocomplete options when the slash command is registered with Discord.
+     * @param optionName The name of the options, in every subcommand of the slash command
+     * @param handler The {@link AutocompleteHandler} suggesting the values
+     */
+    public void addAutocomplete(String optionName, AutocompleteHandler handler) {
+        autocompleteHandlers.put(optionName, handler);
+    }
+
+    /**
+     * Adds an autocomplete handler suggesting the candidates of a {@link PrefixIndex} that start with the typed text.
+     * @param optionName The name of the options, which have to be string options
+     * @param index The {@link PrefixIndex} holding the candidates
+     */
+    public void addAutocomplete(String optionName, PrefixIndex index) {
+        addAutocomplete(optionName, (event, input) -> index.lookup(input));
+    }
+
+    /**
+     * Returns the autocomplete handlers of the slash command.
+     * @return A Map containing all autocomplete handlers, keyed by option name
+     */
+    public Map<String, AutocompleteHandler> getAutocompleteHandlers() {
+        return autocompleteHandlers;
+    }
+
+    /**
+     * Returns whether the slash command has autocomplete handlers.
+     * @return True if the slash command has autocomplete handlers, false otherwise
+     */
+    public boolean hasAutocomplete() {
+        return !autocompleteHandlers.isEmpty();
+    }
+
     /**
      * Sets the subcommand groups of the slash command.
      * @param subcommandGroups A List containing all subcommand groups of the slash command
@@ -350,4 +569,34 @@ public abstract class SlashCommand {
     public boolean hasHelpMessage() {
         return helpMessage != null;
     }
+
+    /**
+     * Executes a single subcommand of a slash command, see {@link #addSubcommand(SubcommandData, SubcommandHandler)}.
+     * Usually implemented by a method reference to a method of the slash command.
+     */
+    @FunctionalInterface
+    public interface SubcommandHandler {
+
+        /**
+         * Called when the subcommand is executed.
+         * @param event The SlashCommandInteractionEvent
+         */
+        void execute(SlashCommandInteractionEvent event);
+    }
+
+    /**
+     * Suggests values for an option while the user is typing, see {@link #addAutocomplete(String, AutocompleteHandler)}.
+     * It is called on every keystroke, so it should answer from memory.
+     */
+    @FunctionalInterface
+    public interface AutocompleteHandler {
+
+        /**
+         * Called when the user types into the option.
+         * @param event The CommandAutoCompleteInteractionEvent
+         * @param input The text the user typed so far
+         * @return The suggested choices, only the first {@code OptionData.MAX_CHOICES} are shown
+         */
+        List<Command.Choice> complete(CommandAutoCompleteInteractionEvent event, String input);
+    }
 }
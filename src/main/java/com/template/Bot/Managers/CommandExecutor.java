@@ -0,0 +1,183 @@
+package com.template.Bot.Managers;
+
+import com.template.Bot.Managers.Metrics.DispatchMetrics;
+import com.template.Language.LanguageUtils;
+import com.template.Main;
+import net.dv8tion.jda.api.interactions.callbacks.IReplyCallback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Locale;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * CommandExecutor
+ * <p>
+ *     Runs the handlers of {@link com.template.Bot.Managers.Command.SlashCommand}s,
+ *     {@link com.template.Bot.Managers.Interaction.ContextInteraction}s and
+ *     {@link com.template.Bot.Managers.Component.ComponentHandler}s. By default a handler runs inline on the
+ *     JDA event thread. A handler that blocks, for example on a database query, can run on a virtual thread instead,
+ *     so it no longer holds up the events of the whole shard. The mode is chosen per command or globally with
+ *     {@code execution.mode} in discord.properties.
+ * </p>
+ * <p>
+ *     At most {@code execution.maxConcurrent} virtual thread handlers run at the same time; further handlers wait
+ *     on their own virtual thread until a permit is free. Exceptions of both modes are passed to one
+ *     {@link ErrorHandler}, see {@link #setErrorHandler(ErrorHandler)}.
+ * </p>
+ * <p>
+ *     A command can additionally declare a {@link Bulkhead}. Its handlers then always run on virtual threads, wait
+ *     in the bounded queue of the bulkhead and are answered with a localized busy message once the queue is full.
+ * </p>
+ */
+public final class CommandExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(CommandExecutor.class);
+
+    private static final Mode defaultMode = Mode.getMode(Main.discord.getProperty("execution.mode", "inline"));
+    private static final int maxConcurrent = Integer.parseInt(Main.discord.getProperty("execution.maxConcurrent", "256").trim());
+    private static final Semaphore permits = new Semaphore(maxConcurrent);
+    // The factory is thread-safe, unlike the builder, and is shared by all event threads
+    private static final ThreadFactory threadFactory = Thread.ofVirtual().name("Command-", 0).factory();
+
+    private static volatile ErrorHandler errorHandler = CommandExecutor::handleError;
+
+    private CommandExecutor() {
+    }
+
+    /**
+     * Executes a command handler in the given mode.
+     *
+     * @param event        The interaction event the handler is executed for
+     * @param kind         What is executed, for the {@link DispatchMetrics}
+     * @param name         The name of the command, interaction or component, used for error reports and metrics
+     * @param dispatchedAt The {@link System#nanoTime()} the event arrived at
+     * @param mode         The {@link Mode} of the command, {@link Mode#DEFAULT} uses {@code execution.mode}
+     * @param bulkhead     The {@link Bulkhead} of the command, or null if it has none
+     * @param handler      The handler to execute
+     */
+    public static void execute(IReplyCallback event, DispatchMetrics.Kind kind, String name, long dispatchedAt,
+                               Mode mode, Bulkhead bulkhead, Runnable handler) {
+        if (bulkhead != null) {
+            if (!bulkhead.tryAdmit()) {
+                Locale userLocale = event.getUserLocale().toLocale();
+                String message = LanguageUtils.getLanguageString("languages.bot.global", "command.busy.response", userLocale);
+                event.reply(message).setEphemeral(true).queue();
+                DispatchMetrics.record(kind, name, event, DispatchMetrics.Outcome.BUSY, dispatchedAt);
+                return;
+            }
+            mode = Mode.VIRTUAL;
+        } else if (mode == Mode.DEFAULT) {
+            mode = defaultMode;
+        }
+        if (mode != Mode.VIRTUAL) {
+            run(event, kind, name, dispatchedAt, handler);
+            return;
+        }
+        threadFactory.newThread(() -> {
+            try {
+                if (bulkhead != null) {
+                    bulkhead.acquire();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                if (bulkhead != null) {
+                    bulkhead.release();
+                }
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                run(event, kind, name, dispatchedAt, handler);
+            } finally {
+                permits.release();
+                if (bulkhead != null) {
+                    bulkhead.release();
+                }
+            }
+        }).start();
+    }
+
+    /**
+     * Replaces the hook that receives the exceptions thrown by command handlers.
+     * The default hook logs the exception and tells the user that the command failed.
+     *
+     * @param handler The {@link ErrorHandler} to use
+     */
+    public static void setErrorHandler(ErrorHandler handler) {
+        errorHandler = handler;
+    }
+
+    /**
+     * @return The number of virtual thread handlers that are running right now
+     */
+    public static int getRunningCount() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    private static void run(IReplyCallback event, DispatchMetrics.Kind kind, String name, long dispatchedAt, Runnable handler) {
+        try {
+            handler.run();
+            DispatchMetrics.record(kind, name, event, DispatchMetrics.Outcome.OK, dispatchedAt);
+        } catch (Throwable t) {
+            try {
+                errorHandler.onError(event, name, t);
+            } catch (RuntimeException e) {
+                logger.error("Error handler failed for {}", name, e);
+            }
+            DispatchMetrics.record(kind, name, event, DispatchMetrics.Outcome.ERROR, dispatchedAt);
+        }
+    }
+
+    private static void handleError(IReplyCallback event, String name, Throwable throwable) {
+        logger.error("Error while executing {}", name, throwable);
+        if (!event.isAcknowledged()) {
+            Locale userLocale = event.getUserLocale().toLocale();
+            String message = LanguageUtils.getLanguageString("languages.bot.global", "command.error.response", userLocale);
+            event.reply(message).setEphemeral(true).queue();
+        }
+    }
+
+    /**
+     * Receives the exceptions thrown by command handlers, see {@link #setErrorHandler(ErrorHandler)}.
+     */
+    @FunctionalInterface
+    public interface ErrorHandler {
+
+        /**
+         * @param event     The interaction event the handler was executed for
+         * @param name      The name of the command, interaction or component
+         * @param throwable The exception thrown by the handler
+         */
+        void onError(IReplyCallback event, String name, Throwable throwable);
+    }
+
+    /**
+     * Execution Mode
+     * <p>
+     *     DEFAULT: The mode configured with execution.mode
+     *     INLINE: The handler runs on the JDA event thread
+     *     VIRTUAL: The handler runs on its own virtual thread
+     *    </p>
+     */
+    public enum Mode {
+
+        DEFAULT,
+        INLINE,
+        VIRTUAL;
+
+        public static Mode getMode(String mode) {
+            return switch (mode.trim().toLowerCase()) {
+                case "virtual" -> VIRTUAL;
+                case "inline" -> INLINE;
+                default -> DEFAULT;
+            };
+        }
+    }
+}
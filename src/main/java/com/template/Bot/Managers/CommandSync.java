@@ -0,0 +1,240 @@
+package com.template.Bot.Managers;
+
+import com.template.Main;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.interactions.commands.Command;
+import net.dv8tion.jda.api.interactions.commands.build.CommandData;
+import net.dv8tion.jda.api.requests.RestAction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * CommandSync
+ * <p>
+ *     Brings the application commands registered with Discord in line with the commands of the bot without
+ *     overwriting all of them. Every command is serialized and hashed; only commands whose hash differs from the
+ *     registered command are upserted, and registered commands the bot no longer has are deleted. Unchanged commands
+ *     are not touched, so clients do not reload them.
+ * </p>
+ * <p>
+ *     The hashes of the last successful sync are kept in a manifest ({@code commands.sync.manifest} in
+ *     discord.properties). If the commands still match the manifest, the sync does not call Discord at all.
+ *     Commands changed outside of the bot are only noticed without a manifest, or after deleting it.
+ * </p>
+ */
+public final class CommandSync {
+
+    private static final Logger logger = LoggerFactory.getLogger(CommandSync.class);
+
+    // The calls the old startup made per scope: overwrite all commands and list them again
+    private static final int OVERWRITE_CALLS = 2;
+
+    private static final String manifestPath = Main.discord.getProperty("commands.sync.manifest", "data/commands.manifest").trim();
+    private static final Object manifestLock = new Object();
+
+    private CommandSync() {
+    }
+
+    /**
+     * Synchronizes the global commands of the application.
+     *
+     * @param jda      Any shard of the bot
+     * @param commands All global commands and interactions of the bot
+     * @return A future completed once all changes are applied
+     */
+    public static CompletableFuture<Void> sync(JDA jda, Collection<CommandData> commands) {
+        return sync(new Target("global", jda.getSelfUser().getApplicationIdLong(), () -> jda.retrieveCommands(true), jda::upsertCommand, jda::deleteCommandById), commands);
+    }
+
+    /**
+     * Synchronizes the commands of a single guild.
+     *
+     * @param guild    The guild
+     * @param commands All commands and interactions of the guild
+     * @return A future completed once all changes are applied
+     */
+    public static CompletableFuture<Void> sync(Guild guild, Collection<CommandData> commands) {
+        return sync(new Target("guild." + guild.getId(), guild.getJDA().getSelfUser().getApplicationIdLong(), () -> guild.retrieveCommands(true), guild::upsertCommand, guild::deleteCommandById), commands);
+    }
+
+    private static CompletableFuture<Void> sync(Target target, Collection<CommandData> commands) {
+        Map<String, CommandData> desired = new LinkedHashMap<>();
+        Map<String, String> hashes = new LinkedHashMap<>();
+        for (CommandData command : commands) {
+            String key = key(command.getType(), command.getName());
+            desired.put(key, command);
+            hashes.put(key, hash(command));
+        }
+
+        if (hashes.equals(loadManifest(target))) {
+            logger.info("Commands ({}) are up to date with the manifest, {} commands unchanged, 0 REST calls instead of {}",
+                    target.scope(), hashes.size(), OVERWRITE_CALLS);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return target.retrieve().get().submit().thenCompose(registered -> {
+            Map<String, Command> remaining = new HashMap<>();
+            for (Command command : registered) {
+                remaining.put(key(command.getType(), command.getName()), command);
+            }
+
+            List<String> created = new ArrayList<>();
+            List<String> updated = new ArrayList<>();
+            List<String> deleted = new ArrayList<>();
+            List<CompletableFuture<?>> calls = new ArrayList<>();
+            desired.forEach((key, command) -> {
+                Command current = remaining.remove(key);
+                if (current == null) {
+                    created.add(key);
+                } else if (!hashes.get(key).equals(hash(CommandData.fromCommand(current)))) {
+                    updated.add(key);
+                } else {
+                    return;
+                }
+                calls.add(target.upsert().apply(command).submit());
+            });
+            remaining.forEach((key, command) -> {
+                deleted.add(key);
+                calls.add(target.delete().apply(command.getId()).submit());
+            });
+
+            return CompletableFuture.allOf(calls.toArray(new CompletableFuture<?>[0])).thenRun(() -> {
+                storeManifest(target, hashes);
+                int restCalls = calls.size() + 1;
+                logger.info("Commands ({}) synchronized: created {}, updated {}, deleted {}, {} unchanged, {} REST calls instead of {}",
+                        target.scope(), created, updated, deleted, desired.size() - created.size() - updated.size(), restCalls, OVERWRITE_CALLS);
+            });
+        }).whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                logger.error("Failed to synchronize the commands ({})", target.scope(), throwable);
+            }
+        });
+    }
+
+    private static String key(Command.Type type, String name) {
+        return type + "." + name;
+    }
+
+    /**
+     * Hashes the serialized command. The JSON keys are sorted first, so the hash only changes with the content.
+     */
+    private static String hash(CommandData command) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] canonical = canonical(command.toData().toMap()).toString().getBytes(StandardCharsets.UTF_8);
+            return HexFormat.of().formatHex(digest.digest(canonical));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Object canonical(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> sorted = new TreeMap<>();
+            map.forEach((key, entry) -> sorted.put(String.valueOf(key), canonical(entry)));
+            return sorted;
+        }
+        if (value instanceof List<?> list) {
+            List<Object> canonical = new ArrayList<>(list.size());
+            list.forEach(entry -> canonical.add(canonical(entry)));
+            return canonical;
+        }
+        return value;
+    }
+
+    /**
+     * @return The hashes of the last sync of the target, or null if there is no manifest for it
+     */
+    private static Map<String, String> loadManifest(Target target) {
+        if (manifestPath.isEmpty()) {
+            return null;
+        }
+        synchronized (manifestLock) {
+            Properties manifest = readManifest();
+            if (!String.valueOf(target.applicationId()).equals(manifest.getProperty(target.scope() + ".application"))) {
+                return null;
+            }
+            String prefix = target.scope() + ".command.";
+            Map<String, String> hashes = new HashMap<>();
+            for (String name : manifest.stringPropertyNames()) {
+                if (name.startsWith(prefix)) {
+                    hashes.put(name.substring(prefix.length()), manifest.getProperty(name));
+                }
+            }
+            return hashes;
+        }
+    }
+
+    private static void storeManifest(Target target, Map<String, String> hashes) {
+        if (manifestPath.isEmpty()) {
+            return;
+        }
+        synchronized (manifestLock) {
+            Properties manifest = readManifest();
+            manifest.keySet().removeIf(name -> name.toString().startsWith(target.scope() + "."));
+            manifest.setProperty(target.scope() + ".application", String.valueOf(target.applicationId()));
+            hashes.forEach((key, hash) -> manifest.setProperty(target.scope() + ".command." + key, hash));
+
+            Path path = Path.of(manifestPath);
+            try {
+                if (path.getParent() != null) {
+                    Files.createDirectories(path.getParent());
+                }
+                // Written to a temporary file first, so a crash never leaves a manifest that matches nothing
+                Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+                try (OutputStream output = Files.newOutputStream(temporary)) {
+                    manifest.store(output, "Hashes of the application commands registered with Discord, delete to force a full comparison");
+                }
+                Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                logger.warn("Could not write the command manifest {}: {}", manifestPath, e.getMessage());
+            }
+        }
+    }
+
+    private static Properties readManifest() {
+        Properties manifest = new Properties();
+        Path path = Path.of(manifestPath);
+        if (Files.exists(path)) {
+            try (InputStream input = Files.newInputStream(path)) {
+                manifest.load(input);
+            } catch (IOException e) {
+                logger.warn("Could not read the command manifest {}: {}", manifestPath, e.getMessage());
+            }
+        }
+        return manifest;
+    }
+
+    /**
+     * The global commands or the commands of one guild, which share the same endpoints but no common interface in JDA.
+     */
+    private record Target(String scope,
+                          long applicationId,
+                          Supplier<RestAction<List<Command>>> retrieve,
+                          Function<CommandData, RestAction<Command>> upsert,
+                          Function<String, RestAction<Void>> delete) {
+    }
+}
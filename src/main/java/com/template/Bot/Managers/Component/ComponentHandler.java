@@ -0,0 +1,294 @@
+package com.template.Bot.Managers.Component;
+
+import com.template.Bot.Managers.Bulkhead;
+import com.template.Bot.Managers.CommandExecutor;
+import com.template.Bot.Managers.Cooldown;
+import com.template.Bot.Managers.GatewayProfile;
+import net.dv8tion.jda.api.events.interaction.ModalInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.component.EntitySelectInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.component.StringSelectInteractionEvent;
+import net.dv8tion.jda.api.requests.GatewayIntent;
+import net.dv8tion.jda.api.utils.MemberCachePolicy;
+import net.dv8tion.jda.api.utils.cache.CacheFlag;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * The ComponentHandler class is the base class for all handlers of buttons, select menus and modals.
+ * A handler creates the custom ids of its components with {@link #createCustomId(Consumer)}, which carry the state
+ * the handler needs, and is called with that state when a user uses one of the components.
+ * It only has to override the execute methods of the component types it creates, the {@link ComponentManager} routes
+ * no other types to it.
+ */
+public abstract class ComponentHandler implements Cooldown.Holder, GatewayProfile.Holder {
+
+    private final String name;
+    private final int key;
+    private final String cooldownName;
+    private final Set<Type> types;
+    private Cooldown cooldown;
+    private CommandExecutor.Mode executionMode = CommandExecutor.Mode.DEFAULT;
+    private Bulkhead bulkhead;
+    private final Set<GatewayIntent> requiredIntents = EnumSet.noneOf(GatewayIntent.class);
+    private final Set<CacheFlag> requiredCacheFlags = EnumSet.noneOf(CacheFlag.class);
+    private MemberCachePolicy memberCachePolicy;
+
+    /**
+     * This method is called when a button of the handler is clicked.
+     * Only called if the handler overrides it.
+     * @param event The ButtonInteractionEvent
+     * @param state The state stored in the custom id of the button
+     */
+    public void execute(ButtonInteractionEvent event, ComponentState.Reader state) {
+        throw new UnsupportedOperationException("This handler does not support buttons");
+    }
+
+    /**
+     * This method is called when an option of a string select menu of the handler is selected.
+     * Only called if the handler overrides it.
+     * @param event The StringSelectInteractionEvent
+     * @param state The state stored in the custom id of the select menu
+     */
+    public void execute(StringSelectInteractionEvent event, ComponentState.Reader state) {
+        throw new UnsupportedOperationException("This handler does not support string select menus");
+    }
+
+    /**
+     * This method is called when an entity of an entity select menu of the handler is selected.
+     * Only called if the handler overrides it.
+     * @param event The EntitySelectInteractionEvent
+     * @param state The state stored in the custom id of the select menu
+     */
+    public void execute(EntitySelectInteractionEvent event, ComponentState.Reader state) {
+        throw new UnsupportedOperationException("This handler does not support entity select menus");
+    }
+
+    /**
+     * This method is called when a modal of the handler is submitted.
+     * Only called if the handler overrides it.
+     * @param event The ModalInteractionEvent
+     * @param state The state stored in the custom id of the modal
+     */
+    public void execute(ModalInteractionEvent event, ComponentState.Reader state) {
+        throw new UnsupportedOperationException("This handler does not support modals");
+    }
+
+    /**
+     * This constructor is used to create a new ComponentHandler.
+     * @param name The unique name of the handler, changing it invalidates the components already sent
+     */
+    public ComponentHandler(String name) {
+        this.name = name;
+        this.key = ComponentState.key(name);
+        this.cooldownName = "component:" + name;
+        this.types = Type.overriddenBy(getClass());
+    }
+
+    /**
+     * Get the name of the handler
+     * @return The name of the handler
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the key of the handler, which is derived from its name and identifies the handler in custom ids
+     * @return The 24 bit key of the handler
+     */
+    int getKey() {
+        return key;
+    }
+
+    /**
+     * Get the component types the handler overrides the execute method of
+     * @return The types routed to the handler
+     */
+    Set<Type> getTypes() {
+        return types;
+    }
+
+    /**
+     * Creates the custom id of a component without state.
+     * @return The custom id routing to this handler
+     */
+    public String createCustomId() {
+        return ComponentState.encode(key, new ComponentState.Writer());
+    }
+
+    /**
+     * Creates the custom id of a component with state, for example the page of a paginator.
+     * @param state Writes the state, which is read back in the same order by the execute methods
+     * @return The custom id routing to this handler
+     * @throws IllegalStateException If the state is longer than {@link ComponentState#MAX_STATE_BYTES}
+     */
+    public String createCustomId(Consumer<ComponentState.Writer> state) {
+        ComponentState.Writer writer = new ComponentState.Writer();
+        state.accept(writer);
+        return ComponentState.encode(key, writer);
+    }
+
+    /**
+     * Set the cooldown
+     * @param cooldown The cooldown
+     */
+    public void setCooldown(Cooldown cooldown) {
+        this.cooldown = cooldown;
+    }
+
+    /**
+     * Get the cooldown
+     * @return The cooldown
+     */
+    @Override
+    public Cooldown getCooldown() {
+        return cooldown;
+    }
+
+    /**
+     * Returns the name the cooldowns of the handler are stored under.
+     * @return The name of the handler, prefixed so it does not share cooldowns with a command of the same name
+     */
+    @Override
+    public String getCooldownName() {
+        return cooldownName;
+    }
+
+    /**
+     * Check if the handler has a cooldown
+     * @return True if the handler has a cooldown
+     */
+    public boolean hasCooldown() {
+        return cooldown != null;
+    }
+
+    /**
+     * Sets how the handler is executed, for example on a virtual thread if it blocks.
+     * @param executionMode The {@link CommandExecutor.Mode} of the handler
+     */
+    public void setExecutionMode(CommandExecutor.Mode executionMode) {
+        this.executionMode = executionMode;
+    }
+
+    /**
+     * Returns how the handler is executed.
+     * @return The {@link CommandExecutor.Mode} of the handler, {@link CommandExecutor.Mode#DEFAULT} if not set
+     */
+    public CommandExecutor.Mode getExecutionMode() {
+        return executionMode;
+    }
+
+    /**
+     * Sets the bulkhead of the handler, which limits its concurrent executions and queued executions.
+     * A handler with a bulkhead is always executed on a virtual thread.
+     * @param bulkhead The {@link Bulkhead} of the handler
+     */
+    public void setBulkhead(Bulkhead bulkhead) {
+        this.bulkhead = bulkhead;
+    }
+
+    /**
+     * Returns the bulkhead of the handler, which also holds its queue depth and rejection count.
+     * @return The {@link Bulkhead} of the handler, or null if it has none
+     */
+    public Bulkhead getBulkhead() {
+        return bulkhead;
+    }
+
+    /**
+     * Returns whether the handler has a bulkhead.
+     * @return True if the handler has a bulkhead, false otherwise
+     */
+    public boolean hasBulkhead() {
+        return bulkhead != null;
+    }
+
+    /**
+     * Declares gateway intents the handler needs, e.g. {@link GatewayIntent#GUILD_MEMBERS} to look up other members.
+     * They are enabled on startup unless the lean gateway profile is used, see {@link GatewayProfile}.
+     * @param intents The gateway intents the handler needs
+     */
+    public void requireIntents(GatewayIntent... intents) {
+        this.requiredIntents.addAll(Set.of(intents));
+    }
+
+    /**
+     * Returns the gateway intents the handler needs.
+     * @return The gateway intents of the handler
+     */
+    @Override
+    public Set<GatewayIntent> getRequiredIntents() {
+        return requiredIntents;
+    }
+
+    /**
+     * Declares cache flags the handler needs. The intents of the cache flags are enabled as well.
+     * @param cacheFlags The cache flags the handler needs
+     */
+    public void requireCacheFlags(CacheFlag... cacheFlags) {
+        this.requiredCacheFlags.addAll(Set.of(cacheFlags));
+    }
+
+    /**
+     * Returns the cache flags the handler needs.
+     * @return The cache flags of the handler
+     */
+    @Override
+    public Set<CacheFlag> getRequiredCacheFlags() {
+        return requiredCacheFlags;
+    }
+
+    /**
+     * Sets which members the handler needs cached. The policies of all features are combined.
+     * @param memberCachePolicy The {@link MemberCachePolicy} of the handler
+     */
+    public void setMemberCachePolicy(MemberCachePolicy memberCachePolicy) {
+        this.memberCachePolicy = memberCachePolicy;
+    }
+
+    /**
+     * Returns which members the handler needs cached.
+     * @return The {@link MemberCachePolicy} of the handler, or null if it needs no members cached
+     */
+    @Override
+    public MemberCachePolicy getMemberCachePolicy() {
+        return memberCachePolicy;
+    }
+
+    /**
+     * The component types a handler can execute, each with the event of its execute method.
+     */
+    enum Type {
+        BUTTON(ButtonInteractionEvent.class),
+        STRING_SELECT(StringSelectInteractionEvent.class),
+        ENTITY_SELECT(EntitySelectInteractionEvent.class),
+        MODAL(ModalInteractionEvent.class);
+
+        private final Class<?> eventType;
+
+        Type(Class<?> eventType) {
+            this.eventType = eventType;
+        }
+
+        /**
+         * @param handlerType The class of the handler
+         * @return The types whose execute method the class or one of its superclasses overrides
+         */
+        private static Set<Type> overriddenBy(Class<?> handlerType) {
+            Set<Type> types = EnumSet.noneOf(Type.class);
+            for (Type type : values()) {
+                try {
+                    if (handlerType.getMethod("execute", type.eventType, ComponentState.Reader.class).getDeclaringClass() != ComponentHandler.class) {
+                        types.add(type);
+                    }
+                } catch (NoSuchMethodException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            return Set.copyOf(types);
+        }
+    }
+}
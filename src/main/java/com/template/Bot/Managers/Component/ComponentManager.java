@@ -0,0 +1,182 @@
+package com.template.Bot.Managers.Component;
+
+import com.template.Bot.Managers.CommandExecutor;
+import com.template.Bot.Managers.CommandRegistry;
+import com.template.Bot.Managers.InteractionWatchdog;
+import com.template.Bot.Managers.Metrics.DispatchMetrics;
+import com.template.Language.LanguageUtils;
+import net.dv8tion.jda.api.events.interaction.ModalInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.component.EntitySelectInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.component.StringSelectInteractionEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import net.dv8tion.jda.api.interactions.callbacks.IReplyCallback;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.BiFunction;
+
+/**
+ * The ComponentManager class routes buttons, select menus and modals to their {@link ComponentHandler}.
+ * The handler is identified by the key encoded in the custom id of the component, see {@link ComponentState},
+ * so routing needs neither string matching nor state kept on the bot.
+ * Components with custom ids that were not created by a handler are left to other listeners.
+ * Handlers get a watched event, see {@link InteractionWatchdog}, which acknowledges a slow handler with {@code deferEdit()}.
+ */
+public class ComponentManager extends ListenerAdapter {
+
+    private final Logger logger = LoggerFactory.getLogger(ComponentManager.class);
+
+    private final List<ComponentHandler> handlers = new ArrayList<>();
+
+    // Immutable routing table from handler key to handler, replaced as a whole on registration and read without locks
+    private volatile Routes routes = new Routes(new int[0], new ComponentHandler[0]);
+
+    /**
+     * Constructor for ComponentManager.
+     * Automatically registers all handlers that extend the ComponentHandler class, as listed in the {@link CommandRegistry}
+     * generated at compile time.
+     */
+    public ComponentManager() {
+        for (ComponentHandler handler : CommandRegistry.createComponents()) {
+            registerHandler(handler);
+
+            logger.info("Automatically registered component handler: {}", handler.getName());
+        }
+    }
+
+    /**
+     * Registers a new component handler.
+     * Handlers whose name has the same key as an already registered handler are rejected and have to be renamed.
+     * Handlers that do not override any execute method are rejected as well.
+     *
+     * @param handler The component handler to register.
+     */
+    public synchronized void registerHandler(ComponentHandler handler) {
+        if (handler.getTypes().isEmpty()) {
+            logger.error("Component handler {} does not override any execute method, ignoring it", handler.getName());
+            return;
+        }
+        Routes current = routes;
+        int index = Arrays.binarySearch(current.keys(), handler.getKey());
+        if (index >= 0) {
+            logger.error("Component handler {} has the same key as {}, ignoring it", handler.getName(), current.handlers()[index].getName());
+            return;
+        }
+        handlers.add(handler);
+
+        int position = -index - 1;
+        int[] keys = new int[current.keys().length + 1];
+        ComponentHandler[] routedHandlers = new ComponentHandler[keys.length];
+        System.arraycopy(current.keys(), 0, keys, 0, position);
+        System.arraycopy(current.handlers(), 0, routedHandlers, 0, position);
+        keys[position] = handler.getKey();
+        routedHandlers[position] = handler;
+        System.arraycopy(current.keys(), position, keys, position + 1, current.keys().length - position);
+        System.arraycopy(current.handlers(), position, routedHandlers, position + 1, current.handlers().length - position);
+        routes = new Routes(keys, routedHandlers);
+    }
+
+    /**
+     * Retrieves the list of registered component handlers.
+     *
+     * @return The list of registered component handlers.
+     */
+    public List<ComponentHandler> getHandlers() {
+        return handlers;
+    }
+
+    @Override
+    public void onButtonInteraction(@NotNull ButtonInteractionEvent event) {
+        dispatch(event, event.getComponentId(), ComponentHandler.Type.BUTTON, InteractionWatchdog::watch, ComponentHandler::execute);
+    }
+
+    @Override
+    public void onStringSelectInteraction(@NotNull StringSelectInteractionEvent event) {
+        dispatch(event, event.getComponentId(), ComponentHandler.Type.STRING_SELECT, InteractionWatchdog::watch, ComponentHandler::execute);
+    }
+
+    @Override
+    public void onEntitySelectInteraction(@NotNull EntitySelectInteractionEvent event) {
+        dispatch(event, event.getComponentId(), ComponentHandler.Type.ENTITY_SELECT, InteractionWatchdog::watch, ComponentHandler::execute);
+    }
+
+    @Override
+    public void onModalInteraction(@NotNull ModalInteractionEvent event) {
+        dispatch(event, event.getModalId(), ComponentHandler.Type.MODAL, InteractionWatchdog::watch, ComponentHandler::execute);
+    }
+
+    private <T extends IReplyCallback> void dispatch(T event, String customId, ComponentHandler.Type type,
+                                                     BiFunction<T, String, T> watch, Execution<T> execution) {
+        long dispatchedAt = System.nanoTime();
+        ComponentHandler handler = routes.lookup(ComponentState.decodeKey(customId));
+        // A handler does not get the component types it has no execute method for, e.g. a custom id reused on a modal
+        if (handler == null || !handler.getTypes().contains(type)) {
+            DispatchMetrics.record(DispatchMetrics.Kind.COMPONENT, DispatchMetrics.UNKNOWN, event, DispatchMetrics.Outcome.NOT_FOUND, dispatchedAt);
+            return;
+        }
+        ComponentState.Reader state;
+        try {
+            state = ComponentState.decodeState(customId);
+        } catch (IllegalArgumentException e) {
+            // Usually a component sent by an older version of the handler, the user has to open it again
+            logger.debug("Malformed custom id {} of component handler {}", customId, handler.getName());
+            String message = LanguageUtils.getLanguageString("languages.bot.global", "component.outdated.response", event.getUserLocale().toLocale());
+            event.reply(message).setEphemeral(true).queue();
+            DispatchMetrics.record(DispatchMetrics.Kind.COMPONENT, handler.getName(), event, DispatchMetrics.Outcome.NOT_FOUND, dispatchedAt);
+            return;
+        }
+        if (isOnCooldown(event, handler, dispatchedAt)) {
+            return;
+        }
+        T watchedEvent = watch.apply(event, handler.getName());
+        CommandExecutor.execute(watchedEvent, DispatchMetrics.Kind.COMPONENT, handler.getName(), dispatchedAt,
+                handler.getExecutionMode(), handler.getBulkhead(), () -> execution.execute(handler, watchedEvent, state));
+    }
+
+    /**
+     * Checks the cooldown of the handler and replies with the cooldown message if the user has to wait.
+     * @return True if the handler is on cooldown and must not be executed
+     */
+    private boolean isOnCooldown(IReplyCallback event, ComponentHandler handler, long dispatchedAt) {
+        if (!handler.hasCooldown() || !handler.getCooldown().isOnCooldown(event, handler)) {
+            return false;
+        }
+        Locale userLocale = event.getUserLocale().toLocale();
+        String message = LanguageUtils.getLanguageString("languages.bot.global", "component.cooldown.response", userLocale);
+
+        String timeRelative = handler.getCooldown().getEndTimeRelative(event, handler);
+
+        event.reply(String.format(message, timeRelative)).setEphemeral(true).queue();
+        DispatchMetrics.record(DispatchMetrics.Kind.COMPONENT, handler.getName(), event, DispatchMetrics.Outcome.COOLDOWN, dispatchedAt);
+        return true;
+    }
+
+    /**
+     * Calls the execute method of a handler for the event type.
+     */
+    @FunctionalInterface
+    private interface Execution<T> {
+
+        void execute(ComponentHandler handler, T event, ComponentState.Reader state);
+    }
+
+    /**
+     * The routing table, the handlers sorted by key.
+     */
+    private record Routes(int[] keys, ComponentHandler[] handlers) {
+
+        private ComponentHandler lookup(int key) {
+            if (key < 0) {
+                return null;
+            }
+            int index = Arrays.binarySearch(keys, key);
+            return index >= 0 ? handlers[index] : null;
+        }
+    }
+}
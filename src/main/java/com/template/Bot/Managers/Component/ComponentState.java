@@ -0,0 +1,288 @@
+package com.template.Bot.Managers.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * ComponentState
+ * <p>
+ *     Encodes the handler of a component and a small state into its custom id, so a click can be routed and handled
+ *     without keeping any session on the bot. A custom id is a {@code $} followed by the URL-safe Base64 of three
+ *     bytes identifying the {@link ComponentHandler} and the bytes of the state. Discord allows 100 characters,
+ *     which leaves {@link #MAX_STATE_BYTES} bytes for the state.
+ * </p>
+ * <p>
+ *     Numbers are written as variable length integers, so small values such as page numbers take a single byte.
+ *     The state is read back in the order it was written.
+ * </p>
+ */
+public final class ComponentState {
+
+    /**
+     * The maximum number of bytes of state that fit into a custom id
+     */
+    public static final int MAX_STATE_BYTES = 71;
+
+    static final char PREFIX = '$';
+    static final int KEY_BYTES = 3;
+    private static final int KEY_CHARS = 4;
+    private static final int MAX_CUSTOM_ID_LENGTH = 100;
+
+    private static final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+    private static final byte[] alphabet = new byte[128];
+
+    static {
+        Arrays.fill(alphabet, (byte) -1);
+        String characters = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < characters.length(); i++) {
+            alphabet[characters.charAt(i)] = (byte) i;
+        }
+    }
+
+    private ComponentState() {
+    }
+
+    /**
+     * Creates the custom id of a handler key and a state.
+     */
+    static String encode(int key, Writer state) {
+        byte[] bytes = new byte[KEY_BYTES + state.length];
+        bytes[0] = (byte) (key >>> 16);
+        bytes[1] = (byte) (key >>> 8);
+        bytes[2] = (byte) key;
+        System.arraycopy(state.buffer, 0, bytes, KEY_BYTES, state.length);
+        String customId = PREFIX + encoder.encodeToString(bytes);
+        if (customId.length() > MAX_CUSTOM_ID_LENGTH) {
+            throw new IllegalStateException("The custom id is longer than " + MAX_CUSTOM_ID_LENGTH + " characters");
+        }
+        return customId;
+    }
+
+    /**
+     * Reads the handler key of a custom id without allocating, so ids of other listeners are skipped cheaply.
+     *
+     * @return The 24 bit key of the handler, or -1 if the custom id was not created by {@link #encode(int, Writer)}
+     */
+    static int decodeKey(String customId) {
+        if (customId.length() < 1 + KEY_CHARS || customId.charAt(0) != PREFIX) {
+            return -1;
+        }
+        int key = 0;
+        for (int i = 1; i <= KEY_CHARS; i++) {
+            char character = customId.charAt(i);
+            int value = character < alphabet.length ? alphabet[character] : -1;
+            if (value < 0) {
+                return -1;
+            }
+            key = (key << 6) | value;
+        }
+        return key;
+    }
+
+    /**
+     * Reads the state of a custom id whose key was decoded by {@link #decodeKey(String)}.
+     *
+     * @throws IllegalArgumentException If the custom id is not valid Base64
+     */
+    static Reader decodeState(String customId) {
+        byte[] bytes = Base64.getUrlDecoder().decode(customId.substring(1));
+        return new Reader(bytes, KEY_BYTES);
+    }
+
+    /**
+     * Derives the key of a handler from its name, so custom ids stay valid across restarts and processes.
+     */
+    static int key(String name) {
+        // FNV-1a, folded to 24 bits
+        int hash = 0x811c9dc5;
+        for (byte b : name.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x01000193;
+        }
+        return (hash >>> 24 ^ hash) & 0xffffff;
+    }
+
+    /**
+     * Writes the state of a custom id, see {@link ComponentHandler#createCustomId(java.util.function.Consumer)}.
+     */
+    public static final class Writer {
+
+        private final byte[] buffer = new byte[MAX_STATE_BYTES];
+        private int length;
+
+        Writer() {
+        }
+
+        /**
+         * @param value A number, small positive and negative numbers take the least space
+         * @return This Writer
+         */
+        public Writer writeLong(long value) {
+            long zigZag = (value << 1) ^ (value >> 63);
+            while ((zigZag & ~0x7fL) != 0) {
+                put((byte) ((zigZag & 0x7f) | 0x80));
+                zigZag >>>= 7;
+            }
+            put((byte) zigZag);
+            return this;
+        }
+
+        /**
+         * @param value A number, small positive and negative numbers take the least space
+         * @return This Writer
+         */
+        public Writer writeInt(int value) {
+            return writeLong(value);
+        }
+
+        /**
+         * @param value A flag
+         * @return This Writer
+         */
+        public Writer writeBoolean(boolean value) {
+            put((byte) (value ? 1 : 0));
+            return this;
+        }
+
+        /**
+         * Writes an id such as a user or message id, which always takes 8 bytes.
+         * @param id The snowflake id
+         * @return This Writer
+         */
+        public Writer writeSnowflake(long id) {
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                put((byte) (id >>> shift));
+            }
+            return this;
+        }
+
+        /**
+         * @param value A short text, its UTF-8 bytes count towards the limit
+         * @return This Writer
+         */
+        public Writer writeString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeInt(bytes.length);
+            for (byte b : bytes) {
+                put(b);
+            }
+            return this;
+        }
+
+        /**
+         * @param value A constant, stored by its ordinal
+         * @return This Writer
+         */
+        public Writer writeEnum(Enum<?> value) {
+            return writeInt(value.ordinal());
+        }
+
+        private void put(byte value) {
+            if (length == buffer.length) {
+                throw new IllegalStateException("The state of a component can not be longer than " + MAX_STATE_BYTES + " bytes");
+            }
+            buffer[length++] = value;
+        }
+    }
+
+    /**
+     * Reads the state of a custom id in the order it was written.
+     * A state that does not match what is read, for example of an older version of the bot, throws an
+     * {@link IllegalArgumentException}.
+     */
+    public static final class Reader {
+
+        private final byte[] bytes;
+        private int position;
+
+        private Reader(byte[] bytes, int position) {
+            this.bytes = bytes;
+            this.position = position;
+        }
+
+        /**
+         * @return The next number
+         */
+        public long readLong() {
+            long zigZag = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = next();
+                zigZag |= (long) (b & 0x7f) << shift;
+                if (b >= 0) {
+                    return (zigZag >>> 1) ^ -(zigZag & 1);
+                }
+            }
+            throw new IllegalArgumentException("Malformed number in component state");
+        }
+
+        /**
+         * @return The next number
+         */
+        public int readInt() {
+            long value = readLong();
+            if (value != (int) value) {
+                throw new IllegalArgumentException("Number in component state is out of range");
+            }
+            return (int) value;
+        }
+
+        /**
+         * @return The next flag
+         */
+        public boolean readBoolean() {
+            return next() != 0;
+        }
+
+        /**
+         * @return The next snowflake id
+         */
+        public long readSnowflake() {
+            long id = 0;
+            for (int i = 0; i < 8; i++) {
+                id = (id << 8) | (next() & 0xff);
+            }
+            return id;
+        }
+
+        /**
+         * @return The next text
+         */
+        public String readString() {
+            int length = readInt();
+            if (length < 0 || length > bytes.length - position) {
+                throw new IllegalArgumentException("Malformed text in component state");
+            }
+            String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        /**
+         * @param type The class of the constant
+         * @return The next constant
+         */
+        public <E extends Enum<E>> E readEnum(Class<E> type) {
+            E[] constants = type.getEnumConstants();
+            int ordinal = readInt();
+            if (ordinal < 0 || ordinal >= constants.length) {
+                throw new IllegalArgumentException("Unknown " + type.getSimpleName() + " in component state");
+            }
+            return constants[ordinal];
+        }
+
+        /**
+         * @return Whether there is state left to read
+         */
+        public boolean hasRemaining() {
+            return position < bytes.length;
+        }
+
+        private byte next() {
+            if (position >= bytes.length) {
+                throw new IllegalArgumentException("Component state ended unexpectedly");
+            }
+            return bytes[position++];
+        }
+    }
+}
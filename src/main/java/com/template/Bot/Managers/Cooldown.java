@@ -2,23 +2,87 @@ package com.template.Bot.Managers;
 
 import com.template.Bot.Managers.Command.SlashCommand;
 import com.template.Bot.Managers.Interaction.ContextInteraction;
-import net.dv8tion.jda.api.events.interaction.command.MessageContextInteractionEvent;
-import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
-import net.dv8tion.jda.api.events.interaction.command.UserContextInteractionEvent;
+import com.template.Database.MySQL;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.interactions.Interaction;
 import net.dv8tion.jda.api.utils.TimeFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.util.Date;
-import java.util.HashMap;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Cooldown class
  *
- * @param time     The length of the cooldown
+ * @param time     The length of the cooldown, the refill interval of one token or the length of the window, depending on the {@link Mode}
  * @param timeType The time type of the cooldown (seconds, minutes, hours, days)
- * @param scope    The scope of the cooldown (user, channel, guild)
+ * @param scope    The scope of the cooldown (user, channel, guild, user in guild, shard)
+ * @param mode     The {@link Mode} of the cooldown (fixed, token bucket, sliding window)
+ * @param limit    The capacity of the token bucket or the number of uses per window, ignored for {@link Mode#FIXED}
  */
-public record Cooldown(int time, Cooldown.Time timeType, Cooldown.Scope scope) {
+public record Cooldown(int time, Cooldown.Time timeType, Cooldown.Scope scope, Cooldown.Mode mode, int limit) {
+
+    /**
+     * A fixed cooldown without a length is no cooldown, a token bucket or sliding window needs a refill interval or
+     * window to divide by and at least one use.
+     *
+     * @throws IllegalArgumentException If a token bucket or sliding window has no length or a limit below 1
+     */
+    public Cooldown {
+        if (mode != Mode.FIXED) {
+            if (time <= 0 || Time.getTimeInMS(timeType) <= 0) {
+                throw new IllegalArgumentException("A " + mode + " cooldown needs a positive time, got " + time + " " + timeType);
+            }
+            if (limit < 1) {
+                throw new IllegalArgumentException("A " + mode + " cooldown needs a limit of at least 1, got " + limit);
+            }
+        }
+    }
+
+    /**
+     * Creates a fixed lockout cooldown.
+     *
+     * @param time     The length of the cooldown
+     * @param timeType The time type of the cooldown (seconds, minutes, hours, days)
+     * @param scope    The scope of the cooldown (user, channel, guild, user in guild, shard)
+     */
+    public Cooldown(int time, Cooldown.Time timeType, Cooldown.Scope scope) {
+        this(time, timeType, scope, Mode.FIXED, 1);
+    }
+
+    /**
+     * Creates a token bucket cooldown. The bucket starts full and refills one token per interval,
+     * so up to {@code capacity} uses can be made in a burst.
+     *
+     * @param capacity       The number of tokens the bucket holds
+     * @param refillTime     The interval in which one token is refilled
+     * @param refillTimeType The time type of the refill interval (seconds, minutes, hours, days)
+     * @param scope          The scope of the cooldown (user, channel, guild, user in guild, shard)
+     * @return The token bucket {@link Cooldown}
+     */
+    public static Cooldown tokenBucket(int capacity, int refillTime, Cooldown.Time refillTimeType, Cooldown.Scope scope) {
+        return new Cooldown(refillTime, refillTimeType, scope, Mode.TOKEN_BUCKET, capacity);
+    }
+
+    /**
+     * Creates a sliding window cooldown that allows {@code limit} uses within any window of the given length.
+     *
+     * @param limit          The number of uses allowed per window
+     * @param windowTime     The length of the window
+     * @param windowTimeType The time type of the window (seconds, minutes, hours, days)
+     * @param scope          The scope of the cooldown (user, channel, guild, user in guild, shard)
+     * @return The sliding window {@link Cooldown}
+     */
+    public static Cooldown slidingWindow(int limit, int windowTime, Cooldown.Time windowTimeType, Cooldown.Scope scope) {
+        return new Cooldown(windowTime, windowTimeType, scope, Mode.SLIDING_WINDOW, limit);
+    }
 
     /**
      * @return The length of the cooldown in milliseconds
@@ -42,158 +106,156 @@ public record Cooldown(int time, Cooldown.Time timeType, Cooldown.Scope scope) {
     }
 
     /**
-     * Checks if a specified target is currently on cooldown for a given {@link SlashCommand}.
-     * @param event The {@link SlashCommandInteractionEvent} for which the cooldown status is checked.
-     * @param command The {@link SlashCommand} for which the cooldown status is checked.
+     * Checks if a specified target is currently on cooldown for a given {@link SlashCommand} or {@link ContextInteraction}
+     * and starts a new cooldown if it is not.
+     * @param interaction The {@link Interaction} for which the cooldown status is checked.
+     * @param holder The {@link SlashCommand} or {@link ContextInteraction} for which the cooldown status is checked.
      * @return True if the target is on cooldown; false otherwise.
      */
-    public boolean isOnCooldown(SlashCommandInteractionEvent event, SlashCommand command) {
-        Scope scope = command.getCooldown().scope();
-        switch (scope) {
-            case USER -> {
-                return CooldownManager.isOnCooldown(event.getUser().getId(), command);
-            }
-            case CHANNEL -> {
-                return CooldownManager.isOnCooldown(event.getChannel().getId(), command);
-            }
-            case GUILD -> {
-                return CooldownManager.isOnCooldown(event.getGuild().getId(), command);
-            }
-            default -> {
-                return false;
-            }
-        }
+    public boolean isOnCooldown(Interaction interaction, Holder holder) {
+        return CooldownManager.isOnCooldown(getTargetId(interaction, scope), getScopeId(interaction, scope), holder.getCooldownName(), holder.getCooldown());
     }
 
     /**
-     * Checks if a specified target is currently on cooldown for a given {@link ContextInteraction}.
-     * @param event The {@link MessageContextInteractionEvent} for which the cooldown status is checked.
-     * @param interaction The {@link ContextInteraction} for which the cooldown status is checked.
-     * @return True if the target is on cooldown; false otherwise.
+     * Retrieves the end time of a cooldown for a specified target and {@link SlashCommand} or {@link ContextInteraction}.
+     * @param interaction The {@link Interaction} for which the cooldown is being checked.
+     * @param holder The {@link SlashCommand} or {@link ContextInteraction} for which the cooldown is being checked.
+     * @return The end time of the cooldown for the specified target and command, as a relative {@link TimeFormat}.
      */
-    public boolean isOnCooldown(MessageContextInteractionEvent event, ContextInteraction interaction) {
-        Scope scope = interaction.getCooldown().scope();
-        switch (scope) {
-            case USER -> {
-                return CooldownManager.isOnCooldown(event.getUser().getId(), interaction);
-            }
-            case CHANNEL -> {
-                return CooldownManager.isOnCooldown(event.getChannel().getId(), interaction);
-            }
-            case GUILD -> {
-                return CooldownManager.isOnCooldown(event.getGuild().getId(), interaction);
-            }
-            default -> {
-                return false;
-            }
+    public String getEndTimeRelative(Interaction interaction, Holder holder) {
+        if (scope == Scope.UNKNOWN) {
+            return null;
         }
+        long endTime = CooldownManager.getEndTime(getTargetId(interaction, scope), getScopeId(interaction, scope), holder.getCooldownName(), this);
+        return TimeFormat.RELATIVE.format(endTime);
     }
 
     /**
-     * Checks if a specified target is currently on cooldown for a given {@link ContextInteraction}.
-     * @param event The {@link UserContextInteractionEvent} for which the cooldown status is checked.
-     * @param interaction The {@link ContextInteraction} for which the cooldown status is checked.
-     * @return True if the target is on cooldown; false otherwise.
+     * @return The number of cooldown entries currently held in memory
      */
-    public boolean isOnCooldown(UserContextInteractionEvent event, ContextInteraction interaction) {
-        Scope scope = interaction.getCooldown().scope();
-        switch (scope) {
-            case USER -> {
-                return CooldownManager.isOnCooldown(event.getUser().getId(), interaction);
-            }
-            case CHANNEL -> {
-                return CooldownManager.isOnCooldown(event.getChannel().getId(), interaction);
-            }
-            case GUILD -> {
-                return CooldownManager.isOnCooldown(event.getGuild().getId(), interaction);
-            }
-            default -> {
-                return false;
-            }
-        }
+    public static int getLiveCooldownCount() {
+        return CooldownManager.store.size();
     }
 
     /**
-     * Retrieves the end time of a cooldown for a specified target, {@link SlashCommand}.
-     * @param event The {@link SlashCommandInteractionEvent} for which the cooldown is being checked.
-     * @param command The {@link SlashCommand} for which the cooldown is being checked.
-     * @return The end time of the cooldown for the specified target and command, as a relative {@link TimeFormat}.
+     * @return The number of expired cooldown entries that have been evicted since startup
      */
-    public String getEndTimeRelative(SlashCommandInteractionEvent event, SlashCommand command) {
-        Scope scope = command.getCooldown().scope();
-        switch (scope) {
-            case USER -> {
-                long endTime = CooldownManager.getEndTime(event.getUser().getId(), command.getDefaultCommandName(), scope);
-                return TimeFormat.RELATIVE.format(endTime);
-            }
-            case CHANNEL -> {
-                long endTime = CooldownManager.getEndTime(event.getChannel().getId(), command.getDefaultCommandName(), scope);
-                return TimeFormat.RELATIVE.format(endTime);
-            }
-            case GUILD -> {
-                long endTime = CooldownManager.getEndTime(event.getGuild().getId(), command.getDefaultCommandName(), scope);
-                return TimeFormat.RELATIVE.format(endTime);
-            }
-            default -> {
-                return null;
-            }
+    public static long getEvictedCooldownCount() {
+        return CooldownManager.store.evictedCount();
+    }
+
+    /**
+     * Restores the cooldowns persisted in the directory and keeps checkpointing them there until the JVM exits.
+     * Changes are appended to a memory-mapped log every few seconds by a background thread; interactions never
+     * wait on disk I/O. Only one backend can be enabled, calling this method again has no effect.
+     *
+     * @param directory The directory holding the cooldown snapshot and log
+     */
+    public static void enablePersistence(Path directory) {
+        try {
+            CooldownManager.enableBackend(new FileCooldownBackend(directory, CooldownManager.store, CooldownManager.slots));
+        } catch (IOException e) {
+            CooldownManager.logger.error("Could not open the cooldown directory {}, continuing without persistence", directory, e);
         }
     }
 
     /**
-     * Retrieves the end time of a cooldown for a specified target, {@link ContextInteraction}.
-     * @param event The {@link MessageContextInteractionEvent} for which the cooldown is being checked.
-     * @param interaction The {@link ContextInteraction} for which the cooldown is being checked.
-     * @return The end time of the cooldown for the specified target and command, as a relative {@link TimeFormat}.
+     * Shares the cooldowns with every other bot process connected to the same database, see {@link JdbcCooldownBackend}.
+     * The backend opens its own connection with the settings of database.properties.
+     * Only one backend can be enabled, calling this method again has no effect.
      */
+    public static void enableDatabaseBackend() {
+        CooldownManager.enableBackend(new JdbcCooldownBackend(() -> MySQL.createConnection("rewriteBatchedStatements=true"), CooldownManager.store));
+    }
 
-    public String getEndTimeRelative(MessageContextInteractionEvent event, ContextInteraction interaction) {
-        Scope scope = interaction.getCooldown().scope();
-        switch (scope) {
-            case USER -> {
-                long endTime = CooldownManager.getEndTime(event.getUser().getId(), interaction.getDefaultInteractionName(), scope);
-                return TimeFormat.RELATIVE.format(endTime);
-            }
-            case CHANNEL -> {
-                long endTime = CooldownManager.getEndTime(event.getChannel().getId(), interaction.getDefaultInteractionName(), scope);
-                return TimeFormat.RELATIVE.format(endTime);
-            }
-            case GUILD -> {
-                long endTime = CooldownManager.getEndTime(event.getGuild().getId(), interaction.getDefaultInteractionName(), scope);
-                return TimeFormat.RELATIVE.format(endTime);
-            }
-            default -> {
-                return null;
-            }
-        }
+    /**
+     * @param operationName The name of a {@link SlashCommand} or {@link ContextInteraction}
+     * @return The slot of the operation in the {@link CooldownStore}
+     */
+    static int slotOf(String operationName) {
+        return CooldownManager.slotOf(operationName);
     }
 
     /**
-     * Retrieves the end time of a cooldown for a specified target, {@link ContextInteraction}.
-     * @param event The {@link UserContextInteractionEvent} for which the cooldown is being checked.
-     * @param interaction The {@link ContextInteraction} for which the cooldown is being checked.
-     * @return The end time of the cooldown for the specified target and command, as a relative {@link TimeFormat}.
+     * Maps the name of an operation to its slot and remembers the {@link Cooldown} it is checked with, as
+     * {@link CooldownManager} does on every check.
+     *
+     * @param operationName The name of a {@link SlashCommand} or {@link ContextInteraction}
+     * @param cooldown      The {@link Cooldown} of the operation
+     * @return The slot of the operation in the {@link CooldownStore}
      */
+    static int slotOf(String operationName, Cooldown cooldown) {
+        return CooldownManager.slotOf(operationName, cooldown);
+    }
 
-    public String getEndTimeRelative(UserContextInteractionEvent event, ContextInteraction interaction) {
-        Scope scope = interaction.getCooldown().scope();
-        switch (scope) {
-            case USER -> {
-                long endTime = CooldownManager.getEndTime(event.getUser().getId(), interaction.getDefaultInteractionName(), scope);
-                return TimeFormat.RELATIVE.format(endTime);
-            }
-            case CHANNEL -> {
-                long endTime = CooldownManager.getEndTime(event.getChannel().getId(), interaction.getDefaultInteractionName(), scope);
-                return TimeFormat.RELATIVE.format(endTime);
-            }
-            case GUILD -> {
-                long endTime = CooldownManager.getEndTime(event.getGuild().getId(), interaction.getDefaultInteractionName(), scope);
-                return TimeFormat.RELATIVE.format(endTime);
-            }
-            default -> {
-                return null;
-            }
-        }
+    /**
+     * @param slot The slot of an operation in the {@link CooldownStore}
+     * @return The name of the operation, or null if the slot has not been assigned
+     */
+    static String nameOf(int slot) {
+        String[] names = CooldownManager.names;
+        return slot < names.length ? names[slot] : null;
+    }
+
+    /**
+     * @param slot The slot of an operation in the {@link CooldownStore}
+     * @return The {@link Cooldown} the operation was checked with, or null if it has not been checked in this process
+     */
+    static Cooldown cooldownOf(int slot) {
+        Cooldown[] cooldowns = CooldownManager.cooldowns;
+        return slot < cooldowns.length ? cooldowns[slot] : null;
+    }
+
+    /**
+     * Resolves the snowflake the cooldown is tracked against.
+     * Interactions outside a guild fall back to the channel for the {@link Scope#GUILD} scope.
+     * @param interaction The {@link Interaction} that triggered the cooldown check
+     * @param scope The {@link Scope} of the cooldown
+     * @return The snowflake of the target, the shard id for {@link Scope#SHARD}, or 0 if the scope is unknown
+     */
+    private static long getTargetId(Interaction interaction, Scope scope) {
+        return switch (scope) {
+            case USER, USER_IN_GUILD -> interaction.getUser().getIdLong();
+            case CHANNEL -> interaction.getChannelIdLong();
+            case GUILD -> getGuildOrChannelId(interaction);
+            case SHARD -> interaction.getJDA().getShardInfo().getShardId();
+            default -> 0;
+        };
+    }
+
+    /**
+     * Resolves the second half of the key for composite scopes, so both halves stay primitive.
+     * @param interaction The {@link Interaction} that triggered the cooldown check
+     * @param scope The {@link Scope} of the cooldown
+     * @return The guild (or channel outside a guild) for {@link Scope#USER_IN_GUILD}, otherwise 0
+     */
+    private static long getScopeId(Interaction interaction, Scope scope) {
+        return scope == Scope.USER_IN_GUILD ? getGuildOrChannelId(interaction) : 0;
+    }
+
+    private static long getGuildOrChannelId(Interaction interaction) {
+        Guild guild = interaction.getGuild();
+        return guild != null ? guild.getIdLong() : interaction.getChannelIdLong();
+    }
+
+    /**
+     * Cooldown Holder
+     * <p>
+     *     Implemented by everything that can carry a {@link Cooldown}, so commands and interactions share one
+     *     code path for the cooldown check.
+     * </p>
+     */
+    public interface Holder {
+
+        /**
+         * @return The {@link Cooldown} of the holder, or null if it has none
+         */
+        Cooldown getCooldown();
+
+        /**
+         * @return The name the cooldowns of the holder are stored under
+         */
+        String getCooldownName();
     }
 
     /**
@@ -202,6 +264,8 @@ public record Cooldown(int time, Cooldown.Time timeType, Cooldown.Scope scope) {
      *     USER: The cooldown is only for the user
      *     CHANNEL: The cooldown is only for the channel
      *     GUILD: The cooldown is only for the guild
+     *     USER_IN_GUILD: The cooldown is for the user, separately in every guild
+     *     SHARD: The cooldown is shared by everyone on the shard
      *     UNKNOWN: Unknown scope
      *    </p>
      */
@@ -210,6 +274,8 @@ public record Cooldown(int time, Cooldown.Time timeType, Cooldown.Scope scope) {
         USER,
         CHANNEL,
         GUILD,
+        USER_IN_GUILD,
+        SHARD,
         UNKNOWN;
 
         public static Scope getScope(String scope) {
@@ -217,11 +283,36 @@ public record Cooldown(int time, Cooldown.Time timeType, Cooldown.Scope scope) {
                 case "user" -> USER;
                 case "guild" -> GUILD;
                 case "channel" -> CHANNEL;
+                case "user_in_guild", "member" -> USER_IN_GUILD;
+                case "shard" -> SHARD;
                 default -> UNKNOWN;
             };
         }
     }
 
+    /**
+     * Cooldown Mode
+     * <p>
+     *     FIXED: Every use locks the target out for the length of the cooldown
+     *     TOKEN_BUCKET: Every use takes a token, one token is refilled per interval up to the capacity
+     *     SLIDING_WINDOW: A limited number of uses is allowed within any window of the length of the cooldown
+     *    </p>
+     */
+    public enum Mode {
+
+        FIXED,
+        TOKEN_BUCKET,
+        SLIDING_WINDOW;
+
+        public static Mode getMode(String mode) {
+            return switch (mode.toLowerCase()) {
+                case "token_bucket", "tokenbucket" -> TOKEN_BUCKET;
+                case "sliding_window", "slidingwindow" -> SLIDING_WINDOW;
+                default -> FIXED;
+            };
+        }
+    }
+
     /**
      * Cooldown Time
      * <p>
@@ -264,212 +355,173 @@ public record Cooldown(int time, Cooldown.Time timeType, Cooldown.Scope scope) {
     /**
      * Cooldown Manager
      * <p>
-     *     This class manages the cooldowns
+     *     This class manages the cooldowns.
+     *     Every operation name is mapped to an integer slot once, after that all cooldowns are kept in a
+     *     {@link CooldownStore} keyed by the raw snowflake of the target, the snowflake of a composite scope and that slot.
+     *     A single daemon thread advances the timing wheel of the store once per tick to evict expired entries.
      *   </p>
      */
     private static class CooldownManager {
 
-        private static final Map<String, Map<String, Long>> globalUserCooldowns = new HashMap<>();
-        private static final Map<String, Map<String, Long>> globalChannelCooldowns = new HashMap<>();
-        private static final Map<String, Map<String, Long>> globalServerCooldowns = new HashMap<>();
+        private static final Logger logger = LoggerFactory.getLogger(CooldownManager.class);
+        private static final CooldownStore store = new CooldownStore();
+        private static final Map<String, Integer> slots = new ConcurrentHashMap<>();
+        private static volatile String[] names = new String[1];
+        private static volatile Cooldown[] cooldowns = new Cooldown[1];
+        private static final ScheduledExecutorService expiryExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Cooldown-Expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        private static CooldownBackend backend;
+
+        static {
+            expiryExecutor.scheduleAtFixedRate(() -> {
+                try {
+                    store.expire(CooldownStore.currentTimeMillis());
+                } catch (RuntimeException e) {
+                    logger.error("Failed to evict expired cooldowns", e);
+                }
+            }, CooldownStore.TICK_MS, CooldownStore.TICK_MS, TimeUnit.MILLISECONDS);
+        }
 
         /**
-         * Checks if a specified target is currently on cooldown for a given {@link SlashCommand}.
+         * Checks if a specified target is currently on cooldown for a given operation and starts a new cooldown if it is not.
          *
-         * @param targetId The unique identifier of the target (e.g., user ID, channel ID, guild ID).
-         * @param command  The {@link SlashCommand} for which the cooldown status is checked.
+         * @param targetId      The snowflake of the target (e.g., user ID, channel ID, guild ID).
+         * @param scopeId       The snowflake narrowing a composite scope (e.g., the guild ID for {@link Scope#USER_IN_GUILD}), otherwise 0.
+         * @param operationName The name of the {@link SlashCommand} or {@link ContextInteraction} for which the cooldown status is checked.
+         * @param cooldown      The {@link Cooldown} of the operation.
          * @return True if the target is on cooldown; false otherwise.
          *
-         * <p>This method determines whether a specified target is currently on cooldown for the given
-         * SlashCommand. If the SlashCommand has no cooldown set (null), the target is considered not
-         * on cooldown. Otherwise, the method checks the cooldown scope, retrieves the corresponding
-         * cooldown map (targetMap), and determines if the target is on cooldown based on the cooldown
-         * end time.</p>
-         *
-         * <p>If the target is not on cooldown, a new cooldown is set with the specified duration.</p>
+         * <p>The check and the start of the new cooldown happen atomically, so two interactions of the same target
+         * arriving on different event threads can never both pass the check.</p>
          *
          * <p>Usage example:</p>
          * <pre>
          * {@code
-         * boolean onCooldown = isOnCooldown("123456", mySlashCommand);
+         * boolean onCooldown = isOnCooldown(event.getUser().getIdLong(), 0, mySlashCommand.getDefaultCommandName(), mySlashCommand.getCooldown());
          * if (onCooldown) {
-         *     System.out.println("The user with ID 123456 is on cooldown for the command: " + mySlashCommand.getDefaultCommandName());
-         * } else {
-         *     System.out.println("The user with ID 123456 is not on cooldown for the command: " + mySlashCommand.getDefaultCommandName());
+         *     System.out.println("The user is on cooldown for the command: " + mySlashCommand.getDefaultCommandName());
          * }
          * }
          * </pre>
          */
-
-        public static boolean isOnCooldown(String targetId, SlashCommand command) {
-
-            if (command.getCooldown() == null) {
+        private static boolean isOnCooldown(long targetId, long scopeId, String operationName, Cooldown cooldown) {
+            if (cooldown == null || cooldown.scope() == Scope.UNKNOWN) {
                 return false;
             }
-
-            Scope scope = command.getCooldown().scope();
-            Map<String, Map<String, Long>> targetMap;
-            switch (scope) {
-                case USER -> targetMap = globalUserCooldowns;
-                case CHANNEL -> targetMap = globalChannelCooldowns;
-                case GUILD -> targetMap = globalServerCooldowns;
-                default -> {
-                    return false;
-                }
-            }
-
-            long currentTime = new Date().getTime();
-            long endTime = currentTime + command.getCooldown().getTimeInMS();
-
-            if (!targetMap.containsKey(targetId)) {
-                targetMap.put(targetId, new HashMap<>());
-                setCooldown(targetId, command.getDefaultCommandName(), endTime, scope);
-                return false;
-            }
-
-            long oldEndTime = getEndTime(targetId, command.getDefaultCommandName(), scope);
-
-            if (oldEndTime < currentTime) {
-                setCooldown(targetId, command.getDefaultCommandName(), endTime, scope);
-                return false;
-            }
-            return true;
+            long now = CooldownStore.currentTimeMillis();
+            return store.tryAcquire(targetId, scopeId, slotOf(operationName, cooldown), now, cooldown) != 0;
         }
 
         /**
-         * Checks if a specified target is currently on cooldown for a given {@link ContextInteraction}.
-         *
-         * @param targetId    The unique identifier of the target (e.g., user ID, channel ID, guild ID).
-         * @param interaction The {@link ContextInteraction} for which the cooldown status is checked.
-         * @return True if the target is on cooldown; false otherwise.
-         *
-         * <p>This method determines whether a specified target is currently on cooldown for the given
-         * SlashCommand. If the SlashCommand has no cooldown set (null), the target is considered not
-         * on cooldown. Otherwise, the method checks the cooldown scope, retrieves the corresponding
-         * cooldown map (targetMap), and determines if the target is on cooldown based on the cooldown
-         * end time.</p>
+         * Retrieves the end time of a cooldown for a specified target and {@link SlashCommand} or {@link ContextInteraction}.
+         * For {@link Mode#TOKEN_BUCKET} and {@link Mode#SLIDING_WINDOW} this is the time at which the next use becomes available.
          *
-         * <p>If the target is not on cooldown, a new cooldown is set with the specified duration.</p>
+         * @param targetId      The snowflake of the target (e.g., user ID, channel ID, guild ID).
+         * @param scopeId       The snowflake narrowing a composite scope (e.g., the guild ID for {@link Scope#USER_IN_GUILD}), otherwise 0.
+         * @param operationName The name of the {@link SlashCommand} or {@link ContextInteraction} for which the cooldown is being checked.
+         * @param cooldown      The {@link Cooldown} of the operation.
+         * @return The end time of the cooldown in epoch milliseconds, or 0 if no cooldown is found.
          *
-         * <p>Usage example:</p>
+         * <p>Usage Example:</p>
          * <pre>
          * {@code
-         * boolean onCooldown = isOnCooldown("123456", myContextInteraction);
-         * if (onCooldown) {
-         *     System.out.println("The user with ID 123456 is on cooldown for the ContextInteraction: " + myContextInteraction.getDefaultCommandName());
-         * } else {
-         *     System.out.println("The user with ID 123456 is not on cooldown for the ContextInteraction: " + myContextInteraction.getDefaultCommandName());
-         * }
+         * long endTime = CooldownManager.getEndTime(event.getUser().getIdLong(), 0, command.getDefaultCommandName(), command.getCooldown());
          * }
          * </pre>
          */
-        public static boolean isOnCooldown(String targetId, ContextInteraction interaction) {
-
-            if (interaction.getCooldown() == null) {
-                return false;
-            }
+        private static long getEndTime(long targetId, long scopeId, String operationName, Cooldown cooldown) {
+            return store.nextAvailable(targetId, scopeId, slotOf(operationName), CooldownStore.currentTimeMillis(), cooldown);
+        }
 
-            Scope scope = interaction.getCooldown().scope();
-            Map<String, Map<String, Long>> targetMap;
-            switch (scope) {
-                case USER -> targetMap = globalUserCooldowns;
-                case CHANNEL -> targetMap = globalChannelCooldowns;
-                case GUILD -> targetMap = globalServerCooldowns;
-                default -> {
-                    return false;
+        /**
+         * Loads the cooldowns of the backend and schedules its flushes on a background thread,
+         * see {@link Cooldown#enablePersistence(Path)} and {@link Cooldown#enableDatabaseBackend()}.
+         *
+         * @param cooldownBackend The {@link CooldownBackend} to synchronise the store with
+         */
+        private static synchronized void enableBackend(CooldownBackend cooldownBackend) {
+            if (backend != null) {
+                logger.warn("Cooldown backend {} is already enabled, ignoring {}", backend.getName(), cooldownBackend.getName());
+                return;
+            }
+            try {
+                int restored = cooldownBackend.load(CooldownStore.currentTimeMillis());
+                logger.info("Restored {} cooldowns from the {} backend", restored, cooldownBackend.getName());
+            } catch (Exception e) {
+                logger.error("Could not restore cooldowns from the {} backend, continuing without it", cooldownBackend.getName(), e);
+                return;
+            }
+            backend = cooldownBackend;
+
+            ScheduledExecutorService flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "Cooldown-Flush");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flushExecutor.scheduleWithFixedDelay(() -> {
+                try {
+                    cooldownBackend.flush(CooldownStore.currentTimeMillis());
+                } catch (Exception e) {
+                    logger.error("Failed to flush cooldowns to the {} backend", cooldownBackend.getName(), e);
                 }
-            }
-
-            long currentTime = new Date().getTime();
-            long endTime = currentTime + interaction.getCooldown().getTimeInMS();
-
-            if (!targetMap.containsKey(targetId)) {
-                targetMap.put(targetId, new HashMap<>());
-                setCooldown(targetId, interaction.getDefaultInteractionName(), endTime, scope);
-                return false;
-            }
-            return true;
+            }, cooldownBackend.getFlushInterval(), cooldownBackend.getFlushInterval(), TimeUnit.MILLISECONDS);
+            Runtime.getRuntime().addShutdownHook(new Thread(cooldownBackend::close, "Cooldown-Shutdown"));
         }
 
         /**
-         * Retrieves the end time of a cooldown for a specified target, {@link SlashCommand} or {@link ContextInteraction}, and {@link Scope}.
+         * Maps the name of a {@link SlashCommand} or {@link ContextInteraction} to its slot in the {@link CooldownStore}.
+         * The slot is assigned on first use and stays the same for the lifetime of the process.
          *
-         * @param targetId      The unique identifier of the target (e.g., user ID, channel ID, guild ID).
-         * @param operationName The name of the {@link SlashCommand} or {@link ContextInteraction} for which the cooldown is being checked.
-         * @param scope         The {@link Scope} of the cooldown (USER, CHANNEL, GUILD).
-         * @return The end time of the cooldown for the specified target and command, or 0 if no cooldown is found.
-         *
-         *
-         * <p>This method looks up the cooldown information for a specific target, command, and scope.
-         * It determines the scope and retrieves the corresponding cooldown map (targetMap).
-         * If the target does not exist in the map, or if the command is not present for the target,
-         * the method returns 0, indicating that there is no cooldown set.
-         * If a cooldown is found, the method returns the end time of the cooldown.</p>
-         *
-         * <p>Usage Example:</p>
-         * <pre>
-         * {@code
-         * long endTime = CooldownManager.getEndTime(event.getUser().getId(), command.getDefaultCommandName(), scope);
-         * }
-         * </pre>
+         * @param operationName The name of the operation
+         * @return The slot of the operation, always greater than 0
          */
-        private static long getEndTime(String targetId, String operationName, Cooldown.Scope scope) {
-            Map<String, Map<String, Long>> targetMap;
-            switch (scope) {
-                case USER -> targetMap = globalUserCooldowns;
-                case CHANNEL -> targetMap = globalChannelCooldowns;
-                case GUILD -> targetMap = globalServerCooldowns;
-                default -> {
-                    return 0;
-                }
-            }
-            if (!targetMap.containsKey(targetId)) {
-                return 0;
-            }
-            if (!targetMap.get(targetId).containsKey(operationName)) {
-                return 0;
-            } else {
-                return targetMap.get(targetId).get(operationName);
+        private static int slotOf(String operationName) {
+            Integer slot = slots.get(operationName);
+            if (slot != null) {
+                return slot;
             }
+            return assignSlot(operationName);
         }
 
         /**
-         * Sets a cooldown for a specific target, {@link SlashCommand} or {@link ContextInteraction}, and scope.
-         *
-         * @param targetId      The unique identifier of the target (e.g., user ID, channel ID, guild ID).
-         * @param operationName The name representing the {@link SlashCommand} or {@link ContextInteraction} for which the cooldown is being set.
-         * @param cooldownTime  The duration of the cooldown in milliseconds.
-         * @param scope         The {@link Scope} of the cooldown (USER, CHANNEL, GUILD).
-         *
-         *                      <p>This method sets a cooldown for a particular target, operation, and scope. The cooldown
-         *                      duration is specified in milliseconds. The method first determines the scope and retrieves
-         *                      the corresponding cooldown map (targetMap). If the target does not exist in the map, a new
-         *                      entry is created. Subsequently, the method associates the specified operation with the
-         *                      provided cooldown time.</p>
+         * Like {@link #slotOf(String)}, and remembers the {@link Cooldown} of the slot, so a shared backend knows how
+         * to combine the entries of the slot.
          *
-         *                      <p>Usage example:</p>
-         *                      <pre>
-         *                                           {@code
-         *                                           setCooldown("123456", "exampleOperation", 5000, Cooldown.Scope.USER);
-         *                                           System.out.println("Cooldown set for the user with ID 123456 for the operation 'exampleOperation'.");
-         *                                           }
-         *                                           </pre>
-         * @see Cooldown.Scope
+         * @param operationName The name of the operation
+         * @param cooldown      The {@link Cooldown} of the operation
+         * @return The slot of the operation, always greater than 0
          */
-        private static void setCooldown(String targetId, String operationName, long cooldownTime, Cooldown.Scope scope) {
-            Map<String, Map<String, Long>> targetMap;
-            switch (scope) {
-                case USER -> targetMap = globalUserCooldowns;
-                case CHANNEL -> targetMap = globalChannelCooldowns;
-                case GUILD -> targetMap = globalServerCooldowns;
-                default -> {
-                    return;
-                }
-            }
-            if (!targetMap.containsKey(targetId)) {
-                targetMap.put(targetId, new HashMap<>());
+        private static int slotOf(String operationName, Cooldown cooldown) {
+            int slot = slotOf(operationName);
+            Cooldown[] known = cooldowns;
+            if (slot >= known.length || !cooldown.equals(known[slot])) {
+                registerCooldown(slot, cooldown);
             }
-            targetMap.get(targetId).put(operationName, cooldownTime);
+            return slot;
+        }
+
+        private static synchronized void registerCooldown(int slot, Cooldown cooldown) {
+            Cooldown[] grown = cooldowns.length > slot ? cooldowns.clone() : Arrays.copyOf(cooldowns, slot + 1);
+            grown[slot] = cooldown;
+            cooldowns = grown;
+        }
+
+        private static synchronized int assignSlot(String operationName) {
+            Integer slot = slots.get(operationName);
+            if (slot != null) {
+                return slot;
+            }
+            int assigned = names.length;
+            String[] grown = Arrays.copyOf(names, assigned + 1);
+            grown[assigned] = operationName;
+            // Publish the name before the slot, so every reader of the slot can resolve its name
+            names = grown;
+            slots.put(operationName, assigned);
+            return assigned;
         }
     }
 }
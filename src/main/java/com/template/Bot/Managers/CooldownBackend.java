@@ -0,0 +1,45 @@
+package com.template.Bot.Managers;
+
+/**
+ * CooldownBackend
+ * <p>
+ *     A place the {@link CooldownStore} is synchronised with outside of the process, such as a file that survives
+ *     restarts ({@link FileCooldownBackend}) or a database shared by several bot processes ({@link JdbcCooldownBackend}).
+ *     The in-memory store always answers the cooldown checks; a backend only loads entries into it and receives the
+ *     changed entries from its journal on a background thread.
+ * </p>
+ */
+interface CooldownBackend {
+
+    /**
+     * @return A short name of the backend for log messages
+     */
+    String getName();
+
+    /**
+     * @return The interval in milliseconds in which {@link #flush(long)} is called
+     */
+    long getFlushInterval();
+
+    /**
+     * Loads the entries that have not expired yet into the store and enables its journal.
+     *
+     * @param now The current time in milliseconds, see {@link CooldownStore#currentTimeMillis()}
+     * @return The number of loaded entries
+     * @throws Exception If the backend can not be read
+     */
+    int load(long now) throws Exception;
+
+    /**
+     * Writes the entries changed since the last call and picks up changes made elsewhere, if the backend is shared.
+     *
+     * @param now The current time in milliseconds, see {@link CooldownStore#currentTimeMillis()}
+     * @throws Exception If the backend can not be written
+     */
+    void flush(long now) throws Exception;
+
+    /**
+     * Writes the remaining changes and releases all resources. Called once from a shutdown hook.
+     */
+    void close();
+}
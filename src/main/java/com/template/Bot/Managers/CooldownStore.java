@@ -0,0 +1,662 @@
+package com.template.Bot.Managers;
+
+import java.util.Arrays;
+
+/**
+ * CooldownStore
+ * <p>
+ *     A concurrent cooldown table keyed by the raw {@code long} snowflake of the target, a second {@code long} that
+ *     narrows composite scopes such as {@link Cooldown.Scope#USER_IN_GUILD}, and the integer slot of the
+ *     {@link com.template.Bot.Managers.Command.SlashCommand} or {@link com.template.Bot.Managers.Interaction.ContextInteraction}.
+ *     The table is split into lock stripes. Each stripe is an open-addressing hash table backed by primitive arrays,
+ *     so looking up or updating an entry never allocates.
+ * </p>
+ * <p>
+ *     Every entry holds two longs. For {@link Cooldown.Mode#FIXED} the first one is the end of the lockout, for
+ *     {@link Cooldown.Mode#TOKEN_BUCKET} it is the theoretical arrival time of the generic cell rate algorithm, and for
+ *     {@link Cooldown.Mode#SLIDING_WINDOW} it is the start of the current window plus two windows while the second one
+ *     packs the use counts of the previous and the current window. In all modes the first long is the point after
+ *     which the entry carries no information any more, which is what the timing wheel expires on.
+ * </p>
+ * <p>
+ *     All times are read from {@link #currentTimeMillis()}, a monotonic clock expressed in epoch milliseconds.
+ *     Wall clock jumps (NTP corrections, manual changes) therefore can neither shorten nor extend a cooldown.
+ * </p>
+ * <p>
+ *     Expired entries are dropped by a hashed timing wheel. Every stripe keeps {@value #WHEEL_SIZE} buckets of
+ *     {@value #TICK_MS} ms each, and every write files the key into the bucket of its end time. {@link #expire(long)}
+ *     only visits the buckets whose tick has passed, so eviction never sweeps the whole table.
+ * </p>
+ */
+final class CooldownStore {
+
+    private static final int STRIPE_COUNT = 64;
+    private static final int INITIAL_STRIPE_CAPACITY = 64;
+    static final int WHEEL_SIZE = 512;
+    static final long TICK_MS = 1000;
+
+    private static final long EPOCH_ANCHOR = System.currentTimeMillis();
+    private static final long NANO_ANCHOR = System.nanoTime();
+
+    private static final int JOURNAL_CAPACITY = 8192;
+
+    private final Stripe[] stripes = new Stripe[STRIPE_COUNT];
+    private long lastExpiredTick;
+    private volatile boolean journaling;
+
+    CooldownStore() {
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new Stripe(INITIAL_STRIPE_CAPACITY);
+        }
+        lastExpiredTick = currentTimeMillis() / TICK_MS;
+    }
+
+    /**
+     * @return The current time in epoch milliseconds, advanced by {@link System#nanoTime()} since class initialisation
+     */
+    static long currentTimeMillis() {
+        return EPOCH_ANCHOR + (System.nanoTime() - NANO_ANCHOR) / 1_000_000L;
+    }
+
+    /**
+     * Checks the cooldown of a target and records a new use if the {@link Cooldown} allows it, in one atomic step.
+     *
+     * @param targetId The snowflake of the target (user, channel, guild or shard)
+     * @param scopeId  The snowflake narrowing a composite scope (guild of {@link Cooldown.Scope#USER_IN_GUILD}), otherwise 0
+     * @param slot     The slot of the operation, see {@code Cooldown.CooldownManager#slotOf(String)}
+     * @param now      The current time in milliseconds, see {@link #currentTimeMillis()}
+     * @param cooldown The {@link Cooldown} deciding whether the use is allowed
+     * @return 0 if the use was allowed and recorded, otherwise the time at which the next use becomes available
+     */
+    long tryAcquire(long targetId, long scopeId, int slot, long now, Cooldown cooldown) {
+        int hash = hash(targetId, scopeId, slot);
+        Stripe stripe = stripeFor(hash);
+        synchronized (stripe) {
+            int index = stripe.find(targetId, scopeId, slot, hash);
+            long endTime = index >= 0 ? stripe.endTimes[index] : 0;
+            long state = index >= 0 ? stripe.states[index] : 0;
+            long period = cooldown.getTimeInMS();
+            int limit = Math.max(1, cooldown.limit());
+
+            switch (cooldown.mode()) {
+                case TOKEN_BUCKET -> {
+                    // GCRA: endTime holds the theoretical arrival time, the bucket is full once it lies in the past
+                    long burst = (limit - 1) * period;
+                    long arrival = Math.max(endTime, now);
+                    if (arrival - burst > now) {
+                        return arrival - burst;
+                    }
+                    endTime = arrival + period;
+                }
+                case SLIDING_WINDOW -> {
+                    // endTime holds the start of the current window plus two windows, state the packed use counts
+                    long windowStart = now - now % period;
+                    long previous = previousUses(endTime, state, period, windowStart);
+                    long current = currentUses(endTime, state, period, windowStart);
+                    if (previous * (period - (now - windowStart)) + (current + 1) * period > limit * period) {
+                        return nextWindowSlot(previous, current, limit, period, windowStart);
+                    }
+                    endTime = windowStart + 2 * period;
+                    state = (previous << 32) | (current + 1);
+                }
+                default -> {
+                    if (endTime > now) {
+                        return endTime;
+                    }
+                    endTime = now + period;
+                }
+            }
+
+            if (index >= 0) {
+                stripe.endTimes[index] = endTime;
+                stripe.states[index] = state;
+            } else {
+                index = stripe.insert(targetId, scopeId, slot, endTime, state, hash);
+            }
+            stripe.schedule(targetId, scopeId, slot, endTime);
+            if (journaling) {
+                stripe.uses[index]++;
+                stripe.journal(targetId, scopeId, slot, index);
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * @param targetId The snowflake of the target (user, channel, guild or shard)
+     * @param scopeId  The snowflake narrowing a composite scope (guild of {@link Cooldown.Scope#USER_IN_GUILD}), otherwise 0
+     * @param slot     The slot of the operation, see {@code Cooldown.CooldownManager#slotOf(String)}
+     * @param now      The current time in milliseconds, see {@link #currentTimeMillis()}
+     * @param cooldown The {@link Cooldown} the entry was written with
+     * @return The time in epoch milliseconds at which the next use becomes available, or 0 if no entry is stored
+     */
+    long nextAvailable(long targetId, long scopeId, int slot, long now, Cooldown cooldown) {
+        int hash = hash(targetId, scopeId, slot);
+        Stripe stripe = stripeFor(hash);
+        synchronized (stripe) {
+            int index = stripe.find(targetId, scopeId, slot, hash);
+            if (index < 0) {
+                return 0;
+            }
+            long endTime = stripe.endTimes[index];
+            long period = cooldown.getTimeInMS();
+            int limit = Math.max(1, cooldown.limit());
+
+            return switch (cooldown.mode()) {
+                case TOKEN_BUCKET -> endTime - (limit - 1) * period;
+                case SLIDING_WINDOW -> {
+                    long windowStart = now - now % period;
+                    long state = stripe.states[index];
+                    yield nextWindowSlot(previousUses(endTime, state, period, windowStart),
+                            currentUses(endTime, state, period, windowStart), limit, period, windowStart);
+                }
+                default -> endTime;
+            };
+        }
+    }
+
+    /**
+     * @return The uses counted in the window before {@code windowStart}
+     */
+    private static long previousUses(long endTime, long state, long period, long windowStart) {
+        long storedWindowStart = endTime - 2 * period;
+        if (storedWindowStart == windowStart) {
+            return state >>> 32;
+        }
+        return storedWindowStart + period == windowStart ? state & 0xFFFFFFFFL : 0;
+    }
+
+    /**
+     * @return The uses counted in the window starting at {@code windowStart}
+     */
+    private static long currentUses(long endTime, long state, long period, long windowStart) {
+        return endTime - 2 * period == windowStart ? state & 0xFFFFFFFFL : 0;
+    }
+
+    /**
+     * Solves the sliding window estimate {@code previous * (period - elapsed) / period + current + 1 <= limit}
+     * for the earliest point in time, looking into the next window if the current one cannot fit another use.
+     */
+    private static long nextWindowSlot(long previous, long current, long limit, long period, long windowStart) {
+        if (current + 1 <= limit) {
+            if (previous == 0) {
+                return windowStart;
+            }
+            long elapsed = period - (limit - current - 1) * period / previous;
+            if (elapsed < period) {
+                return windowStart + Math.max(0, elapsed);
+            }
+        }
+        if (current == 0) {
+            return windowStart + period;
+        }
+        long elapsed = period - (limit - 1) * period / current;
+        return windowStart + period + Math.max(0, elapsed);
+    }
+
+    /**
+     * Stores an entry as it is, overwriting any previous value. Used to restore entries, so the write is not journaled.
+     *
+     * @param targetId The snowflake of the target (user, channel, guild or shard)
+     * @param scopeId  The snowflake narrowing a composite scope (guild of {@link Cooldown.Scope#USER_IN_GUILD}), otherwise 0
+     * @param slot     The slot of the operation, see {@code Cooldown.CooldownManager#slotOf(String)}
+     * @param endTime  The end time of the entry in epoch milliseconds
+     * @param state    The mode specific state of the entry
+     */
+    void put(long targetId, long scopeId, int slot, long endTime, long state) {
+        int hash = hash(targetId, scopeId, slot);
+        Stripe stripe = stripeFor(hash);
+        synchronized (stripe) {
+            int index = stripe.find(targetId, scopeId, slot, hash);
+            if (index >= 0) {
+                stripe.endTimes[index] = endTime;
+                stripe.states[index] = state;
+            } else {
+                stripe.insert(targetId, scopeId, slot, endTime, state, hash);
+            }
+            stripe.schedule(targetId, scopeId, slot, endTime);
+        }
+    }
+
+    /**
+     * Merges an entry written by another process. Like {@link #put(long, long, int, long, long)} the write is not
+     * journaled.
+     * <p>
+     *     For {@link Cooldown.Mode#FIXED}, or if the cooldown of the slot is not known, the entry that runs out later
+     *     wins. For {@link Cooldown.Mode#TOKEN_BUCKET} and {@link Cooldown.Mode#SLIDING_WINDOW} the entry is the sum of
+     *     the uses of all processes, so the local entry is derived from it: the uses of this process that are still
+     *     waiting in the journal are added on top, and a counter is never lowered below the local one.
+     * </p>
+     *
+     * @param targetId The snowflake of the target (user, channel, guild or shard)
+     * @param scopeId  The snowflake narrowing a composite scope (guild of {@link Cooldown.Scope#USER_IN_GUILD}), otherwise 0
+     * @param slot     The slot of the operation, see {@code Cooldown.CooldownManager#slotOf(String)}
+     * @param endTime  The end time of the entry in epoch milliseconds
+     * @param state    The mode specific state of the entry
+     * @param cooldown The {@link Cooldown} of the slot, or null if it is not known
+     */
+    void merge(long targetId, long scopeId, int slot, long endTime, long state, Cooldown cooldown) {
+        int hash = hash(targetId, scopeId, slot);
+        Stripe stripe = stripeFor(hash);
+        synchronized (stripe) {
+            int index = stripe.find(targetId, scopeId, slot, hash);
+            if (index < 0) {
+                stripe.insert(targetId, scopeId, slot, endTime, state, hash);
+                stripe.schedule(targetId, scopeId, slot, endTime);
+                return;
+            }
+            long localEndTime = stripe.endTimes[index];
+            long localState = stripe.states[index];
+            long uses = stripe.uses[index];
+            Cooldown.Mode mode = cooldown != null ? cooldown.mode() : Cooldown.Mode.FIXED;
+            long period = cooldown != null ? cooldown.getTimeInMS() : 0;
+
+            switch (mode) {
+                case TOKEN_BUCKET -> {
+                    endTime = Math.max(localEndTime, endTime + uses * period);
+                    state = localState;
+                }
+                case SLIDING_WINDOW -> {
+                    // Both entries are brought to the later window, the local uses are counted in the local window
+                    long windowStart = Math.max(localEndTime, endTime) - 2 * period;
+                    long previous = Math.max(previousUses(endTime, state, period, windowStart),
+                            previousUses(localEndTime, localState, period, windowStart));
+                    long current = Math.max(currentUses(endTime, state, period, windowStart),
+                            currentUses(localEndTime, localState, period, windowStart));
+                    if (localEndTime - 2 * period == windowStart) {
+                        current = Math.max(current, currentUses(endTime, state, period, windowStart) + uses);
+                    } else if (localEndTime - period == windowStart) {
+                        previous = Math.max(previous, previousUses(endTime, state, period, windowStart) + uses);
+                    }
+                    endTime = windowStart + 2 * period;
+                    state = (previous << 32) | current;
+                }
+                default -> {
+                    if (localEndTime >= endTime) {
+                        return;
+                    }
+                }
+            }
+            if (endTime == localEndTime && state == localState) {
+                return;
+            }
+            stripe.endTimes[index] = endTime;
+            stripe.states[index] = state;
+            stripe.schedule(targetId, scopeId, slot, endTime);
+        }
+    }
+
+    /**
+     * Enables or disables the change journal. While enabled, every key written by {@link #tryAcquire} is remembered
+     * until the next {@link #drainJournal(JournalConsumer)}. A key written several times between two drains is only
+     * remembered once, so the consumer sees coalesced changes, together with the number of uses they coalesce.
+     *
+     * @param journaling True to record changed keys
+     */
+    void setJournaling(boolean journaling) {
+        this.journaling = journaling;
+    }
+
+    /**
+     * Hands the current value of every key changed since the last drain to the consumer and clears the journal.
+     * The consumer is called while the stripe lock is held and must not call back into the store.
+     *
+     * @param consumer The {@link JournalConsumer} receiving the changed entries
+     * @return False if a stripe journal overflowed and changes were lost, in which case the caller should
+     * fall back to {@link #forEach(EntryConsumer)}
+     */
+    boolean drainJournal(JournalConsumer consumer) {
+        boolean complete = true;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                for (int i = 0; i < stripe.journalSize; i++) {
+                    long targetId = stripe.journalTargetIds[i];
+                    long scopeId = stripe.journalScopeIds[i];
+                    int slot = stripe.journalSlots[i];
+                    int index = stripe.find(targetId, scopeId, slot, hash(targetId, scopeId, slot));
+                    if (index >= 0 && stripe.journaled[index]) {
+                        stripe.journaled[index] = false;
+                        consumer.accept(targetId, scopeId, slot, stripe.endTimes[index], stripe.states[index], stripe.uses[index]);
+                        stripe.uses[index] = 0;
+                    }
+                }
+                complete &= !stripe.journalOverflow;
+                stripe.journalSize = 0;
+                stripe.journalOverflow = false;
+            }
+        }
+        return complete;
+    }
+
+    /**
+     * Hands every stored entry to the consumer, one stripe at a time. The entries of a stripe are copied while its
+     * lock is held and handed over after it is released, so a slow consumer, e.g. one writing to disk, never holds up
+     * cooldown checks.
+     *
+     * @param consumer The {@link EntryConsumer} receiving the entries
+     */
+    void forEach(EntryConsumer consumer) {
+        long[] targetIds = new long[0];
+        long[] scopeIds = new long[0];
+        int[] slots = new int[0];
+        long[] endTimes = new long[0];
+        long[] states = new long[0];
+        for (Stripe stripe : stripes) {
+            int count = 0;
+            synchronized (stripe) {
+                if (targetIds.length < stripe.size) {
+                    targetIds = new long[stripe.size];
+                    scopeIds = new long[stripe.size];
+                    slots = new int[stripe.size];
+                    endTimes = new long[stripe.size];
+                    states = new long[stripe.size];
+                }
+                for (int i = 0; i < stripe.slots.length; i++) {
+                    if (stripe.slots[i] != 0) {
+                        targetIds[count] = stripe.targetIds[i];
+                        scopeIds[count] = stripe.scopeIds[i];
+                        slots[count] = stripe.slots[i];
+                        endTimes[count] = stripe.endTimes[i];
+                        states[count] = stripe.states[i];
+                        count++;
+                    }
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                consumer.accept(targetIds[i], scopeIds[i], slots[i], endTimes[i], states[i]);
+            }
+        }
+    }
+
+    /**
+     * Advances the timing wheel to {@code now} and removes every entry whose end time has passed.
+     * Only the buckets of the ticks since the last call are visited. Called by a single expiry thread.
+     *
+     * @param now The current time in milliseconds, see {@link #currentTimeMillis()}
+     */
+    void expire(long now) {
+        long currentTick = now / TICK_MS;
+        long firstTick = Math.max(lastExpiredTick + 1, currentTick - WHEEL_SIZE + 1);
+        for (long tick = firstTick; tick <= currentTick; tick++) {
+            int bucket = (int) (tick & (WHEEL_SIZE - 1));
+            for (Stripe stripe : stripes) {
+                synchronized (stripe) {
+                    stripe.drain(bucket, now);
+                }
+            }
+        }
+        lastExpiredTick = Math.max(lastExpiredTick, currentTick);
+    }
+
+    /**
+     * @return The number of entries currently stored
+     */
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return The number of entries removed by {@link #expire(long)} since the store was created
+     */
+    long evictedCount() {
+        long evicted = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                evicted += stripe.evicted;
+            }
+        }
+        return evicted;
+    }
+
+    private Stripe stripeFor(int hash) {
+        return stripes[(hash >>> 26) & (STRIPE_COUNT - 1)];
+    }
+
+    private static int hash(long targetId, long scopeId, int slot) {
+        // MurmurHash3 fmix64 over the target mixed with the scope and the slot
+        long h = targetId ^ Long.rotateLeft(scopeId * 0xC2B2AE3D27D4EB4FL, 31) ^ ((long) slot * 0x9E3779B97F4A7C15L);
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    /**
+     * Receives entries from {@link #forEach(EntryConsumer)}.
+     */
+    @FunctionalInterface
+    interface EntryConsumer {
+        void accept(long targetId, long scopeId, int slot, long endTime, long state);
+    }
+
+    /**
+     * Receives entries from {@link #drainJournal(JournalConsumer)}, with the number of uses recorded for the key
+     * since the last drain.
+     */
+    @FunctionalInterface
+    interface JournalConsumer {
+        void accept(long targetId, long scopeId, int slot, long endTime, long state, int uses);
+    }
+
+    private static int bucketOf(long endTime) {
+        // An entry in the bucket of tick t ends before t * TICK_MS, so it has expired once that tick is processed
+        return (int) ((endTime / TICK_MS + 1) & (WHEEL_SIZE - 1));
+    }
+
+    /**
+     * One lock stripe: a linear probing table stored in parallel primitive arrays, plus the timing wheel buckets of
+     * the keys it holds. Slot 0 marks an empty table entry, which is why operation slots start at 1.
+     */
+    private static final class Stripe {
+
+        private long[] targetIds;
+        private long[] scopeIds;
+        private int[] slots;
+        private long[] endTimes;
+        private long[] states;
+        private int[] uses;
+        private boolean[] journaled;
+        private int size;
+        private long evicted;
+
+        private final long[][] wheelTargetIds = new long[WHEEL_SIZE][];
+        private final long[][] wheelScopeIds = new long[WHEEL_SIZE][];
+        private final int[][] wheelSlots = new int[WHEEL_SIZE][];
+        private final int[] wheelSizes = new int[WHEEL_SIZE];
+
+        private long[] journalTargetIds = new long[16];
+        private long[] journalScopeIds = new long[16];
+        private int[] journalSlots = new int[16];
+        private int journalSize;
+        private boolean journalOverflow;
+
+        private Stripe(int capacity) {
+            targetIds = new long[capacity];
+            scopeIds = new long[capacity];
+            slots = new int[capacity];
+            endTimes = new long[capacity];
+            states = new long[capacity];
+            uses = new int[capacity];
+            journaled = new boolean[capacity];
+        }
+
+        /**
+         * Files a key into the wheel bucket of its end time. A key may sit in several buckets after repeated
+         * writes; {@link #drain(int, long)} discards the copies that no longer match the stored end time.
+         */
+        private void schedule(long targetId, long scopeId, int slot, long endTime) {
+            int bucket = bucketOf(endTime);
+            int bucketSize = wheelSizes[bucket];
+            long[] bucketTargetIds = wheelTargetIds[bucket];
+            if (bucketTargetIds == null || bucketSize == bucketTargetIds.length) {
+                int capacity = bucketTargetIds == null ? 8 : bucketSize * 2;
+                wheelTargetIds[bucket] = bucketTargetIds = bucketTargetIds == null ? new long[capacity] : Arrays.copyOf(bucketTargetIds, capacity);
+                wheelScopeIds[bucket] = wheelScopeIds[bucket] == null ? new long[capacity] : Arrays.copyOf(wheelScopeIds[bucket], capacity);
+                wheelSlots[bucket] = wheelSlots[bucket] == null ? new int[capacity] : Arrays.copyOf(wheelSlots[bucket], capacity);
+            }
+            bucketTargetIds[bucketSize] = targetId;
+            wheelScopeIds[bucket][bucketSize] = scopeId;
+            wheelSlots[bucket][bucketSize] = slot;
+            wheelSizes[bucket] = bucketSize + 1;
+        }
+
+        /**
+         * Remembers a changed key for the next journal drain, unless it is already waiting in the journal.
+         * Once the journal is full further changes are only flagged as lost, so a stalled consumer cannot grow the heap.
+         */
+        private void journal(long targetId, long scopeId, int slot, int index) {
+            if (journaled[index]) {
+                return;
+            }
+            if (journalSize == journalSlots.length) {
+                if (journalSize == JOURNAL_CAPACITY) {
+                    journalOverflow = true;
+                    return;
+                }
+                journalTargetIds = Arrays.copyOf(journalTargetIds, journalSize * 2);
+                journalScopeIds = Arrays.copyOf(journalScopeIds, journalSize * 2);
+                journalSlots = Arrays.copyOf(journalSlots, journalSize * 2);
+            }
+            journalTargetIds[journalSize] = targetId;
+            journalScopeIds[journalSize] = scopeId;
+            journalSlots[journalSize] = slot;
+            journalSize++;
+            journaled[index] = true;
+        }
+
+        /**
+         * Processes one wheel bucket: expired entries are removed, entries due in a later rotation of the wheel stay
+         * in the bucket, and stale copies of keys that were rescheduled elsewhere are dropped.
+         */
+        private void drain(int bucket, long now) {
+            int bucketSize = wheelSizes[bucket];
+            if (bucketSize == 0) {
+                return;
+            }
+            long[] bucketTargetIds = wheelTargetIds[bucket];
+            long[] bucketScopeIds = wheelScopeIds[bucket];
+            int[] bucketSlots = wheelSlots[bucket];
+            int kept = 0;
+            for (int i = 0; i < bucketSize; i++) {
+                long targetId = bucketTargetIds[i];
+                long scopeId = bucketScopeIds[i];
+                int slot = bucketSlots[i];
+                int index = find(targetId, scopeId, slot, hash(targetId, scopeId, slot));
+                if (index < 0) {
+                    continue;
+                }
+                long endTime = endTimes[index];
+                if (endTime <= now) {
+                    remove(index);
+                    evicted++;
+                } else if (bucketOf(endTime) == bucket) {
+                    bucketTargetIds[kept] = targetId;
+                    bucketScopeIds[kept] = scopeId;
+                    bucketSlots[kept] = slot;
+                    kept++;
+                }
+            }
+            wheelSizes[bucket] = kept;
+        }
+
+        /**
+         * Removes the entry at {@code index} and shifts the following entries of its probe run back,
+         * so lookups never need tombstones.
+         */
+        private void remove(int index) {
+            int mask = slots.length - 1;
+            int hole = index;
+            for (int i = (index + 1) & mask; slots[i] != 0; i = (i + 1) & mask) {
+                int home = hash(targetIds[i], scopeIds[i], slots[i]) & mask;
+                boolean reachable = hole <= i ? (home > hole && home <= i) : (home > hole || home <= i);
+                if (!reachable) {
+                    targetIds[hole] = targetIds[i];
+                    scopeIds[hole] = scopeIds[i];
+                    slots[hole] = slots[i];
+                    endTimes[hole] = endTimes[i];
+                    states[hole] = states[i];
+                    uses[hole] = uses[i];
+                    journaled[hole] = journaled[i];
+                    hole = i;
+                }
+            }
+            targetIds[hole] = 0;
+            scopeIds[hole] = 0;
+            slots[hole] = 0;
+            endTimes[hole] = 0;
+            states[hole] = 0;
+            uses[hole] = 0;
+            journaled[hole] = false;
+            size--;
+        }
+
+        private int find(long targetId, long scopeId, int slot, int hash) {
+            int mask = slots.length - 1;
+            for (int index = hash & mask; ; index = (index + 1) & mask) {
+                int current = slots[index];
+                if (current == 0) {
+                    return -1;
+                }
+                if (current == slot && targetIds[index] == targetId && scopeIds[index] == scopeId) {
+                    return index;
+                }
+            }
+        }
+
+        private int insert(long targetId, long scopeId, int slot, long endTime, long state, int hash) {
+            if ((size + 1) * 4 > slots.length * 3) {
+                resize();
+            }
+            int mask = slots.length - 1;
+            int index = hash & mask;
+            while (slots[index] != 0) {
+                index = (index + 1) & mask;
+            }
+            targetIds[index] = targetId;
+            scopeIds[index] = scopeId;
+            slots[index] = slot;
+            endTimes[index] = endTime;
+            states[index] = state;
+            uses[index] = 0;
+            journaled[index] = false;
+            size++;
+            return index;
+        }
+
+        private void resize() {
+            long[] oldTargetIds = targetIds;
+            long[] oldScopeIds = scopeIds;
+            int[] oldSlots = slots;
+            long[] oldEndTimes = endTimes;
+            long[] oldStates = states;
+            int[] oldUses = uses;
+            boolean[] oldJournaled = journaled;
+
+            int capacity = oldSlots.length * 2;
+            targetIds = new long[capacity];
+            scopeIds = new long[capacity];
+            slots = new int[capacity];
+            endTimes = new long[capacity];
+            states = new long[capacity];
+            uses = new int[capacity];
+            journaled = new boolean[capacity];
+            size = 0;
+
+            for (int i = 0; i < oldSlots.length; i++) {
+                if (oldSlots[i] != 0) {
+                    int index = insert(oldTargetIds[i], oldScopeIds[i], oldSlots[i], oldEndTimes[i], oldStates[i], hash(oldTargetIds[i], oldScopeIds[i], oldSlots[i]));
+                    uses[index] = oldUses[i];
+                    journaled[index] = oldJournaled[i];
+                }
+            }
+        }
+    }
+}
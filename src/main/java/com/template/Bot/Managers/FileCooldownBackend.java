@@ -0,0 +1,323 @@
+package com.template.Bot.Managers;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * FileCooldownBackend
+ * <p>
+ *     A {@link CooldownBackend} that checkpoints the {@link CooldownStore} to disk so cooldowns survive restarts and deploys.
+ *     State is kept in two files that share one record format:
+ * </p>
+ * <ul>
+ *     <li>{@code cooldowns.snapshot}: every live entry at the time of the last compaction, written sequentially</li>
+ *     <li>{@code cooldowns.log}: a memory-mapped, fixed-size append log of the entries changed since then</li>
+ * </ul>
+ * <p>
+ *     Both files start with a magic number, a version and a generation. A compaction writes a new snapshot with the
+ *     next generation and then resets the log to that generation, so a log left behind by a crash in between is
+ *     recognised as stale and ignored. Operation slots are process local, which is why every file maps them to
+ *     operation names with name records before they are used.
+ * </p>
+ * <p>
+ *     All methods run on the flush thread or the shutdown hook. The interaction hot path only remembers
+ *     changed keys in the journal of the store.
+ * </p>
+ */
+final class FileCooldownBackend implements CooldownBackend {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileCooldownBackend.class);
+
+    private static final int SNAPSHOT_MAGIC = 0x43445350; // "CDSP"
+    private static final int LOG_MAGIC = 0x43444C47; // "CDLG"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 16;
+    private static final byte RECORD_END = 0;
+    private static final byte RECORD_NAME = 1;
+    private static final byte RECORD_ENTRY = 2;
+    private static final int ENTRY_RECORD_SIZE = 1 + 8 + 8 + 4 + 8 + 8;
+    private static final int LOG_SIZE = 4 * 1024 * 1024;
+    private static final long COMPACTION_INTERVAL_MS = 10 * 60 * 1000;
+    private static final long CHECKPOINT_INTERVAL_MS = 5000;
+
+    private final Path snapshotFile;
+    private final Path logFile;
+    private final CooldownStore store;
+    private final Map<String, Integer> slots;
+
+    private FileChannel logChannel;
+    private MappedByteBuffer log;
+    private long generation;
+    private long lastCompaction;
+    private boolean logFull;
+    private final BitSet namedSlots = new BitSet();
+
+    /**
+     * @param directory The directory holding the snapshot and the log, created if missing
+     * @param store     The {@link CooldownStore} to checkpoint
+     * @param slots     The mapping of operation names to slots, see {@code Cooldown.CooldownManager}
+     */
+    FileCooldownBackend(Path directory, CooldownStore store, Map<String, Integer> slots) throws IOException {
+        Files.createDirectories(directory);
+        this.snapshotFile = directory.resolve("cooldowns.snapshot");
+        this.logFile = directory.resolve("cooldowns.log");
+        this.store = store;
+        this.slots = slots;
+    }
+
+    @Override
+    public String getName() {
+        return "file";
+    }
+
+    @Override
+    public long getFlushInterval() {
+        return CHECKPOINT_INTERVAL_MS;
+    }
+
+    /**
+     * Restores the snapshot and the log into the store in one sequential pass each, skipping entries that have
+     * already expired, and compacts both files afterwards so they use the slots of this process.
+     *
+     * @param now The current time in milliseconds, see {@link CooldownStore#currentTimeMillis()}
+     * @return The number of restored entries
+     */
+    @Override
+    public synchronized int load(long now) throws IOException {
+        int restored = 0;
+        long snapshotGeneration = -1;
+
+        if (Files.exists(snapshotFile)) {
+            try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                snapshotGeneration = readHeader(buffer, SNAPSHOT_MAGIC);
+                if (snapshotGeneration >= 0) {
+                    restored += readRecords(buffer, now);
+                } else {
+                    logger.warn("Ignoring unreadable cooldown snapshot {}", snapshotFile);
+                }
+            }
+        }
+
+        if (Files.exists(logFile) && snapshotGeneration >= 0) {
+            try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (readHeader(buffer, LOG_MAGIC) == snapshotGeneration) {
+                    restored += readRecords(buffer, now);
+                }
+            }
+        }
+
+        generation = Math.max(snapshotGeneration, 0);
+        store.setJournaling(true);
+        compact(now);
+        return restored;
+    }
+
+    /**
+     * Appends all entries changed since the last checkpoint to the log.
+     * Compacts instead if the journal overflowed, the log is full or the compaction interval has passed.
+     *
+     * @param now The current time in milliseconds, see {@link CooldownStore#currentTimeMillis()}
+     */
+    @Override
+    public synchronized void flush(long now) throws IOException {
+        if (log == null) {
+            return;
+        }
+        boolean complete = store.drainJournal(this::appendEntry);
+        if (!complete || logFull || now - lastCompaction >= COMPACTION_INTERVAL_MS) {
+            compact(now);
+        }
+    }
+
+    /**
+     * Writes every live entry of the store into a new snapshot, swaps it in atomically and resets the log.
+     *
+     * @param now The current time in milliseconds, see {@link CooldownStore#currentTimeMillis()}
+     */
+    synchronized void compact(long now) throws IOException {
+        long nextGeneration = generation + 1;
+        Path temporaryFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+
+        int written;
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+            output.writeInt(SNAPSHOT_MAGIC);
+            output.writeInt(VERSION);
+            output.writeLong(nextGeneration);
+            for (Map.Entry<String, Integer> entry : slots.entrySet()) {
+                byte[] name = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                output.writeByte(RECORD_NAME);
+                output.writeInt(entry.getValue());
+                output.writeShort(name.length);
+                output.write(name);
+            }
+            SnapshotWriter writer = new SnapshotWriter(output, now);
+            store.forEach(writer);
+            if (writer.failure != null) {
+                throw writer.failure;
+            }
+            output.writeByte(RECORD_END);
+            written = writer.written;
+        }
+        Files.move(temporaryFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        resetLog(nextGeneration);
+        generation = nextGeneration;
+        lastCompaction = now;
+        logger.debug("Compacted {} cooldowns into generation {}", written, nextGeneration);
+    }
+
+    /**
+     * Appends the remaining changes, flushes the log to disk and unmaps it.
+     */
+    @Override
+    public synchronized void close() {
+        if (log == null) {
+            return;
+        }
+        try {
+            store.drainJournal(this::appendEntry);
+            log.force();
+            logChannel.close();
+        } catch (IOException e) {
+            logger.error("Failed to close the cooldown log", e);
+        }
+        log = null;
+        store.setJournaling(false);
+    }
+
+    private void resetLog(long nextGeneration) throws IOException {
+        if (logChannel == null) {
+            logChannel = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            log = logChannel.map(FileChannel.MapMode.READ_WRITE, 0, LOG_SIZE);
+        }
+        log.clear();
+        log.putInt(LOG_MAGIC);
+        log.putInt(VERSION);
+        log.putLong(nextGeneration);
+        log.put(HEADER_SIZE, RECORD_END);
+        log.force();
+        namedSlots.clear();
+        logFull = false;
+    }
+
+    /**
+     * Appends a changed entry from the journal. The log restores entries as they are, so the number of uses behind
+     * the change is not needed.
+     */
+    private void appendEntry(long targetId, long scopeId, int slot, long endTime, long state, int uses) {
+        if (logFull) {
+            return;
+        }
+        byte[] name = null;
+        int required = ENTRY_RECORD_SIZE + 1;
+        if (!namedSlots.get(slot)) {
+            name = Cooldown.nameOf(slot).getBytes(StandardCharsets.UTF_8);
+            required += 1 + 4 + 2 + name.length;
+        }
+        if (log.remaining() < required) {
+            // The compaction triggered by the next checkpoint picks up everything that did not fit
+            logFull = true;
+            return;
+        }
+        if (name != null) {
+            log.put(RECORD_NAME).putInt(slot).putShort((short) name.length).put(name);
+            namedSlots.set(slot);
+        }
+        log.put(RECORD_ENTRY).putLong(targetId).putLong(scopeId).putInt(slot).putLong(endTime).putLong(state);
+        log.put(log.position(), RECORD_END);
+    }
+
+    /**
+     * @return The generation of the file, or -1 if the header does not match
+     */
+    private static long readHeader(ByteBuffer buffer, int magic) {
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != magic || buffer.getInt() != VERSION) {
+            return -1;
+        }
+        return buffer.getLong();
+    }
+
+    private int readRecords(ByteBuffer buffer, long now) {
+        Map<Integer, Integer> slotMapping = new HashMap<>();
+        int restored = 0;
+        try {
+            while (buffer.hasRemaining()) {
+                byte type = buffer.get();
+                if (type == RECORD_NAME) {
+                    int fileSlot = buffer.getInt();
+                    byte[] name = new byte[buffer.getShort() & 0xFFFF];
+                    buffer.get(name);
+                    slotMapping.put(fileSlot, Cooldown.slotOf(new String(name, StandardCharsets.UTF_8)));
+                } else if (type == RECORD_ENTRY) {
+                    long targetId = buffer.getLong();
+                    long scopeId = buffer.getLong();
+                    Integer slot = slotMapping.get(buffer.getInt());
+                    long endTime = buffer.getLong();
+                    long state = buffer.getLong();
+                    if (slot != null && endTime > now) {
+                        store.put(targetId, scopeId, slot, endTime, state);
+                        restored++;
+                    }
+                } else {
+                    break;
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            logger.warn("Cooldown file ended with a truncated record, restored {} entries before it", restored);
+        }
+        return restored;
+    }
+
+    /**
+     * Streams entries into a snapshot. {@link CooldownStore#forEach} does not allow checked exceptions,
+     * so the first failure is kept and rethrown after the iteration.
+     */
+    private static final class SnapshotWriter implements CooldownStore.EntryConsumer {
+
+        private final DataOutputStream output;
+        private final long now;
+        private IOException failure;
+        private int written;
+
+        private SnapshotWriter(DataOutputStream output, long now) {
+            this.output = output;
+            this.now = now;
+        }
+
+        @Override
+        public void accept(long targetId, long scopeId, int slot, long endTime, long state) {
+            if (failure != null || endTime <= now) {
+                return;
+            }
+            try {
+                output.writeByte(RECORD_ENTRY);
+                output.writeLong(targetId);
+                output.writeLong(scopeId);
+                output.writeInt(slot);
+                output.writeLong(endTime);
+                output.writeLong(state);
+                written++;
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.template.Bot.Managers;
+
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.requests.GatewayIntent;
+import net.dv8tion.jda.api.sharding.DefaultShardManagerBuilder;
+import net.dv8tion.jda.api.sharding.ShardManager;
+import net.dv8tion.jda.api.utils.ChunkingFilter;
+import net.dv8tion.jda.api.utils.MemberCachePolicy;
+import net.dv8tion.jda.api.utils.cache.CacheFlag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * GatewayProfile
+ * <p>
+ *     Decides which gateway intents, cache flags and members the bot asks Discord for. Commands, interactions and
+ *     component handlers declare what they need, see {@link Holder}, and the profile only enables that, so shards do
+ *     not receive and cache events no feature uses. Interactions carry their own member and message data, so the
+ *     shipped features need nothing beyond the guild events JDA always receives.
+ * </p>
+ */
+public final class GatewayProfile {
+
+    private static final Logger logger = LoggerFactory.getLogger(GatewayProfile.class);
+
+    // Assumed, not measured, heap of a cached member with its user, roles and names, only used for the logged estimate
+    private static final long MEMBER_BYTES = 1024;
+
+    private static final Set<GatewayIntent> BASE_INTENTS = EnumSet.noneOf(GatewayIntent.class);
+    private static final Set<GatewayIntent> FULL_INTENTS = EnumSet.of(GatewayIntent.GUILD_MEMBERS, GatewayIntent.GUILD_WEBHOOKS,
+            GatewayIntent.GUILD_MESSAGES, GatewayIntent.GUILD_MESSAGE_REACTIONS,
+            GatewayIntent.DIRECT_MESSAGES, GatewayIntent.DIRECT_MESSAGE_REACTIONS, GatewayIntent.MESSAGE_CONTENT);
+    private static final Set<CacheFlag> FULL_CACHE_FLAGS = EnumSet.of(CacheFlag.MEMBER_OVERRIDES, CacheFlag.ROLE_TAGS);
+
+    private final Mode mode;
+    private final long homeGuildId;
+    private final EnumSet<GatewayIntent> intents;
+    private final EnumSet<CacheFlag> cacheFlags;
+    private final MemberCachePolicy memberCachePolicy;
+
+    private GatewayProfile(Mode mode, long homeGuildId, EnumSet<GatewayIntent> intents, EnumSet<CacheFlag> cacheFlags, MemberCachePolicy memberCachePolicy) {
+        this.mode = mode;
+        this.homeGuildId = homeGuildId;
+        this.intents = intents;
+        this.cacheFlags = cacheFlags;
+        this.memberCachePolicy = memberCachePolicy;
+    }
+
+    /**
+     * Computes the profile for the registered features.
+     *
+     * @param mode         The {@link Mode} chosen in discord.properties
+     * @param extraIntents Intents enabled in addition to the ones of the features, e.g. for plain event listeners
+     * @param homeGuildId  The id of the home guild, whose members are chunked if the profile receives members
+     * @param features     All commands, interactions and component handlers of the bot
+     * @return The profile
+     */
+    public static GatewayProfile resolve(Mode mode, Collection<GatewayIntent> extraIntents, long homeGuildId, Collection<? extends Holder> features) {
+        EnumSet<GatewayIntent> intents = EnumSet.copyOf(mode == Mode.FULL ? FULL_INTENTS : BASE_INTENTS);
+        EnumSet<CacheFlag> cacheFlags = mode == Mode.FULL ? EnumSet.copyOf(FULL_CACHE_FLAGS) : EnumSet.noneOf(CacheFlag.class);
+        MemberCachePolicy memberCachePolicy = mode == Mode.FULL ? MemberCachePolicy.ONLINE : null;
+        if (mode != Mode.LEAN) {
+            intents.addAll(extraIntents);
+        }
+
+        for (Holder feature : features) {
+            EnumSet<GatewayIntent> required = EnumSet.noneOf(GatewayIntent.class);
+            required.addAll(feature.getRequiredIntents());
+            feature.getRequiredCacheFlags().forEach(flag -> {
+                if (flag.getRequiredIntent() != null) {
+                    required.add(flag.getRequiredIntent());
+                }
+            });
+            if (mode == Mode.LEAN) {
+                required.removeAll(intents);
+                if (!required.isEmpty() || !feature.getRequiredCacheFlags().isEmpty() || feature.getMemberCachePolicy() != null) {
+                    logger.warn("{} needs {} and {}, which the lean gateway profile does not enable", feature.getClass().getName(),
+                            required, feature.getRequiredCacheFlags());
+                }
+                continue;
+            }
+            intents.addAll(required);
+            cacheFlags.addAll(feature.getRequiredCacheFlags());
+            if (feature.getMemberCachePolicy() != null) {
+                memberCachePolicy = memberCachePolicy == null ? feature.getMemberCachePolicy() : memberCachePolicy.or(feature.getMemberCachePolicy());
+            }
+        }
+        return new GatewayProfile(mode, homeGuildId, intents, cacheFlags,
+                memberCachePolicy == null ? MemberCachePolicy.NONE : memberCachePolicy);
+    }
+
+    /**
+     * Creates the shard manager builder with the intents, cache flags and member cache policy of the profile.
+     *
+     * @param token The bot token
+     * @return The builder
+     */
+    public DefaultShardManagerBuilder createBuilder(String token) {
+        DefaultShardManagerBuilder builder = DefaultShardManagerBuilder.create(token, intents);
+        EnumSet<CacheFlag> disabled = EnumSet.complementOf(cacheFlags);
+        builder.disableCache(disabled);
+        if (!cacheFlags.isEmpty()) {
+            builder.enableCache(cacheFlags);
+        }
+        builder.setMemberCachePolicy(memberCachePolicy);
+        // Chunking needs the member list, which only arrives with the GUILD_MEMBERS intent
+        builder.setChunkingFilter(intents.contains(GatewayIntent.GUILD_MEMBERS) ? ChunkingFilter.include(homeGuildId) : ChunkingFilter.NONE);
+
+        EnumSet<GatewayIntent> dropped = EnumSet.copyOf(FULL_INTENTS);
+        dropped.removeAll(intents);
+        logger.info("Gateway profile {}: intents {}, cache flags {}, {} intents of the full profile not requested {}",
+                mode, intents, cacheFlags, dropped.size(), dropped);
+        return builder;
+    }
+
+    /**
+     * Logs how many members are cached and the measured used heap. The heap saved compared to the full profile, which
+     * chunks the members of the home guild, is only estimated from an assumed size per member and labelled as such.
+     * Call it once all shards are ready.
+     *
+     * @param shardManager The shard manager of this process
+     */
+    public void logHeapUsage(ShardManager shardManager) {
+        long members = 0;
+        long cachedMembers = 0;
+        for (Guild guild : shardManager.getGuildCache()) {
+            members += guild.getMemberCount();
+            cachedMembers += guild.getMemberCache().size();
+        }
+        Guild homeGuild = shardManager.getGuildById(homeGuildId);
+        long fullProfileMembers = homeGuild != null ? homeGuild.getMemberCount() : 0;
+        long savedBytes = Math.max(0, fullProfileMembers - cachedMembers) * MEMBER_BYTES;
+
+        Runtime runtime = Runtime.getRuntime();
+        long heapUsedMb = (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024);
+        logger.info("Gateway profile {}: {} of {} members cached, {} MB heap used, ~{} MB saved compared to the full profile (estimated at {} KB/member)",
+                mode, cachedMembers, members, heapUsedMb, savedBytes / (1024 * 1024), MEMBER_BYTES / 1024);
+    }
+
+    /**
+     * @return The intents of the profile
+     */
+    public Set<GatewayIntent> getIntents() {
+        return EnumSet.copyOf(intents);
+    }
+
+    /**
+     * @return The cache flags enabled by the profile
+     */
+    public Set<CacheFlag> getCacheFlags() {
+        return EnumSet.copyOf(cacheFlags);
+    }
+
+    /**
+     * @return The member cache policy of the profile
+     */
+    public MemberCachePolicy getMemberCachePolicy() {
+        return memberCachePolicy;
+    }
+
+    /**
+     * Gateway Holder
+     * <p>
+     *     Implemented by everything that can declare what it needs from the gateway, so the profile can collect it
+     *     from commands, interactions and component handlers alike.
+     * </p>
+     */
+    public interface Holder {
+
+        /**
+         * @return The gateway intents the holder needs
+         */
+        Set<GatewayIntent> getRequiredIntents();
+
+        /**
+         * @return The cache flags the holder needs, their intents are enabled as well
+         */
+        Set<CacheFlag> getRequiredCacheFlags();
+
+        /**
+         * @return The members the holder needs cached, or null if it needs none
+         */
+        MemberCachePolicy getMemberCachePolicy();
+    }
+
+    /**
+     * Gateway Profile Mode
+     * <p>
+     *     LEAN: No intents besides the guild events, no cache flags and no members, features needing more are reported
+     *     AUTO: Everything the registered features and gateway.intents ask for, nothing else
+     *     FULL: The intents, cache flags and member cache of earlier versions, plus everything the features ask for
+     * </p>
+     */
+    public enum Mode {
+
+        LEAN,
+        AUTO,
+        FULL;
+
+        /**
+         * @param mode The name of the mode
+         * @return The mode, {@link #AUTO} if the name is unknown
+         */
+        public static Mode getMode(String mode) {
+            return switch (mode.trim().toLowerCase()) {
+                case "lean" -> LEAN;
+                case "full" -> FULL;
+                default -> AUTO;
+            };
+        }
+    }
+}
@@ -1,21 +1,29 @@
 package com.template.Bot.Managers.Interaction;
 
+import com.template.Bot.Managers.Bulkhead;
+import com.template.Bot.Managers.CommandExecutor;
 import com.template.Bot.Managers.Cooldown;
+import com.template.Bot.Managers.GatewayProfile;
 import net.dv8tion.jda.api.events.interaction.command.MessageContextInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.command.UserContextInteractionEvent;
 import net.dv8tion.jda.api.interactions.DiscordLocale;
 import net.dv8tion.jda.api.interactions.commands.Command;
 import net.dv8tion.jda.api.interactions.commands.DefaultMemberPermissions;
+import net.dv8tion.jda.api.requests.GatewayIntent;
+import net.dv8tion.jda.api.utils.MemberCachePolicy;
+import net.dv8tion.jda.api.utils.cache.CacheFlag;
 
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * The ContextInteraction class is the base class for all ContextInteractions.
  * It contains all the information about the context interaction.
  * It also contains two execute methods, one for each type of interaction.
  */
-public abstract class ContextInteraction {
+public abstract class ContextInteraction implements Cooldown.Holder, GatewayProfile.Holder {
 
     private final Command.Type type;
     private Map<DiscordLocale, String> interactionNames = new HashMap<>();
@@ -24,6 +32,11 @@ public abstract class ContextInteraction {
     private boolean NSFW = false;
     private DefaultMemberPermissions defaultMemberPermissions;
     private Cooldown cooldown;
+    private CommandExecutor.Mode executionMode = CommandExecutor.Mode.DEFAULT;
+    private Bulkhead bulkhead;
+    private final Set<GatewayIntent> requiredIntents = EnumSet.noneOf(GatewayIntent.class);
+    private final Set<CacheFlag> requiredCacheFlags = EnumSet.noneOf(CacheFlag.class);
+    private MemberCachePolicy memberCachePolicy;
 
     /**
      * This method is called when the interaction is executed.
@@ -185,10 +198,20 @@ public abstract class ContextInteraction {
      * Get the cooldown
      * @return The cooldown
      */
+    @Override
     public Cooldown getCooldown() {
         return cooldown;
     }
 
+    /**
+     * Returns the name the cooldowns of the interaction are stored under.
+     * @return The default name of the interaction
+     */
+    @Override
+    public String getCooldownName() {
+        return getDefaultInteractionName();
+    }
+
     /**
      * Check if the interaction has a cooldown
      * @return True if the interaction has a cooldown
@@ -196,4 +219,97 @@ public abstract class ContextInteraction {
     public boolean hasCooldown() {
         return cooldown != null;
     }
+
+    /**
+     * Sets how the interaction is executed, for example on a virtual thread if it blocks.
+     * @param executionMode The {@link CommandExecutor.Mode} of the interaction
+     */
+    public void setExecutionMode(CommandExecutor.Mode executionMode) {
+        this.executionMode = executionMode;
+    }
+
+    /**
+     * Returns how the interaction is executed.
+     * @return The {@link CommandExecutor.Mode} of the interaction, {@link CommandExecutor.Mode#DEFAULT} if not set
+     */
+    public CommandExecutor.Mode getExecutionMode() {
+        return executionMode;
+    }
+
+    /**
+     * Sets the bulkhead of the interaction, which limits its concurrent executions and queued executions.
+     * A interaction with a bulkhead is always executed on a virtual thread.
+     * @param bulkhead The {@link Bulkhead} of the interaction
+     */
+    public void setBulkhead(Bulkhead bulkhead) {
+        this.bulkhead = bulkhead;
+    }
+
+    /**
+     * Returns the bulkhead of the interaction, which also holds its queue depth and rejection count.
+     * @return The {@link Bulkhead} of the interaction, or null if it has none
+     */
+    public Bulkhead getBulkhead() {
+        return bulkhead;
+    }
+
+    /**
+     * Returns whether the interaction has a bulkhead.
+     * @return True if the interaction has a bulkhead, false otherwise
+     */
+    public boolean hasBulkhead() {
+        return bulkhead != null;
+    }
+
+    /**
+     * Declares gateway intents the interaction needs, e.g. {@link GatewayIntent#GUILD_MEMBERS} to look up other members.
+     * They are enabled on startup unless the lean gateway profile is used, see {@link GatewayProfile}.
+     * @param intents The gateway intents the interaction needs
+     */
+    public void requireIntents(GatewayIntent... intents) {
+        this.requiredIntents.addAll(Set.of(intents));
+    }
+
+    /**
+     * Returns the gateway intents the interaction needs.
+     * @return The gateway intents of the interaction
+     */
+    @Override
+    public Set<GatewayIntent> getRequiredIntents() {
+        return requiredIntents;
+    }
+
+    /**
+     * Declares cache flags the interaction needs. The intents of the cache flags are enabled as well.
+     * @param cacheFlags The cache flags the interaction needs
+     */
+    public void requireCacheFlags(CacheFlag... cacheFlags) {
+        this.requiredCacheFlags.addAll(Set.of(cacheFlags));
+    }
+
+    /**
+     * Returns the cache flags the interaction needs.
+     * @return The cache flags of the interaction
+     */
+    @Override
+    public Set<CacheFlag> getRequiredCacheFlags() {
+        return requiredCacheFlags;
+    }
+
+    /**
+     * Sets which members the interaction needs cached. The policies of all features are combined.
+     * @param memberCachePolicy The {@link MemberCachePolicy} of the interaction
+     */
+    public void setMemberCachePolicy(MemberCachePolicy memberCachePolicy) {
+        this.memberCachePolicy = memberCachePolicy;
+    }
+
+    /**
+     * Returns which members the interaction needs cached.
+     * @return The {@link MemberCachePolicy} of the interaction, or null if it needs no members cached
+     */
+    @Override
+    public MemberCachePolicy getMemberCachePolicy() {
+        return memberCachePolicy;
+    }
 }
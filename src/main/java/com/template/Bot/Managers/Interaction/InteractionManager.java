@@ -2,28 +2,28 @@ package com.template.Bot.Managers.Interaction;
 
 
 import com.template.Bot.Bot;
+import com.template.Bot.Managers.CommandExecutor;
+import com.template.Bot.Managers.CommandRegistry;
+import com.template.Bot.Managers.InteractionWatchdog;
+import com.template.Bot.Managers.Metrics.DispatchMetrics;
 import com.template.Language.LanguageUtils;
-import com.template.Main;
 import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.events.interaction.command.GenericContextInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.command.MessageContextInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.command.UserContextInteractionEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import net.dv8tion.jda.api.interactions.commands.Command;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
 import net.dv8tion.jda.api.interactions.commands.build.Commands;
 import org.jetbrains.annotations.NotNull;
-import org.reflections.Reflections;
-import org.reflections.util.ClasspathHelper;
-import org.reflections.util.ConfigurationBuilder;
-import org.reflections.util.FilterBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Locale;
-import java.util.Set;
+import java.util.Map;
 
 public class InteractionManager extends ListenerAdapter {
 
@@ -33,32 +33,35 @@ public class InteractionManager extends ListenerAdapter {
     private final Collection<CommandData> interactionData = new ArrayList<>();
     private final Collection<CommandData> homeGuildInteractionData = new ArrayList<>();
 
+    // Immutable routing tables from interaction name to interaction, replaced as a whole on registration and read without locks
+    private volatile Map<String, ContextInteraction> messageInteractions = Map.of();
+    private volatile Map<String, ContextInteraction> userInteractions = Map.of();
 
-    public InteractionManager() {
-        String basePackage = Main.basePackage;
-
-        Reflections reflections = new Reflections(new ConfigurationBuilder()
-                .setUrls(ClasspathHelper.forPackage(basePackage))
-                .filterInputsBy(new FilterBuilder().include(FilterBuilder.prefix(basePackage))));
-
-        Set<Class<? extends ContextInteraction>> interactionClasses = reflections.getSubTypesOf(ContextInteraction.class);
 
-        for (Class<? extends ContextInteraction> interactionClass : interactionClasses){
-            try {
-                Constructor<? extends ContextInteraction> constructor = interactionClass.getDeclaredConstructor();
-                ContextInteraction interaction = constructor.newInstance();
-
-                registerInteraction(interaction);
+    public InteractionManager() {
+        for (ContextInteraction interaction : CommandRegistry.createInteractions()) {
+            registerInteraction(interaction);
 
-                logger.info("Automatically registered interaction: " + interaction.getDefaultInteractionName());
-            } catch (NoSuchMethodException | InvocationTargetException | IllegalAccessException | InstantiationException e) {
-                logger.error("Failed to register command from class: " + interactionClass.getName(), e);
-            }
+            logger.info("Automatically registered interaction: {}", interaction.getDefaultInteractionName());
         }
     }
 
-    public void registerInteraction(ContextInteraction interaction){
+    public synchronized void registerInteraction(ContextInteraction interaction){
+        String name = interaction.getDefaultInteractionName();
+        Map<String, ContextInteraction> routes = interaction.getType() == Command.Type.MESSAGE ? messageInteractions : userInteractions;
+        if (routes.containsKey(name)) {
+            logger.warn("A {} interaction named {} is already registered, ignoring {}", interaction.getType(), name, interaction.getClass().getName());
+            return;
+        }
         interactions.add(interaction);
+
+        Map<String, ContextInteraction> updatedRoutes = new HashMap<>(routes);
+        updatedRoutes.put(name, interaction);
+        if (interaction.getType() == Command.Type.MESSAGE) {
+            messageInteractions = Map.copyOf(updatedRoutes);
+        } else {
+            userInteractions = Map.copyOf(updatedRoutes);
+        }
     }
 
     public ArrayList<ContextInteraction> getInteractions() {
@@ -97,45 +100,57 @@ public class InteractionManager extends ListenerAdapter {
                 interactionData.add(currentInteractionData);
             }
 
-            logger.info(String.format("Registered interaction: %s", interaction.getDefaultInteractionName()));
+            logger.info("Registered interaction: {}", interaction.getDefaultInteractionName());
         }
     }
 
     public void onMessageContextInteraction(@NotNull MessageContextInteractionEvent event) {
-        interactions.stream()
-                .filter(interaction -> interaction.getDefaultInteractionName().equalsIgnoreCase(event.getName()))
-                .findFirst()
-                .ifPresentOrElse(interaction -> {
-
-                    if (interaction.hasCooldown() && interaction.getCooldown().isOnCooldown(event, interaction)) {
-                        Locale userLocale = event.getUserLocale().toLocale();
-                        String message = LanguageUtils.getLanguageString("languages.bot.global", "interaction.cooldown.response", userLocale);
-
-                        String timeRelative = interaction.getCooldown().getEndTimeRelative(event, interaction);
-
-                        event.reply(String.format(message, timeRelative)).setEphemeral(true).queue();
-                        return;
-                    }
-                    interaction.execute(event);
-                }, () -> event.reply("This Command is currently not available").setEphemeral(true).queue());
+        long dispatchedAt = System.nanoTime();
+        ContextInteraction interaction = messageInteractions.get(event.getName());
+        if (interaction == null) {
+            event.reply("This Command is currently not available").setEphemeral(true).queue();
+            DispatchMetrics.record(DispatchMetrics.Kind.INTERACTION, DispatchMetrics.UNKNOWN, event, DispatchMetrics.Outcome.NOT_FOUND, dispatchedAt);
+            return;
+        }
+        if (isOnCooldown(event, interaction, dispatchedAt)) {
+            return;
+        }
+        MessageContextInteractionEvent watchedEvent = InteractionWatchdog.watch(event, interaction.getDefaultInteractionName());
+        CommandExecutor.execute(watchedEvent, DispatchMetrics.Kind.INTERACTION, interaction.getDefaultInteractionName(), dispatchedAt,
+                interaction.getExecutionMode(), interaction.getBulkhead(), () -> interaction.execute(watchedEvent));
     }
 
     public void onUserContextInteraction(@NotNull UserContextInteractionEvent event){
-        interactions.stream()
-                .filter(interaction -> interaction.getDefaultInteractionName().equalsIgnoreCase(event.getName()))
-                .findFirst()
-                .ifPresentOrElse(interaction -> {
-
-                    if (interaction.hasCooldown() && interaction.getCooldown().isOnCooldown(event, interaction)) {
-                        Locale userLocale = event.getUserLocale().toLocale();
-                        String message = LanguageUtils.getLanguageString("languages.bot.global", "interaction.cooldown.response", userLocale);
-
-                        String timeRelative = interaction.getCooldown().getEndTimeRelative(event, interaction);
-
-                        event.reply(String.format(message, timeRelative)).setEphemeral(true).queue();
-                        return;
-                    }
-                    interaction.execute(event);
-                }, () -> event.reply("This Command is currently not available").setEphemeral(true).queue());
+        long dispatchedAt = System.nanoTime();
+        ContextInteraction interaction = userInteractions.get(event.getName());
+        if (interaction == null) {
+            event.reply("This Command is currently not available").setEphemeral(true).queue();
+            DispatchMetrics.record(DispatchMetrics.Kind.INTERACTION, DispatchMetrics.UNKNOWN, event, DispatchMetrics.Outcome.NOT_FOUND, dispatchedAt);
+            return;
+        }
+        if (isOnCooldown(event, interaction, dispatchedAt)) {
+            return;
+        }
+        UserContextInteractionEvent watchedEvent = InteractionWatchdog.watch(event, interaction.getDefaultInteractionName());
+        CommandExecutor.execute(watchedEvent, DispatchMetrics.Kind.INTERACTION, interaction.getDefaultInteractionName(), dispatchedAt,
+                interaction.getExecutionMode(), interaction.getBulkhead(), () -> interaction.execute(watchedEvent));
+    }
+
+    /**
+     * Checks the cooldown of the interaction and replies with the cooldown message if the user has to wait.
+     * @return True if the interaction is on cooldown and must not be executed
+     */
+    private boolean isOnCooldown(GenericContextInteractionEvent<?> event, ContextInteraction interaction, long dispatchedAt) {
+        if (!interaction.hasCooldown() || !interaction.getCooldown().isOnCooldown(event, interaction)) {
+            return false;
+        }
+        Locale userLocale = event.getUserLocale().toLocale();
+        String message = LanguageUtils.getLanguageString("languages.bot.global", "interaction.cooldown.response", userLocale);
+
+        String timeRelative = interaction.getCooldown().getEndTimeRelative(event, interaction);
+
+        event.reply(String.format(message, timeRelative)).setEphemeral(true).queue();
+        DispatchMetrics.record(DispatchMetrics.Kind.INTERACTION, interaction.getDefaultInteractionName(), event, DispatchMetrics.Outcome.COOLDOWN, dispatchedAt);
+        return true;
     }
 }
@@ -0,0 +1,706 @@
+package com.template.Bot.Managers;
+
+import com.template.Main;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.events.interaction.ModalInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.command.MessageContextInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.command.UserContextInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.component.EntitySelectInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.component.StringSelectInteractionEvent;
+import net.dv8tion.jda.api.interactions.InteractionHook;
+import net.dv8tion.jda.api.interactions.callbacks.IMessageEditCallback;
+import net.dv8tion.jda.api.interactions.callbacks.IReplyCallback;
+import net.dv8tion.jda.api.requests.RestAction;
+import net.dv8tion.jda.api.requests.restaction.interactions.MessageEditCallbackAction;
+import net.dv8tion.jda.api.requests.restaction.interactions.ReplyCallbackAction;
+import net.dv8tion.jda.api.utils.messages.MessageCreateBuilder;
+import net.dv8tion.jda.api.utils.messages.MessageCreateData;
+import net.dv8tion.jda.api.utils.messages.MessageEditBuilder;
+import net.dv8tion.jda.api.utils.messages.MessageEditData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * InteractionWatchdog
+ * <p>
+ *     Discord only waits 3 seconds for the first response to an interaction. The watchdog measures the time since
+ *     the interaction was created and, if the handler has not acknowledged it within {@code execution.ackBudget}
+ *     milliseconds, defers the reply on its behalf, so a slow handler no longer ends in "This interaction failed".
+ * </p>
+ * <p>
+ *     Handlers receive a watched copy of their event. Replies created through it that are sent after the automatic
+ *     deferral are turned into edits of the deferred message, so the handler can keep calling {@code event.reply(...)}.
+ *     The ephemeral flag is decided by the deferral ({@code execution.deferEphemeral}) and can not be changed by the
+ *     late reply anymore, and modals can not be shown after a deferral at all.
+ * </p>
+ * <p>
+ *     Buttons, select menus and modals of a message are deferred with {@code deferEdit()} instead, which keeps the
+ *     message as it is. Edits of the message sent after that deferral are sent as edits of the original message,
+ *     replies as follow-up messages that keep their own ephemeral flag.
+ * </p>
+ */
+public final class InteractionWatchdog {
+
+    private static final Logger logger = LoggerFactory.getLogger(InteractionWatchdog.class);
+
+    private static final long DISCORD_EPOCH = 1420070400000L;
+
+    private static final long ackBudget = Long.parseLong(Main.discord.getProperty("execution.ackBudget", "2000").trim());
+    private static final boolean deferEphemeral = Boolean.parseBoolean(Main.discord.getProperty("execution.deferEphemeral", "false").trim());
+    private static final Map<String, LongAdder> fallbacks = new ConcurrentHashMap<>();
+    private static final ScheduledThreadPoolExecutor watchdogExecutor = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "Interaction-Watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        // Most handlers reply in time, their cancelled deferrals should not wait in the queue until they are due
+        watchdogExecutor.setRemoveOnCancelPolicy(true);
+    }
+
+    private InteractionWatchdog() {
+    }
+
+    /**
+     * Starts watching a slash command interaction.
+     *
+     * @param event The {@link SlashCommandInteractionEvent} to watch
+     * @param name  The name of the command, used for the fallback counts
+     * @return The event to pass to the handler
+     */
+    public static SlashCommandInteractionEvent watch(SlashCommandInteractionEvent event, String name) {
+        if (ackBudget <= 0) {
+            return event;
+        }
+        Guard guard = new Guard(event, name);
+        guard.schedule();
+        return new WatchedSlashCommandInteractionEvent(event, guard);
+    }
+
+    /**
+     * Starts watching a message context interaction.
+     *
+     * @param event The {@link MessageContextInteractionEvent} to watch
+     * @param name  The name of the interaction, used for the fallback counts
+     * @return The event to pass to the handler
+     */
+    public static MessageContextInteractionEvent watch(MessageContextInteractionEvent event, String name) {
+        if (ackBudget <= 0) {
+            return event;
+        }
+        Guard guard = new Guard(event, name);
+        guard.schedule();
+        return new WatchedMessageContextInteractionEvent(event, guard);
+    }
+
+    /**
+     * Starts watching a user context interaction.
+     *
+     * @param event The {@link UserContextInteractionEvent} to watch
+     * @param name  The name of the interaction, used for the fallback counts
+     * @return The event to pass to the handler
+     */
+    public static UserContextInteractionEvent watch(UserContextInteractionEvent event, String name) {
+        if (ackBudget <= 0) {
+            return event;
+        }
+        Guard guard = new Guard(event, name);
+        guard.schedule();
+        return new WatchedUserContextInteractionEvent(event, guard);
+    }
+
+    /**
+     * Starts watching a button interaction.
+     *
+     * @param event The {@link ButtonInteractionEvent} to watch
+     * @param name  The name of the component handler, used for the fallback counts
+     * @return The event to pass to the handler
+     */
+    public static ButtonInteractionEvent watch(ButtonInteractionEvent event, String name) {
+        if (ackBudget <= 0) {
+            return event;
+        }
+        Guard guard = new Guard(event, name, true);
+        guard.schedule();
+        return new WatchedButtonInteractionEvent(event, guard);
+    }
+
+    /**
+     * Starts watching a string select menu interaction.
+     *
+     * @param event The {@link StringSelectInteractionEvent} to watch
+     * @param name  The name of the component handler, used for the fallback counts
+     * @return The event to pass to the handler
+     */
+    public static StringSelectInteractionEvent watch(StringSelectInteractionEvent event, String name) {
+        if (ackBudget <= 0) {
+            return event;
+        }
+        Guard guard = new Guard(event, name, true);
+        guard.schedule();
+        return new WatchedStringSelectInteractionEvent(event, guard);
+    }
+
+    /**
+     * Starts watching an entity select menu interaction.
+     *
+     * @param event The {@link EntitySelectInteractionEvent} to watch
+     * @param name  The name of the component handler, used for the fallback counts
+     * @return The event to pass to the handler
+     */
+    public static EntitySelectInteractionEvent watch(EntitySelectInteractionEvent event, String name) {
+        if (ackBudget <= 0) {
+            return event;
+        }
+        Guard guard = new Guard(event, name, true);
+        guard.schedule();
+        return new WatchedEntitySelectInteractionEvent(event, guard);
+    }
+
+    /**
+     * Starts watching a modal interaction. A modal opened from a message is deferred like a component, one opened
+     * from a command has no message to keep and gets a deferred reply.
+     *
+     * @param event The {@link ModalInteractionEvent} to watch
+     * @param name  The name of the component handler, used for the fallback counts
+     * @return The event to pass to the handler
+     */
+    public static ModalInteractionEvent watch(ModalInteractionEvent event, String name) {
+        if (ackBudget <= 0) {
+            return event;
+        }
+        Guard guard = new Guard(event, name, event.getMessage() != null);
+        guard.schedule();
+        return new WatchedModalInteractionEvent(event, guard);
+    }
+
+    /**
+     * @param name The name of a command or interaction
+     * @return How often the watchdog had to defer the reply of the command since startup
+     */
+    public static long getFallbackCount(String name) {
+        LongAdder count = fallbacks.get(name);
+        return count != null ? count.sum() : 0;
+    }
+
+    /**
+     * @return How often the watchdog had to defer the reply, per command or interaction name
+     */
+    public static Map<String, Long> getFallbackCounts() {
+        Map<String, Long> counts = new HashMap<>();
+        fallbacks.forEach((name, count) -> counts.put(name, count.sum()));
+        return counts;
+    }
+
+    /**
+     * The watch over one interaction. Its monitor decides who acknowledges the interaction: either the deferral of
+     * the watchdog or a reply of the handler, never both. The monitor is only held to make that decision, the
+     * requests themselves are sent after it is released, so a blocking reply never holds up the watchdog thread.
+     */
+    private static final class Guard {
+
+        private final IReplyCallback event;
+        private final String name;
+        private final boolean deferEdit;
+        private ScheduledFuture<?> deferral;
+        private CompletableFuture<InteractionHook> deferred;
+        private boolean replied;
+
+        private Guard(IReplyCallback event, String name) {
+            this(event, name, false);
+        }
+
+        /**
+         * @param deferEdit True to defer with {@code deferEdit()}, the event has to be an {@link IMessageEditCallback}
+         */
+        private Guard(IReplyCallback event, String name, boolean deferEdit) {
+            this.event = event;
+            this.name = name;
+            this.deferEdit = deferEdit;
+        }
+
+        private synchronized void schedule() {
+            long createdAt = (event.getIdLong() >>> 22) + DISCORD_EPOCH;
+            long delay = Math.max(0, createdAt + ackBudget - System.currentTimeMillis());
+            deferral = watchdogExecutor.schedule(this::deferIfSilent, delay, TimeUnit.MILLISECONDS);
+        }
+
+        private void deferIfSilent() {
+            CompletableFuture<InteractionHook> deferredReply = new CompletableFuture<>();
+            synchronized (this) {
+                if (replied || deferred != null || event.isAcknowledged()) {
+                    return;
+                }
+                deferred = deferredReply;
+            }
+            RestAction<InteractionHook> deferAction = deferEdit ? ((IMessageEditCallback) event).deferEdit() : event.deferReply(deferEphemeral);
+            deferAction.queue(deferredReply::complete, throwable -> {
+                logger.warn("Failed to defer the reply of {}", name, throwable);
+                deferredReply.completeExceptionally(throwable);
+            });
+            fallbacks.computeIfAbsent(name, key -> new LongAdder()).increment();
+            logger.debug("{} did not respond within {} ms, deferred its reply", name, ackBudget);
+        }
+
+        /**
+         * Claims the acknowledgement for a reply of the handler.
+         *
+         * @return null if the handler may reply, otherwise the deferral of the watchdog, the reply has to be sent as an
+         *         edit once it is done
+         */
+        private synchronized CompletableFuture<InteractionHook> claimReply() {
+            if (deferred == null) {
+                replied = true;
+            }
+            return deferred;
+        }
+
+        /**
+         * Called once the reply of the handler was handed to JDA, the deferral is not needed anymore.
+         */
+        private void replySent() {
+            ScheduledFuture<?> future;
+            synchronized (this) {
+                future = deferral;
+            }
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+
+        /**
+         * Called if the reply of the handler could not even be created, the watchdog may defer again.
+         */
+        private synchronized void releaseReply() {
+            replied = false;
+        }
+
+        /**
+         * Wraps a reply of the handler, so it turns into an edit of the deferred message, or a follow-up message after
+         * a {@code deferEdit()}, if the watchdog was faster.
+         */
+        private ReplyCallbackAction wrap(ReplyCallbackAction action) {
+            return (ReplyCallbackAction) Proxy.newProxyInstance(ReplyCallbackAction.class.getClassLoader(),
+                    new Class<?>[]{ReplyCallbackAction.class}, new DeferredReplyHandler(this, action));
+        }
+
+        /**
+         * Wraps an edit of the handler, so it turns into an edit of the original message if the watchdog was faster.
+         */
+        private MessageEditCallbackAction wrap(MessageEditCallbackAction action) {
+            return (MessageEditCallbackAction) Proxy.newProxyInstance(MessageEditCallbackAction.class.getClassLoader(),
+                    new Class<?>[]{MessageEditCallbackAction.class}, new DeferredEditHandler(this, action));
+        }
+    }
+
+    /**
+     * Forwards every call to the real callback. The terminal calls, which all other ways of sending end in, are sent
+     * as a late action instead once the interaction has been deferred by the watchdog.
+     */
+    private abstract static class DeferredCallbackHandler implements InvocationHandler {
+
+        final Guard guard;
+        private final Object action;
+
+        private DeferredCallbackHandler(Guard guard, Object action) {
+            this.guard = guard;
+            this.action = action;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.isDefault()) {
+                return InvocationHandler.invokeDefault(proxy, method, args);
+            }
+            switch (method.getName()) {
+                case "queue", "submit", "complete" -> {
+                    CompletableFuture<InteractionHook> deferral = guard.claimReply();
+                    if (deferral != null) {
+                        // The late action is only valid once Discord has the deferral, so it waits for it
+                        RestAction<InteractionHook> late = lateAction();
+                        return switch (method.getName()) {
+                            case "queue" -> {
+                                Consumer<? super Throwable> failure = (Consumer<? super Throwable>) args[1];
+                                deferral.whenComplete((hook, throwable) -> {
+                                    if (throwable == null) {
+                                        late.queue((Consumer<? super InteractionHook>) args[0], failure);
+                                    } else if (failure != null) {
+                                        failure.accept(throwable);
+                                    }
+                                });
+                                yield null;
+                            }
+                            case "submit" -> deferral.thenCompose(hook -> late.submit((boolean) args[0]));
+                            default -> {
+                                deferral.join();
+                                yield late.complete((boolean) args[0]);
+                            }
+                        };
+                    }
+                    Object result;
+                    try {
+                        result = forward(proxy, method, args);
+                    } catch (Throwable throwable) {
+                        if (!guard.event.isAcknowledged()) {
+                            guard.releaseReply();
+                        }
+                        throw throwable;
+                    }
+                    guard.replySent();
+                    return result;
+                }
+                default -> {
+                    called(method, args);
+                    return forward(proxy, method, args);
+                }
+            }
+        }
+
+        private Object forward(Object proxy, Method method, Object[] args) throws Throwable {
+            try {
+                Object result = method.invoke(action, args);
+                return result == action ? proxy : result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        /**
+         * Called for every call that is not terminal, before it is forwarded.
+         */
+        void called(Method method, Object[] args) {
+        }
+
+        /**
+         * @return What the callback is sent as after the deferral of the watchdog
+         */
+        abstract RestAction<InteractionHook> lateAction();
+    }
+
+    /**
+     * A reply turns into an edit of the deferred reply, or into a follow-up message after a {@code deferEdit()}.
+     */
+    private static final class DeferredReplyHandler extends DeferredCallbackHandler {
+
+        private final ReplyCallbackAction action;
+        private boolean ephemeral;
+
+        private DeferredReplyHandler(Guard guard, ReplyCallbackAction action) {
+            super(guard, action);
+            this.action = action;
+        }
+
+        @Override
+        void called(Method method, Object[] args) {
+            if (method.getName().equals("setEphemeral")) {
+                ephemeral = (boolean) args[0];
+            }
+        }
+
+        @Override
+        RestAction<InteractionHook> lateAction() {
+            InteractionHook hook = guard.event.getHook();
+            if (action.getContent().isBlank() && action.getEmbeds().isEmpty() && action.getComponents().isEmpty() && action.getAttachments().isEmpty()) {
+                // A plain deferReply of the handler, the watchdog already acknowledged the interaction
+                return new CompletedAction(hook);
+            }
+            if (guard.deferEdit) {
+                MessageCreateData message = new MessageCreateBuilder()
+                        .setContent(action.getContent())
+                        .setEmbeds(action.getEmbeds())
+                        .setComponents(action.getComponents())
+                        .setFiles(action.getAttachments())
+                        .setAllowedMentions(action.getAllowedMentions())
+                        .mentionUsers(action.getMentionedUsers())
+                        .mentionRoles(action.getMentionedRoles())
+                        .build();
+                return hook.sendMessage(message).setEphemeral(ephemeral).map(sent -> hook);
+            }
+            MessageEditBuilder builder = new MessageEditBuilder()
+                    .setContent(action.getContent())
+                    .setEmbeds(action.getEmbeds())
+                    .setComponents(action.getComponents())
+                    .setFiles(action.getAttachments())
+                    .setAllowedMentions(action.getAllowedMentions())
+                    .mentionUsers(action.getMentionedUsers())
+                    .mentionRoles(action.getMentionedRoles());
+            return hook.editOriginal(builder.build()).map(message -> hook);
+        }
+    }
+
+    /**
+     * An edit of the message of a component turns into an edit of the original message. An edit only changes the
+     * fields that were set on it, so the calls setting them are replayed on a {@link MessageEditBuilder}.
+     */
+    private static final class DeferredEditHandler extends DeferredCallbackHandler {
+
+        private final List<Method> methods = new ArrayList<>();
+        private final List<Object[]> arguments = new ArrayList<>();
+
+        private DeferredEditHandler(Guard guard, MessageEditCallbackAction action) {
+            super(guard, action);
+        }
+
+        @Override
+        void called(Method method, Object[] args) {
+            if (method.getDeclaringClass().isAssignableFrom(MessageEditBuilder.class)) {
+                methods.add(method);
+                arguments.add(args);
+            }
+        }
+
+        @Override
+        RestAction<InteractionHook> lateAction() {
+            InteractionHook hook = guard.event.getHook();
+            if (methods.isEmpty()) {
+                // A plain deferEdit of the handler, the watchdog already acknowledged the interaction
+                return new CompletedAction(hook);
+            }
+            MessageEditBuilder builder = new MessageEditBuilder();
+            try {
+                for (int i = 0; i < methods.size(); i++) {
+                    methods.get(i).invoke(builder, arguments.get(i));
+                }
+            } catch (InvocationTargetException e) {
+                throw new IllegalStateException("Could not replay the edit of " + guard.name, e.getCause());
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Could not replay the edit of " + guard.name, e);
+            }
+            return hook.editOriginal(builder.build()).map(message -> hook);
+        }
+    }
+
+    /**
+     * A {@link RestAction} that is already done, returned for a deferral that the watchdog has already sent.
+     */
+    private record CompletedAction(InteractionHook hook) implements RestAction<InteractionHook> {
+
+        @Override
+        public JDA getJDA() {
+            return hook.getJDA();
+        }
+
+        @Override
+        public RestAction<InteractionHook> setCheck(BooleanSupplier checks) {
+            return this;
+        }
+
+        @Override
+        public void queue(Consumer<? super InteractionHook> success, Consumer<? super Throwable> failure) {
+            if (success != null) {
+                success.accept(hook);
+            }
+        }
+
+        @Override
+        public InteractionHook complete(boolean shouldQueue) {
+            return hook;
+        }
+
+        @Override
+        public CompletableFuture<InteractionHook> submit(boolean shouldQueue) {
+            return CompletableFuture.completedFuture(hook);
+        }
+    }
+
+    private static final class WatchedSlashCommandInteractionEvent extends SlashCommandInteractionEvent {
+
+        private final Guard guard;
+
+        private WatchedSlashCommandInteractionEvent(SlashCommandInteractionEvent event, Guard guard) {
+            super(event.getJDA(), event.getResponseNumber(), event.getInteraction());
+            this.guard = guard;
+        }
+
+        @Override
+        public ReplyCallbackAction deferReply() {
+            return guard.wrap(super.deferReply());
+        }
+
+        @Override
+        public ReplyCallbackAction reply(MessageCreateData message) {
+            return deferReply().applyData(message);
+        }
+    }
+
+    private static final class WatchedMessageContextInteractionEvent extends MessageContextInteractionEvent {
+
+        private final Guard guard;
+
+        private WatchedMessageContextInteractionEvent(MessageContextInteractionEvent event, Guard guard) {
+            super(event.getJDA(), event.getResponseNumber(), event.getInteraction());
+            this.guard = guard;
+        }
+
+        @Override
+        public ReplyCallbackAction deferReply() {
+            return guard.wrap(super.deferReply());
+        }
+
+        @Override
+        public ReplyCallbackAction reply(MessageCreateData message) {
+            return deferReply().applyData(message);
+        }
+    }
+
+    private static final class WatchedUserContextInteractionEvent extends UserContextInteractionEvent {
+
+        private final Guard guard;
+
+        private WatchedUserContextInteractionEvent(UserContextInteractionEvent event, Guard guard) {
+            super(event.getJDA(), event.getResponseNumber(), event.getInteraction());
+            this.guard = guard;
+        }
+
+        @Override
+        public ReplyCallbackAction deferReply() {
+            return guard.wrap(super.deferReply());
+        }
+
+        @Override
+        public ReplyCallbackAction reply(MessageCreateData message) {
+            return deferReply().applyData(message);
+        }
+    }
+
+    private static final class WatchedButtonInteractionEvent extends ButtonInteractionEvent {
+
+        private final Guard guard;
+
+        private WatchedButtonInteractionEvent(ButtonInteractionEvent event, Guard guard) {
+            super(event.getJDA(), event.getResponseNumber(), event.getInteraction());
+            this.guard = guard;
+        }
+
+        @Override
+        public ReplyCallbackAction deferReply() {
+            return guard.wrap(super.deferReply());
+        }
+
+        @Override
+        public ReplyCallbackAction reply(MessageCreateData message) {
+            return deferReply().applyData(message);
+        }
+
+        @Override
+        public MessageEditCallbackAction deferEdit() {
+            return guard.wrap(super.deferEdit());
+        }
+
+        @Override
+        public MessageEditCallbackAction editMessage(MessageEditData message) {
+            return deferEdit().applyData(message);
+        }
+    }
+
+    private static final class WatchedStringSelectInteractionEvent extends StringSelectInteractionEvent {
+
+        private final Guard guard;
+
+        private WatchedStringSelectInteractionEvent(StringSelectInteractionEvent event, Guard guard) {
+            super(event.getJDA(), event.getResponseNumber(), event.getInteraction());
+            this.guard = guard;
+        }
+
+        @Override
+        public ReplyCallbackAction deferReply() {
+            return guard.wrap(super.deferReply());
+        }
+
+        @Override
+        public ReplyCallbackAction reply(MessageCreateData message) {
+            return deferReply().applyData(message);
+        }
+
+        @Override
+        public MessageEditCallbackAction deferEdit() {
+            return guard.wrap(super.deferEdit());
+        }
+
+        @Override
+        public MessageEditCallbackAction editMessage(MessageEditData message) {
+            return deferEdit().applyData(message);
+        }
+    }
+
+    private static final class WatchedEntitySelectInteractionEvent extends EntitySelectInteractionEvent {
+
+        private final Guard guard;
+
+        private WatchedEntitySelectInteractionEvent(EntitySelectInteractionEvent event, Guard guard) {
+            super(event.getJDA(), event.getResponseNumber(), event.getInteraction());
+            this.guard = guard;
+        }
+
+        @Override
+        public ReplyCallbackAction deferReply() {
+            return guard.wrap(super.deferReply());
+        }
+
+        @Override
+        public ReplyCallbackAction reply(MessageCreateData message) {
+            return deferReply().applyData(message);
+        }
+
+        @Override
+        public MessageEditCallbackAction deferEdit() {
+            return guard.wrap(super.deferEdit());
+        }
+
+        @Override
+        public MessageEditCallbackAction editMessage(MessageEditData message) {
+            return deferEdit().applyData(message);
+        }
+    }
+
+    private static final class WatchedModalInteractionEvent extends ModalInteractionEvent {
+
+        private final Guard guard;
+
+        private WatchedModalInteractionEvent(ModalInteractionEvent event, Guard guard) {
+            super(event.getJDA(), event.getResponseNumber(), event.getInteraction());
+            this.guard = guard;
+        }
+
+        @Override
+        public ReplyCallbackAction deferReply() {
+            return guard.wrap(super.deferReply());
+        }
+
+        @Override
+        public ReplyCallbackAction reply(MessageCreateData message) {
+            return deferReply().applyData(message);
+        }
+
+        @Override
+        public MessageEditCallbackAction deferEdit() {
+            return guard.wrap(super.deferEdit());
+        }
+
+        @Override
+        public MessageEditCallbackAction editMessage(MessageEditData message) {
+            return deferEdit().applyData(message);
+        }
+    }
+}
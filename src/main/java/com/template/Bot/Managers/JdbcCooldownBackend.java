@@ -0,0 +1,297 @@
+package com.template.Bot.Managers;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * JdbcCooldownBackend
+ * <p>
+ *     A {@link CooldownBackend} that shares cooldowns between several bot processes through one MySQL table.
+ *     Every process keeps answering cooldown checks from its own {@link CooldownStore}, which acts as a near-cache:
+ * </p>
+ * <ul>
+ *     <li>Writes are coalesced by the journal of the store and flushed every {@value #FLUSH_INTERVAL_MS} ms as one
+ *     batched upsert, so an interaction never waits for a database round-trip.</li>
+ *     <li>Every {@value #PULL_INTERVAL_MS} ms the rows changed by other processes are merged into the store.</li>
+ *     <li>Every {@value #CLEANUP_INTERVAL_MS} ms rows that have expired are deleted.</li>
+ * </ul>
+ * <p>
+ *     How rows are combined depends on the {@link Cooldown.Mode} of the operation. A {@link Cooldown.Mode#FIXED}
+ *     lockout keeps the later end time, so concurrent writers converge on the longest one. For
+ *     {@link Cooldown.Mode#TOKEN_BUCKET} and {@link Cooldown.Mode#SLIDING_WINDOW} a row holds the uses of all
+ *     processes: a flush adds the uses of this process since the last flush to the row, in the same window for a
+ *     sliding window, and a pull derives the local entry from the row, see
+ *     {@link CooldownStore#merge(long, long, int, long, long, Cooldown)}. A limit of 5 uses is therefore shared by all
+ *     processes instead of granting 5 uses per process.
+ * </p>
+ * <p>
+ *     Between two flushes a target can still pass the cooldown once per process; that window is the price of not
+ *     having a synchronous round-trip on the hot path.
+ * </p>
+ */
+final class JdbcCooldownBackend implements CooldownBackend {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcCooldownBackend.class);
+
+    private static final long FLUSH_INTERVAL_MS = 250;
+    private static final long PULL_INTERVAL_MS = 1000;
+    private static final long CLEANUP_INTERVAL_MS = 5 * 60 * 1000;
+    // Rows are stamped with the clock of the writing process, so pulls look back a little to tolerate clock skew
+    private static final long CLOCK_SKEW_MS = 2000;
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_PENDING = 100_000;
+
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS cooldowns ("
+            + "target_id BIGINT NOT NULL, "
+            + "scope_id BIGINT NOT NULL, "
+            + "operation VARCHAR(100) NOT NULL, "
+            + "end_time BIGINT NOT NULL, "
+            + "state BIGINT NOT NULL, "
+            + "updated_at BIGINT NOT NULL, "
+            + "PRIMARY KEY (target_id, scope_id, operation), "
+            + "INDEX idx_cooldowns_updated_at (updated_at), "
+            + "INDEX idx_cooldowns_end_time (end_time))";
+    private static final String INSERT = "INSERT INTO cooldowns (target_id, scope_id, operation, end_time, state, updated_at) VALUES (?, ?, ?, ?, ?, ?) ";
+    // state is assigned before end_time, so it still compares against the old end_time
+    private static final String UPSERT_FIXED = INSERT + "ON DUPLICATE KEY UPDATE "
+            + "state = CASE WHEN VALUES(end_time) >= end_time THEN VALUES(state) ELSE state END, "
+            + "end_time = GREATEST(end_time, VALUES(end_time)), "
+            + "updated_at = VALUES(updated_at)";
+    // Every use of this process moves the theoretical arrival time of the row by one period: now, uses * period
+    private static final String UPSERT_TOKEN_BUCKET = INSERT + "ON DUPLICATE KEY UPDATE "
+            + "end_time = GREATEST(end_time, ?) + ?, "
+            + "updated_at = VALUES(updated_at)";
+    // end_time is the start of the window plus two windows, state packs the uses of the previous and the current window
+    // The uses of this process are added to the window they were made in: uses, period, uses, uses, period, uses
+    private static final String UPSERT_SLIDING_WINDOW = INSERT + "ON DUPLICATE KEY UPDATE "
+            + "state = CASE "
+            + "WHEN VALUES(end_time) = end_time THEN state + ? "
+            + "WHEN VALUES(end_time) = end_time + ? THEN MOD(state, 4294967296) * 4294967296 + ? "
+            + "WHEN VALUES(end_time) > end_time THEN ? "
+            + "WHEN end_time - ? = VALUES(end_time) THEN state + ? * 4294967296 "
+            + "ELSE state END, "
+            + "end_time = GREATEST(end_time, VALUES(end_time)), "
+            + "updated_at = VALUES(updated_at)";
+    private static final String SELECT_CHANGED = "SELECT target_id, scope_id, operation, end_time, state, updated_at FROM cooldowns WHERE updated_at >= ? AND end_time > ?";
+    private static final String DELETE_EXPIRED = "DELETE FROM cooldowns WHERE end_time <= ?";
+
+    private final ConnectionFactory connectionFactory;
+    private final CooldownStore store;
+
+    private Connection connection;
+    private long lastPulledUpdate;
+    private long lastPull;
+    private long lastCleanup;
+
+    private long[] pendingTargetIds = new long[256];
+    private long[] pendingScopeIds = new long[256];
+    private int[] pendingSlots = new int[256];
+    private long[] pendingEndTimes = new long[256];
+    private long[] pendingStates = new long[256];
+    private int[] pendingUses = new int[256];
+    private int pendingSize;
+
+    /**
+     * @param connectionFactory Opens the connection to the database, see {@link com.template.Database.MySQL#createConnection(String)}
+     * @param store             The {@link CooldownStore} to share
+     */
+    JdbcCooldownBackend(ConnectionFactory connectionFactory, CooldownStore store) {
+        this.connectionFactory = connectionFactory;
+        this.store = store;
+    }
+
+    @Override
+    public String getName() {
+        return "mysql";
+    }
+
+    @Override
+    public long getFlushInterval() {
+        return FLUSH_INTERVAL_MS;
+    }
+
+    @Override
+    public synchronized int load(long now) throws SQLException {
+        try (Statement statement = connection().createStatement()) {
+            statement.executeUpdate(CREATE_TABLE);
+        }
+        connection.commit();
+        int loaded = pull(0, now);
+        lastPull = now;
+        lastCleanup = now;
+        store.setJournaling(true);
+        return loaded;
+    }
+
+    @Override
+    public synchronized void flush(long now) throws SQLException {
+        store.drainJournal(this::addPending);
+        try {
+            if (pendingSize > 0) {
+                write(now);
+            }
+            if (now - lastPull >= PULL_INTERVAL_MS) {
+                pull(lastPulledUpdate - CLOCK_SKEW_MS, now);
+                lastPull = now;
+            }
+            if (now - lastCleanup >= CLEANUP_INTERVAL_MS) {
+                try (PreparedStatement statement = connection().prepareStatement(DELETE_EXPIRED)) {
+                    statement.setLong(1, now);
+                    int deleted = statement.executeUpdate();
+                    connection.commit();
+                    logger.debug("Deleted {} expired cooldown rows", deleted);
+                }
+                lastCleanup = now;
+            }
+        } catch (SQLException e) {
+            // Reconnect on the next flush, the pending writes are kept until then
+            closeConnection();
+            if (pendingSize > MAX_PENDING) {
+                logger.warn("Dropping {} pending cooldown writes while the database is unavailable", pendingSize);
+                pendingSize = 0;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        store.drainJournal(this::addPending);
+        try {
+            if (pendingSize > 0) {
+                write(CooldownStore.currentTimeMillis());
+            }
+        } catch (SQLException e) {
+            logger.error("Failed to write {} cooldowns on shutdown", pendingSize, e);
+        }
+        closeConnection();
+        store.setJournaling(false);
+    }
+
+    private void write(long now) throws SQLException {
+        Connection connection = connection();
+        try (PreparedStatement fixed = connection.prepareStatement(UPSERT_FIXED);
+             PreparedStatement tokenBucket = connection.prepareStatement(UPSERT_TOKEN_BUCKET);
+             PreparedStatement slidingWindow = connection.prepareStatement(UPSERT_SLIDING_WINDOW)) {
+            int[] batched = new int[3];
+            for (int i = 0; i < pendingSize; i++) {
+                String operation = Cooldown.nameOf(pendingSlots[i]);
+                if (operation == null) {
+                    continue;
+                }
+                Cooldown cooldown = Cooldown.cooldownOf(pendingSlots[i]);
+                Cooldown.Mode mode = cooldown != null ? cooldown.mode() : Cooldown.Mode.FIXED;
+                long period = cooldown != null ? cooldown.getTimeInMS() : 0;
+                long uses = pendingUses[i];
+                PreparedStatement statement = switch (mode) {
+                    case TOKEN_BUCKET -> {
+                        tokenBucket.setLong(7, now);
+                        tokenBucket.setLong(8, uses * period);
+                        yield tokenBucket;
+                    }
+                    case SLIDING_WINDOW -> {
+                        slidingWindow.setLong(7, uses);
+                        slidingWindow.setLong(8, period);
+                        slidingWindow.setLong(9, uses);
+                        slidingWindow.setLong(10, uses);
+                        slidingWindow.setLong(11, period);
+                        slidingWindow.setLong(12, uses);
+                        yield slidingWindow;
+                    }
+                    default -> fixed;
+                };
+                statement.setLong(1, pendingTargetIds[i]);
+                statement.setLong(2, pendingScopeIds[i]);
+                statement.setString(3, operation);
+                statement.setLong(4, pendingEndTimes[i]);
+                statement.setLong(5, pendingStates[i]);
+                statement.setLong(6, now);
+                statement.addBatch();
+                if (++batched[mode.ordinal()] % BATCH_SIZE == 0) {
+                    statement.executeBatch();
+                }
+            }
+            fixed.executeBatch();
+            tokenBucket.executeBatch();
+            slidingWindow.executeBatch();
+        }
+        connection.commit();
+        pendingSize = 0;
+    }
+
+    private int pull(long since, long now) throws SQLException {
+        int merged = 0;
+        try (PreparedStatement statement = connection().prepareStatement(SELECT_CHANGED)) {
+            statement.setLong(1, since);
+            statement.setLong(2, now);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    int slot = Cooldown.slotOf(resultSet.getString(3));
+                    store.merge(resultSet.getLong(1), resultSet.getLong(2), slot, resultSet.getLong(4), resultSet.getLong(5), Cooldown.cooldownOf(slot));
+                    lastPulledUpdate = Math.max(lastPulledUpdate, resultSet.getLong(6));
+                    merged++;
+                }
+            }
+        }
+        connection.commit();
+        return merged;
+    }
+
+    /**
+     * Collects a changed entry from the journal. Runs under a stripe lock, so it only copies primitives.
+     */
+    private void addPending(long targetId, long scopeId, int slot, long endTime, long state, int uses) {
+        if (pendingSize == pendingSlots.length) {
+            int capacity = pendingSize * 2;
+            pendingTargetIds = Arrays.copyOf(pendingTargetIds, capacity);
+            pendingScopeIds = Arrays.copyOf(pendingScopeIds, capacity);
+            pendingSlots = Arrays.copyOf(pendingSlots, capacity);
+            pendingEndTimes = Arrays.copyOf(pendingEndTimes, capacity);
+            pendingStates = Arrays.copyOf(pendingStates, capacity);
+            pendingUses = Arrays.copyOf(pendingUses, capacity);
+        }
+        pendingTargetIds[pendingSize] = targetId;
+        pendingScopeIds[pendingSize] = scopeId;
+        pendingSlots[pendingSize] = slot;
+        pendingEndTimes[pendingSize] = endTime;
+        pendingStates[pendingSize] = state;
+        pendingUses[pendingSize] = uses;
+        pendingSize++;
+    }
+
+    private Connection connection() throws SQLException {
+        if (connection == null || connection.isClosed()) {
+            connection = connectionFactory.open();
+            connection.setAutoCommit(false);
+        }
+        return connection;
+    }
+
+    private void closeConnection() {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.debug("Failed to close the cooldown connection", e);
+        }
+        connection = null;
+    }
+
+    /**
+     * Opens the {@link Connection} used by the backend. Lets the backend run against any JDBC database that
+     * understands the MySQL upsert syntax.
+     */
+    @FunctionalInterface
+    interface ConnectionFactory {
+        Connection open() throws SQLException;
+    }
+}
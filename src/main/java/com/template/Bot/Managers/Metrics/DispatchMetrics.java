@@ -0,0 +1,178 @@
+package com.template.Bot.Managers.Metrics;
+
+import net.dv8tion.jda.api.interactions.Interaction;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * DispatchMetrics
+ * <p>
+ *     Records how long the dispatch of every slash command, context interaction and component takes, from the
+ *     arrival of the event until the handler returned or the user was told why it did not run. Every
+ *     {@link Kind}, name, shard and {@link Outcome} has its own {@link LatencyHistogram}, created on its first use.
+ *     Once it exists, recording is a map lookup by name and a counter increment, without locks or allocations.
+ * </p>
+ * <p>
+ *     Interactions without a registered handler are recorded under the name {@value #UNKNOWN}, so stale or forged
+ *     names can not add series.
+ * </p>
+ */
+public final class DispatchMetrics {
+
+    /**
+     * The name interactions without a registered handler are recorded under.
+     */
+    public static final String UNKNOWN = "unknown";
+
+    private static final Outcome[] OUTCOMES = Outcome.values();
+
+    // Filled once for every kind and only read afterwards, so the EnumMap needs no synchronization
+    private static final Map<Kind, Map<String, Series>> series = new EnumMap<>(Kind.class);
+
+    static {
+        for (Kind kind : Kind.values()) {
+            series.put(kind, new ConcurrentHashMap<>());
+        }
+    }
+
+    private DispatchMetrics() {
+    }
+
+    /**
+     * Records a finished dispatch.
+     *
+     * @param kind         What was dispatched
+     * @param name         The default name of the command, interaction or component handler
+     * @param interaction  The dispatched interaction, its shard is recorded
+     * @param outcome      How the dispatch ended
+     * @param dispatchedAt The {@link System#nanoTime()} the event arrived at
+     */
+    public static void record(Kind kind, String name, Interaction interaction, Outcome outcome, long dispatchedAt) {
+        long nanos = System.nanoTime() - dispatchedAt;
+        int shardId = interaction.getJDA().getShardInfo().getShardId();
+        Map<String, Series> byName = series.get(kind);
+        Series named = byName.get(name);
+        if (named == null) {
+            named = byName.computeIfAbsent(name, Series::new);
+        }
+        named.histogram(shardId, outcome).record(nanos);
+    }
+
+    /**
+     * @param kind What was dispatched
+     * @return The series of the kind by name
+     */
+    public static Map<String, Series> getSeries(Kind kind) {
+        return series.get(kind);
+    }
+
+    /**
+     * The histograms of one command, interaction or component handler, by shard and outcome.
+     */
+    public static final class Series {
+
+        private final String name;
+        private volatile LatencyHistogram[] histograms = new LatencyHistogram[OUTCOMES.length];
+
+        private Series(String name) {
+            this.name = name;
+        }
+
+        /**
+         * @return The name of the command, interaction or component handler
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @param shardId The shard
+         * @param outcome The outcome
+         * @return The histogram of the shard and outcome, or null if nothing was recorded for them
+         */
+        public LatencyHistogram getHistogram(int shardId, Outcome outcome) {
+            LatencyHistogram[] current = histograms;
+            int index = shardId * OUTCOMES.length + outcome.ordinal();
+            return index < current.length ? current[index] : null;
+        }
+
+        /**
+         * @return The highest shard id recorded so far plus one
+         */
+        public int getShardSlots() {
+            return histograms.length / OUTCOMES.length;
+        }
+
+        private LatencyHistogram histogram(int shardId, Outcome outcome) {
+            LatencyHistogram histogram = getHistogram(shardId, outcome);
+            return histogram != null ? histogram : create(shardId, outcome);
+        }
+
+        /**
+         * Copies the array on growth, so readers and recorders never see a half filled one.
+         */
+        private synchronized LatencyHistogram create(int shardId, Outcome outcome) {
+            int index = shardId * OUTCOMES.length + outcome.ordinal();
+            LatencyHistogram[] current = histograms;
+            if (index < current.length && current[index] != null) {
+                return current[index];
+            }
+            LatencyHistogram[] updated = Arrays.copyOf(current, Math.max(current.length, (shardId + 1) * OUTCOMES.length));
+            LatencyHistogram histogram = new LatencyHistogram();
+            updated[index] = histogram;
+            histograms = updated;
+            return histogram;
+        }
+    }
+
+    /**
+     * Dispatch Kind
+     * <p>
+     *     COMMAND: A slash command
+     *     INTERACTION: A message or user context interaction
+     *     COMPONENT: A button, select menu or modal
+     *    </p>
+     */
+    public enum Kind {
+
+        COMMAND,
+        INTERACTION,
+        COMPONENT;
+
+        /**
+         * @return The label value of the kind
+         */
+        public String getLabel() {
+            return name().toLowerCase();
+        }
+    }
+
+    /**
+     * Dispatch Outcome
+     * <p>
+     *     OK: The handler returned normally
+     *     COOLDOWN: The user was told to wait for the cooldown
+     *     BUSY: The bulkhead of the command was full
+     *     ERROR: The handler threw an exception
+     *     NOT_FOUND: No handler is registered for the name
+     *    </p>
+     */
+    public enum Outcome {
+
+        OK,
+        COOLDOWN,
+        BUSY,
+        ERROR,
+        NOT_FOUND;
+
+        /**
+         * @return The label value of the outcome
+         */
+        public String getLabel() {
+            return name().toLowerCase();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.template.Bot.Managers.Metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * LatencyHistogram
+ * <p>
+ *     A histogram of latencies in nanoseconds with log-linear buckets, the layout of HdrHistogram: every power of two
+ *     is split into 16 equal buckets, so a recorded value is off by at most 1/16 of itself, from a microsecond to
+ *     hours. Recording increments one counter of a preallocated array, it neither locks nor allocates, so it can be
+ *     called on every dispatch without distorting the latency it measures.
+ * </p>
+ * <p>
+ *     Reading is not atomic over all buckets, a snapshot taken during recording may miss the last few values.
+ * </p>
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+    private static final int MAX_SHIFT = 38;
+    private static final int BUCKETS = SUB_BUCKETS + MAX_SHIFT * HALF_SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong sum = new AtomicLong();
+
+    /**
+     * @param nanos The latency to record, negative values count as 0
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(indexOf(value));
+        sum.addAndGet(value);
+    }
+
+    /**
+     * @return The number of recorded values
+     */
+    public long count() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * @return The sum of the recorded values in nanoseconds
+     */
+    public long sum() {
+        return sum.get();
+    }
+
+    /**
+     * @param nanos The upper bound in nanoseconds
+     * @return The number of recorded values whose bucket lies at or below the bound
+     */
+    public long countAtOrBelow(long nanos) {
+        long count = 0;
+        for (int i = 0; i < BUCKETS && highestValueOf(i) <= nanos; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * @param quantile The quantile between 0 and 1
+     * @return The highest value of the bucket the quantile falls into, 0 if nothing was recorded
+     */
+    public long valueAtQuantile(double quantile) {
+        long total = count();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return highestValueOf(i);
+            }
+        }
+        return highestValueOf(BUCKETS - 1);
+    }
+
+    /**
+     * Values below {@link #SUB_BUCKETS} have a bucket each, above that the highest {@link #SUB_BUCKET_BITS} bits
+     * select the bucket within the power of two. Values beyond the last bucket are counted in it.
+     */
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 64 - SUB_BUCKET_BITS - Long.numberOfLeadingZeros(value);
+        if (shift > MAX_SHIFT) {
+            return BUCKETS - 1;
+        }
+        return SUB_BUCKETS + (shift - 1) * HALF_SUB_BUCKETS + (int) (value >>> shift) - HALF_SUB_BUCKETS;
+    }
+
+    private static long highestValueOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / HALF_SUB_BUCKETS + 1;
+        long subBucket = (index - SUB_BUCKETS) % HALF_SUB_BUCKETS + HALF_SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
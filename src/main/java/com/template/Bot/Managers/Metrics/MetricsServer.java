@@ -0,0 +1,272 @@
+package com.template.Bot.Managers.Metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.template.Bot.Bot;
+import com.template.Bot.Managers.Cache.EntityCache;
+import com.template.Bot.Managers.CommandExecutor;
+import com.template.Bot.Managers.Cooldown;
+import com.template.Bot.Managers.InteractionWatchdog;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.sharding.ShardManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+/**
+ * MetricsServer
+ * <p>
+ *     Serves the {@link DispatchMetrics}, the {@link RestMetrics} and the counters of the caches, cooldowns and
+ *     executor in the Prometheus text format on {@code /metrics}. The server runs on a single daemon thread, a
+ *     scrape renders everything from the live counters and never blocks the recording threads.
+ * </p>
+ * <p>
+ *     The host and port are set with {@code metrics.host} and {@code metrics.port} in discord.properties. The
+ *     endpoint has no authentication, keep it on loopback or a private network.
+ * </p>
+ */
+public final class MetricsServer {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetricsServer.class);
+
+    private static final long[] BUCKET_BOUNDS = {
+            100_000L, 250_000L, 500_000L,
+            1_000_000L, 2_500_000L, 5_000_000L,
+            10_000_000L, 25_000_000L, 50_000_000L,
+            100_000_000L, 250_000_000L, 500_000_000L,
+            1_000_000_000L, 2_500_000_000L, 5_000_000_000L, 10_000_000_000L};
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final HttpServer server;
+
+    private MetricsServer(HttpServer server) {
+        this.server = server;
+    }
+
+    /**
+     * Starts the server.
+     *
+     * @param host The address to listen on
+     * @param port The port to listen on
+     * @return The running server
+     * @throws IOException If the port can not be bound
+     */
+    public static MetricsServer start(String host, int port) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        server.createContext("/metrics", MetricsServer::handle);
+        server.setExecutor(Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Metrics-Server");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        server.start();
+        logger.info("Serving metrics on http://{}:{}/metrics", host, port);
+        return new MetricsServer(server);
+    }
+
+    /**
+     * Stops the server, scrapes in progress are given a second to finish.
+     */
+    public void stop() {
+        server.stop(1);
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = render().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Rendering the metrics failed", e);
+            throw e;
+        }
+    }
+
+    /**
+     * @return All metrics in the Prometheus text format
+     */
+    public static String render() {
+        StringBuilder out = new StringBuilder(16 * 1024);
+        renderDispatch(out);
+        renderQuantiles(out);
+
+        out.append("# HELP discord_executor_running Handlers running on virtual threads\n");
+        out.append("# TYPE discord_executor_running gauge\n");
+        out.append("discord_executor_running ").append(CommandExecutor.getRunningCount()).append('\n');
+
+        out.append("# HELP discord_cooldowns_live Cooldown entries in memory\n");
+        out.append("# TYPE discord_cooldowns_live gauge\n");
+        out.append("discord_cooldowns_live ").append(Cooldown.getLiveCooldownCount()).append('\n');
+        out.append("# HELP discord_cooldowns_evicted_total Expired cooldown entries evicted\n");
+        out.append("# TYPE discord_cooldowns_evicted_total counter\n");
+        out.append("discord_cooldowns_evicted_total ").append(Cooldown.getEvictedCooldownCount()).append('\n');
+
+        out.append("# HELP discord_watchdog_fallbacks_total Interactions the watchdog deferred because the handler was too slow\n");
+        out.append("# TYPE discord_watchdog_fallbacks_total counter\n");
+        for (Map.Entry<String, Long> entry : InteractionWatchdog.getFallbackCounts().entrySet()) {
+            out.append("discord_watchdog_fallbacks_total{name=\"").append(escape(entry.getKey())).append("\"} ").append(entry.getValue()).append('\n');
+        }
+
+        renderCache(out, "members", EntityCache.getMemberStats());
+        renderCache(out, "users", EntityCache.getUserStats());
+        out.append("# HELP discord_entity_fetches_total REST requests made for member and user lookups\n");
+        out.append("# TYPE discord_entity_fetches_total counter\n");
+        out.append("discord_entity_fetches_total ").append(EntityCache.getFetches()).append('\n');
+        out.append("# HELP discord_entity_fetches_coalesced_total Lookups that joined a request in flight\n");
+        out.append("# TYPE discord_entity_fetches_coalesced_total counter\n");
+        out.append("discord_entity_fetches_coalesced_total ").append(EntityCache.getCoalescedFetches()).append('\n');
+
+        renderRest(out);
+
+        ShardManager shardManager = Bot.getShardManager();
+        if (shardManager != null) {
+            out.append("# HELP discord_gateway_ping_seconds Heartbeat round trip of the shard\n");
+            out.append("# TYPE discord_gateway_ping_seconds gauge\n");
+            for (JDA shard : shardManager.getShardCache()) {
+                out.append("discord_gateway_ping_seconds{shard=\"").append(shard.getShardInfo().getShardId()).append("\"} ")
+                        .append(shard.getGatewayPing() / 1000.0).append('\n');
+            }
+        }
+        return out.toString();
+    }
+
+    private static void renderDispatch(StringBuilder out) {
+        out.append("# HELP discord_dispatch_seconds Time from the arrival of an interaction until it was handled\n");
+        out.append("# TYPE discord_dispatch_seconds histogram\n");
+        forEachHistogram((labels, histogram) -> {
+            for (long bound : BUCKET_BOUNDS) {
+                out.append("discord_dispatch_seconds_bucket{").append(labels).append(",le=\"").append(seconds(bound)).append("\"} ")
+                        .append(histogram.countAtOrBelow(bound)).append('\n');
+            }
+            long count = histogram.count();
+            out.append("discord_dispatch_seconds_bucket{").append(labels).append(",le=\"+Inf\"} ").append(count).append('\n');
+            out.append("discord_dispatch_seconds_sum{").append(labels).append("} ").append(seconds(histogram.sum())).append('\n');
+            out.append("discord_dispatch_seconds_count{").append(labels).append("} ").append(count).append('\n');
+        });
+    }
+
+    /**
+     * The quantiles over the whole uptime, exact to the bucket width of the {@link LatencyHistogram} rather than to
+     * the coarse buckets of the Prometheus histogram.
+     */
+    private static void renderQuantiles(StringBuilder out) {
+        out.append("# HELP discord_dispatch_quantile_seconds Dispatch time quantiles since startup\n");
+        out.append("# TYPE discord_dispatch_quantile_seconds gauge\n");
+        forEachHistogram((labels, histogram) -> {
+            for (double quantile : QUANTILES) {
+                out.append("discord_dispatch_quantile_seconds{").append(labels).append(",quantile=\"").append(quantile).append("\"} ")
+                        .append(seconds(histogram.valueAtQuantile(quantile))).append('\n');
+            }
+        });
+    }
+
+    private static void forEachHistogram(HistogramVisitor visitor) {
+        for (DispatchMetrics.Kind kind : DispatchMetrics.Kind.values()) {
+            for (DispatchMetrics.Series series : DispatchMetrics.getSeries(kind).values()) {
+                for (int shard = 0; shard < series.getShardSlots(); shard++) {
+                    for (DispatchMetrics.Outcome outcome : DispatchMetrics.Outcome.values()) {
+                        LatencyHistogram histogram = series.getHistogram(shard, outcome);
+                        if (histogram == null) {
+                            continue;
+                        }
+                        String labels = "kind=\"" + kind.getLabel() + "\",name=\"" + escape(series.getName())
+                                + "\",shard=\"" + shard + "\",outcome=\"" + outcome.getLabel() + "\"";
+                        visitor.visit(labels, histogram);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void renderRest(StringBuilder out) {
+        out.append("# HELP discord_rest_in_flight REST requests sent to Discord and not answered yet\n");
+        out.append("# TYPE discord_rest_in_flight gauge\n");
+        out.append("discord_rest_in_flight ").append(RestMetrics.getInFlightCount()).append('\n');
+
+        out.append("# HELP discord_rest_bucket_wait_seconds Time REST requests waited for their rate limit bucket\n");
+        out.append("# TYPE discord_rest_bucket_wait_seconds histogram\n");
+        for (RestMetrics.RouteStats stats : RestMetrics.getRoutes().values()) {
+            String labels = "route=\"" + escape(stats.getLabel()) + "\"";
+            LatencyHistogram histogram = stats.getBucketWait();
+            for (long bound : BUCKET_BOUNDS) {
+                out.append("discord_rest_bucket_wait_seconds_bucket{").append(labels).append(",le=\"").append(seconds(bound)).append("\"} ")
+                        .append(histogram.countAtOrBelow(bound)).append('\n');
+            }
+            long count = histogram.count();
+            out.append("discord_rest_bucket_wait_seconds_bucket{").append(labels).append(",le=\"+Inf\"} ").append(count).append('\n');
+            out.append("discord_rest_bucket_wait_seconds_sum{").append(labels).append("} ").append(seconds(histogram.sum())).append('\n');
+            out.append("discord_rest_bucket_wait_seconds_count{").append(labels).append("} ").append(count).append('\n');
+        }
+
+        out.append("# HELP discord_rest_requests_total REST attempts sent to Discord, retries included\n");
+        out.append("# TYPE discord_rest_requests_total counter\n");
+        for (RestMetrics.RouteStats stats : RestMetrics.getRoutes().values()) {
+            out.append("discord_rest_requests_total{route=\"").append(escape(stats.getLabel())).append("\"} ").append(stats.getRequests()).append('\n');
+        }
+        out.append("# HELP discord_rest_retries_total REST attempts that retried an earlier attempt\n");
+        out.append("# TYPE discord_rest_retries_total counter\n");
+        for (RestMetrics.RouteStats stats : RestMetrics.getRoutes().values()) {
+            out.append("discord_rest_retries_total{route=\"").append(escape(stats.getLabel())).append("\"} ").append(stats.getRetries()).append('\n');
+        }
+        out.append("# HELP discord_rest_rate_limited_total REST responses with status 429\n");
+        out.append("# TYPE discord_rest_rate_limited_total counter\n");
+        for (RestMetrics.RouteStats stats : RestMetrics.getRoutes().values()) {
+            for (RestMetrics.RateLimitScope scope : RestMetrics.RateLimitScope.values()) {
+                long count = stats.getRateLimited(scope);
+                if (count > 0) {
+                    out.append("discord_rest_rate_limited_total{route=\"").append(escape(stats.getLabel())).append("\",scope=\"")
+                            .append(scope.getLabel()).append("\"} ").append(count).append('\n');
+                }
+            }
+        }
+    }
+
+    private static void renderCache(StringBuilder out, String cache, EntityCache.Stats stats) {
+        String name = "discord_cache_" + cache;
+        out.append("# HELP ").append(name).append("_hits_total Lookups of ").append(cache).append(" answered by the cache\n");
+        out.append("# TYPE ").append(name).append("_hits_total counter\n");
+        out.append(name).append("_hits_total ").append(stats.hits()).append('\n');
+        out.append("# HELP ").append(name).append("_misses_total Lookups of ").append(cache).append(" the cache could not answer\n");
+        out.append("# TYPE ").append(name).append("_misses_total counter\n");
+        out.append(name).append("_misses_total ").append(stats.misses()).append('\n');
+        out.append("# HELP ").append(name).append("_evictions_total Cached ").append(cache).append(" dropped to make room\n");
+        out.append("# TYPE ").append(name).append("_evictions_total counter\n");
+        out.append(name).append("_evictions_total ").append(stats.evictions()).append('\n');
+        out.append("# HELP ").append(name).append("_expirations_total Cached ").append(cache).append(" dropped because their time to live passed\n");
+        out.append("# TYPE ").append(name).append("_expirations_total counter\n");
+        out.append(name).append("_expirations_total ").append(stats.expirations()).append('\n');
+        out.append("# HELP ").append(name).append("_size Cached ").append(cache).append("\n");
+        out.append("# TYPE ").append(name).append("_size gauge\n");
+        out.append(name).append("_size ").append(stats.size()).append('\n');
+        out.append("# HELP ").append(name).append("_weight Total weight of the cached ").append(cache).append("\n");
+        out.append("# TYPE ").append(name).append("_weight gauge\n");
+        out.append(name).append("_weight ").append(stats.weight()).append('\n');
+    }
+
+    private static String seconds(long nanos) {
+        return Double.toString(nanos / 1_000_000_000.0);
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    @FunctionalInterface
+    private interface HistogramVisitor {
+
+        void visit(String labels, LatencyHistogram histogram);
+    }
+}
@@ -0,0 +1,290 @@
+package com.template.Bot.Managers.Metrics;
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.requests.RestConfig;
+import net.dv8tion.jda.api.requests.RestRateLimiter;
+import net.dv8tion.jda.api.requests.Route;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * RestMetrics
+ * <p>
+ *     Measures the outbound REST requests of all shards at the rate limiter of JDA. The rate limiter of the
+ *     {@link RestConfig} is wrapped, so the buckets still work as before, while every request reports how long it
+ *     waited for its bucket, how often Discord answered 429 and how often it was retried. Requests are grouped by
+ *     their route template, e.g. {@code POST interactions/{interaction_id}/{interaction_token}/callback}, not by
+ *     the ids in it.
+ * </p>
+ * <p>
+ *     The wait of a request is the time from its enqueueing, or from the end of its last attempt if it is retried,
+ *     until the rate limiter executes it.
+ * </p>
+ * <p>
+ *     The requests in flight are counted by the HTTP client of the shards instead, from sending a request until its
+ *     response arrives. The rate limiter only gets the request back after JDA has already handled the response and
+ *     completed the callbacks of the caller.
+ * </p>
+ */
+public final class RestMetrics {
+
+    private static final Map<Route, RouteStats> routes = new ConcurrentHashMap<>();
+    private static final AtomicInteger inFlight = new AtomicInteger();
+
+    private RestMetrics() {
+    }
+
+    /**
+     * Wraps the rate limiter factory of the config with the instrumentation.
+     *
+     * @param config The config of the shards
+     * @return The same config
+     */
+    public static RestConfig instrument(RestConfig config) {
+        Function<? super RestRateLimiter.RateLimitConfig, ? extends RestRateLimiter> factory = config.getRateLimiterFactory();
+        return config.setRateLimiterFactory(rateLimitConfig -> new InstrumentedRateLimiter(factory.apply(rateLimitConfig)));
+    }
+
+    /**
+     * Creates the HTTP client of the shards with the defaults of JDA, instrumented to count the requests in flight.
+     *
+     * @return The builder of the HTTP client
+     */
+    public static OkHttpClient.Builder createHttpClientBuilder() {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequestsPerHost(25);
+        return instrument(new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(5, 10, TimeUnit.SECONDS))
+                .dispatcher(dispatcher));
+    }
+
+    /**
+     * Adds the counting of the requests in flight to an HTTP client.
+     *
+     * @param builder The builder of the HTTP client
+     * @return The same builder
+     */
+    public static OkHttpClient.Builder instrument(OkHttpClient.Builder builder) {
+        return builder.addInterceptor(chain -> {
+            inFlight.incrementAndGet();
+            try {
+                return chain.proceed(chain.request());
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * @return The number of requests that are sent to Discord right now
+     */
+    public static int getInFlightCount() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return The statistics of every route that was requested, by route
+     */
+    public static Map<Route, RouteStats> getRoutes() {
+        return routes;
+    }
+
+    private static RouteStats stats(Route route) {
+        RouteStats stats = routes.get(route);
+        return stats != null ? stats : routes.computeIfAbsent(route, RouteStats::new);
+    }
+
+    /**
+     * The statistics of one route.
+     */
+    public static final class RouteStats {
+
+        private final String label;
+        private final LatencyHistogram bucketWait = new LatencyHistogram();
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final AtomicLongArray rateLimited = new AtomicLongArray(RateLimitScope.values().length);
+
+        private RouteStats(Route route) {
+            this.label = route.getMethod() + " " + route.getRoute();
+        }
+
+        /**
+         * @return The method and template of the route
+         */
+        public String getLabel() {
+            return label;
+        }
+
+        /**
+         * @return The time requests waited for their bucket
+         */
+        public LatencyHistogram getBucketWait() {
+            return bucketWait;
+        }
+
+        /**
+         * @return The number of attempts sent to Discord, retries included
+         */
+        public long getRequests() {
+            return requests.sum();
+        }
+
+        /**
+         * @return The number of attempts that were retries of an earlier attempt
+         */
+        public long getRetries() {
+            return retries.sum();
+        }
+
+        /**
+         * @param scope The scope Discord reported
+         * @return The number of 429 responses of the scope
+         */
+        public long getRateLimited(RateLimitScope scope) {
+            return rateLimited.get(scope.ordinal());
+        }
+    }
+
+    /**
+     * Rate Limit Scope
+     * <p>
+     *     USER: The bucket of the bot was exhausted
+     *     GLOBAL: The global limit of the bot was exceeded
+     *     SHARED: The resource is limited for everyone, e.g. a busy channel
+     *     UNKNOWN: The response had no scope header, e.g. a 429 of Cloudflare
+     *    </p>
+     */
+    public enum RateLimitScope {
+
+        USER,
+        GLOBAL,
+        SHARED,
+        UNKNOWN;
+
+        public static RateLimitScope getScope(String scope) {
+            if (scope == null) {
+                return UNKNOWN;
+            }
+            return switch (scope.trim().toLowerCase()) {
+                case "user" -> USER;
+                case "global" -> GLOBAL;
+                case "shared" -> SHARED;
+                default -> UNKNOWN;
+            };
+        }
+
+        /**
+         * @return The label value of the scope
+         */
+        public String getLabel() {
+            return name().toLowerCase();
+        }
+    }
+
+    /**
+     * Passes every request to the rate limiter of JDA, wrapped so its attempts are measured.
+     */
+    private record InstrumentedRateLimiter(RestRateLimiter delegate) implements RestRateLimiter {
+
+        @Override
+        public void enqueue(Work work) {
+            delegate.enqueue(new TimedWork(work, stats(work.getRoute().getBaseRoute())));
+        }
+
+        @Override
+        public void stop(boolean shutdown, Runnable callback) {
+            delegate.stop(shutdown, callback);
+        }
+
+        @Override
+        public boolean isStopped() {
+            return delegate.isStopped();
+        }
+
+        @Override
+        public int cancelRequests() {
+            return delegate.cancelRequests();
+        }
+    }
+
+    /**
+     * A request that records each time the rate limiter executes it. The attempts of a request run one after
+     * another in the worker of its bucket, so the fields need no synchronization.
+     */
+    private static final class TimedWork implements RestRateLimiter.Work {
+
+        private final RestRateLimiter.Work work;
+        private final RouteStats stats;
+        private long waitingSince = System.nanoTime();
+        private int attempts;
+
+        private TimedWork(RestRateLimiter.Work work, RouteStats stats) {
+            this.work = work;
+            this.stats = stats;
+        }
+
+        @Override
+        public Response execute() {
+            stats.bucketWait.record(System.nanoTime() - waitingSince);
+            stats.requests.increment();
+            if (attempts++ > 0) {
+                stats.retries.increment();
+            }
+            try {
+                Response response = work.execute();
+                if (response != null && response.code() == 429) {
+                    stats.rateLimited.incrementAndGet(RateLimitScope.getScope(response.header(RestRateLimiter.SCOPE_HEADER)).ordinal());
+                }
+                return response;
+            } finally {
+                waitingSince = System.nanoTime();
+            }
+        }
+
+        @Override
+        public Route.CompiledRoute getRoute() {
+            return work.getRoute();
+        }
+
+        @Override
+        public JDA getJDA() {
+            return work.getJDA();
+        }
+
+        @Override
+        public boolean isSkipped() {
+            return work.isSkipped();
+        }
+
+        @Override
+        public boolean isDone() {
+            return work.isDone();
+        }
+
+        @Override
+        public boolean isPriority() {
+            return work.isPriority();
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return work.isCancelled();
+        }
+
+        @Override
+        public void cancel() {
+            work.cancel();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.template.Bot;
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.events.session.ReadyEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * StartupCoordinator
+ * <p>
+ *     Tracks which shards are ready and how long each of them took since the bot was started. Work that has to run
+ *     once per process, such as registering the commands, waits for {@link #awaitFirstShard()}, work that needs every
+ *     shard waits for {@link #awaitReady()}. Callbacks run on the event thread of the shard that completed the
+ *     future, so they must not block.
+ * </p>
+ */
+public class StartupCoordinator extends ListenerAdapter {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupCoordinator.class);
+
+    private final long startedAt = System.nanoTime();
+    private final int expectedShards;
+    private final Map<Integer, Duration> readyTimes = new ConcurrentHashMap<>();
+    private final Map<Integer, CompletableFuture<JDA>> shardFutures = new ConcurrentHashMap<>();
+    private final CompletableFuture<JDA> firstShard = new CompletableFuture<>();
+    private final CompletableFuture<Void> ready = new CompletableFuture<>();
+    private volatile Duration clusterReadyTime;
+
+    /**
+     * Creates a coordinator waiting for all shards of the bot.
+     */
+    public StartupCoordinator() {
+        this(-1);
+    }
+
+    /**
+     * Creates a coordinator waiting for the given number of shards.
+     *
+     * @param expectedShards The number of shards this process runs, -1 for the total shard count of the bot
+     */
+    public StartupCoordinator(int expectedShards) {
+        this.expectedShards = expectedShards;
+    }
+
+    @Override
+    public void onReady(@NotNull ReadyEvent event) {
+        JDA jda = event.getJDA();
+        int shardId = jda.getShardInfo().getShardId();
+        Duration readyTime = Duration.ofNanos(System.nanoTime() - startedAt);
+        if (readyTimes.putIfAbsent(shardId, readyTime) != null) {
+            return;
+        }
+        int expected = expectedShards > 0 ? expectedShards : jda.getShardInfo().getShardTotal();
+        logger.info("Shard {} ready after {} ms ({}/{}), {} guilds", shardId, readyTime.toMillis(), readyTimes.size(), expected, event.getGuildTotalCount());
+
+        firstShard.complete(jda);
+        shardFuture(shardId).complete(jda);
+
+        if (readyTimes.size() >= expected && clusterReadyTime == null) {
+            synchronized (this) {
+                if (clusterReadyTime != null) {
+                    return;
+                }
+                clusterReadyTime = readyTime;
+            }
+            Map.Entry<Integer, Duration> slowest = readyTimes.entrySet().stream().max(Map.Entry.comparingByValue()).orElseThrow();
+            logger.info("All {} shards ready after {} ms, slowest shard {}", expected, clusterReadyTime.toMillis(), slowest.getKey());
+            ready.complete(null);
+        }
+    }
+
+    /**
+     * @return A future completed with the first shard that is ready
+     */
+    public CompletableFuture<JDA> awaitFirstShard() {
+        return firstShard.copy();
+    }
+
+    /**
+     * @param shardId The id of a shard of this process
+     * @return A future completed with the shard once it is ready
+     */
+    public CompletableFuture<JDA> awaitShard(int shardId) {
+        return shardFuture(shardId).copy();
+    }
+
+    /**
+     * @return A future completed once all shards of this process are ready
+     */
+    public CompletableFuture<Void> awaitReady() {
+        return ready.copy();
+    }
+
+    /**
+     * @return The startup state of the process
+     */
+    public State getState() {
+        if (ready.isDone()) {
+            return State.READY;
+        }
+        return readyTimes.isEmpty() ? State.STARTING : State.PARTIALLY_READY;
+    }
+
+    /**
+     * @return The time from the start until each ready shard was ready, by shard id
+     */
+    public Map<Integer, Duration> getShardReadyTimes() {
+        return new TreeMap<>(readyTimes);
+    }
+
+    /**
+     * @return The time from the start until all shards were ready, or null if they are not ready yet
+     */
+    public Duration getReadyTime() {
+        return clusterReadyTime;
+    }
+
+    private CompletableFuture<JDA> shardFuture(int shardId) {
+        return shardFutures.computeIfAbsent(shardId, id -> new CompletableFuture<>());
+    }
+
+    /**
+     * Startup State
+     * <p>
+     *     STARTING: No shard is ready yet
+     *     PARTIALLY_READY: Some shards are ready
+     *     READY: All shards are ready
+     * </p>
+     */
+    public enum State {
+
+        STARTING,
+        PARTIALLY_READY,
+        READY
+    }
+}
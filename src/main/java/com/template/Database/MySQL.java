@@ -31,14 +31,9 @@ public class MySQL {
             return;
         }
 
-        String host = config.getProperty("db.host");
-        String user = config.getProperty("db.user");
-        String password = config.getProperty("db.password");
-        String databaseTable = config.getProperty("db.name");
-
         if (!isConnected()){
             try {
-                database = DriverManager.getConnection("jdbc:mysql://" + host + ":3306/" + databaseTable, user, password);
+                database = createConnection("");
                 databaseLastConnection = OffsetDateTime.now();
 
                 Thread databaseThread = new Thread(() -> {
@@ -60,6 +55,20 @@ public class MySQL {
         }
     }
 
+    // Opens a separate connection with the settings of database.properties, for subsystems that must not share the main connection
+    public static Connection createConnection(String parameters) throws SQLException {
+        String host = config.getProperty("db.host");
+        String user = config.getProperty("db.user");
+        String password = config.getProperty("db.password");
+        String databaseTable = config.getProperty("db.name");
+
+        String url = "jdbc:mysql://" + host + ":3306/" + databaseTable;
+        if (!parameters.isEmpty()) {
+            url += "?" + parameters;
+        }
+        return DriverManager.getConnection(url, user, password);
+    }
+
     public static void updateWithoutException(String qry) {
         if (isConnected()) {
             try {
@@ -1,104 +1,172 @@
 package com.template.Language;
 
 import net.dv8tion.jda.api.interactions.DiscordLocale;
-
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
-
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * LanguageUtils
+ * <p>
+ *     Looks up localized strings in the bundles below {@code languages/}. The translations that exist are found
+ *     once, by listing the {@code .properties} files of {@code languages/} on the classpath, so a lookup never
+ *     probes locales without a file. A locale resolves to its own file, then to the file of its language, then to
+ *     the base file of the bundle.
+ * </p>
+ * <p>
+ *     A bundle {@code languages.commands.ping} is read from {@code languages/commands/ping.properties},
+ *     {@code languages/commands/ping_de.properties} and so on.
+ * </p>
+ */
 public class LanguageUtils {
 
-    private static final Map<String, ResourceBundle> bundleCache = new HashMap<>();
+    private static final Logger logger = LoggerFactory.getLogger(LanguageUtils.class);
+
+    private static final String ROOT_DIRECTORY = "languages";
+    private static final String EXTENSION = ".properties";
+    private static final Set<String> isoLanguages = Set.of(Locale.getISOLanguages());
+    private static final Set<String> isoCountries = Set.of(Locale.getISOCountries());
+
+    private static final Map<String, Set<Locale>> index = scanLanguages();
+    private static final Map<String, Map<Locale, Optional<ResourceBundle>>> bundleCache = new ConcurrentHashMap<>();
 
     public static String getLanguageString(String bundleName, String key, Locale language) {
         ResourceBundle localBundle = getCachedBundle(bundleName, language);
-
+        if (localBundle == null) {
+            return key;
+        }
         try {
-            if (localBundle.containsKey(key) && !localBundle.getString(key).isBlank()) return localBundle.getString(key);
-            else return key;
-        } catch (Exception e) {
-            // Schlüssel nicht gefunden, hier können Sie einen Standardwert oder den Schlüssel selbst zurückgeben
+            String value = localBundle.getString(key);
+            return value.isBlank() ? key : value;
+        } catch (MissingResourceException e) {
             return key;
         }
     }
 
     public static HashMap<DiscordLocale, String> generateCommandNameMap(String commandDefaultName) {
-        HashMap<DiscordLocale, String> commandNameMap = new HashMap<>();
-        List<Locale> availableLocales = getAvailableLocales("languages.commands" + "." + commandDefaultName);
-        for (Locale locale : availableLocales) {
-            commandNameMap.put(LocalToDiscordLocal(locale), getLanguageString("languages.commands" + "." + commandDefaultName, "command.name", locale));
-        }
-        for (DiscordLocale discordLocale : DiscordLocale.values()) {
-            if (discordLocale.equals(DiscordLocale.UNKNOWN)) continue;
-            if (!commandNameMap.containsKey(discordLocale)) {
-                commandNameMap.put(discordLocale, getLanguageString("languages.commands" + "." + commandDefaultName, "command.name", Locale.ENGLISH));
-            }
-        }
-        return commandNameMap;
+        return generateLanguageMap(ROOT_DIRECTORY + ".commands." + commandDefaultName, "command.name");
     }
 
-    public static HashMap<DiscordLocale, String> generateCommandDescriptionMap(String commandDefaultName){
-        HashMap<DiscordLocale, String> commandDescriptionMap = new HashMap<>();
-        List<Locale> availableLocales = getAvailableLocales("languages.commands" + "." + commandDefaultName);
-        for (Locale locale : availableLocales) {
-            commandDescriptionMap.put(LocalToDiscordLocal(locale), getLanguageString("languages.commands" + "." + commandDefaultName, "command.description", locale));
-        }
-        for (DiscordLocale discordLocale : DiscordLocale.values()) {
-            if (discordLocale.equals(DiscordLocale.UNKNOWN)) continue;
-            if (!commandDescriptionMap.containsKey(discordLocale)) {
-                commandDescriptionMap.put(discordLocale, getLanguageString("languages.commands" + "." + commandDefaultName, "command.description", Locale.ENGLISH));
-            }
-        }
-        return commandDescriptionMap;
+    public static HashMap<DiscordLocale, String> generateCommandDescriptionMap(String commandDefaultName) {
+        return generateLanguageMap(ROOT_DIRECTORY + ".commands." + commandDefaultName, "command.description");
     }
 
-    public static HashMap<DiscordLocale, String> generateLanguageMap(String bundleName, String key){
+    /**
+     * Builds the localizations of a key for every locale of Discord in one pass over the index. Locales without a
+     * translation of their own get the base file, or English if the bundle has no base file.
+     */
+    public static HashMap<DiscordLocale, String> generateLanguageMap(String bundleName, String key) {
         HashMap<DiscordLocale, String> languageMap = new HashMap<>();
-        List<Locale> availableLocales = getAvailableLocales(bundleName);
-        for (Locale locale : availableLocales) {
-            languageMap.put(LocalToDiscordLocal(locale), getLanguageString(bundleName, key, locale));
-        }
         for (DiscordLocale discordLocale : DiscordLocale.values()) {
             if (discordLocale.equals(DiscordLocale.UNKNOWN)) continue;
-            if (!languageMap.containsKey(discordLocale)) {
-                languageMap.put(discordLocale, getLanguageString(bundleName, key, Locale.ENGLISH));
-            }
+            Locale locale = getCachedBundle(bundleName, discordLocale.toLocale()) != null ? discordLocale.toLocale() : Locale.ENGLISH;
+            languageMap.put(discordLocale, getLanguageString(bundleName, key, locale));
         }
         return languageMap;
     }
 
+    /**
+     * @param bundleName The name of the bundle, e.g. {@code languages.bot.global}
+     * @return The locales the bundle has a file for, {@link Locale#ROOT} for the base file
+     */
+    public static Set<Locale> getAvailableLocales(String bundleName) {
+        return index.getOrDefault(bundleName, Set.of());
+    }
+
+    /**
+     * @return The bundle the locale resolves to, or null if the bundle has neither a file for it nor a base file
+     */
     private static ResourceBundle getCachedBundle(String bundleName, Locale language) {
-        String cacheKey = bundleName + "_" + language.toString();
-
-        if (bundleCache.containsKey(cacheKey)) {
-            return bundleCache.get(cacheKey);
-        } else {
-            ResourceBundle bundle = ResourceBundle.getBundle(bundleName, language, ResourceBundle.Control.getNoFallbackControl(ResourceBundle.Control.FORMAT_DEFAULT));
-            bundleCache.put(cacheKey, bundle);
-            return bundle;
+        Set<Locale> available = index.get(bundleName);
+        if (available == null) {
+            return null;
         }
+        return bundleCache.computeIfAbsent(bundleName, name -> new ConcurrentHashMap<>())
+                .computeIfAbsent(language, locale -> Optional.ofNullable(resolve(bundleName, locale, available)))
+                .orElse(null);
     }
 
-    private static List<Locale> getAvailableLocales(String bundleName) {
-        List<Locale> availableLocales = new ArrayList<>();
-
-        for (Locale locale : Locale.getAvailableLocales()) {
-            try {
-                ResourceBundle.getBundle(bundleName, locale, ResourceBundle.Control.getNoFallbackControl(ResourceBundle.Control.FORMAT_DEFAULT));
-                availableLocales.add(locale);
-            } catch (MissingResourceException e) {
-                // ignore
+    private static ResourceBundle resolve(String bundleName, Locale language, Set<Locale> available) {
+        List<Locale> candidates = List.of(language, Locale.of(language.getLanguage(), language.getCountry()),
+                Locale.of(language.getLanguage()), Locale.ROOT);
+        for (Locale candidate : candidates) {
+            if (available.contains(candidate)) {
+                // The bundle of the candidate has the base file as its parent, so missing keys fall back to it
+                return ResourceBundle.getBundle(bundleName, candidate, ResourceBundle.Control.getNoFallbackControl(ResourceBundle.Control.FORMAT_DEFAULT));
             }
         }
-        return availableLocales;
+        return null;
     }
 
-    private static DiscordLocale LocalToDiscordLocal(Locale locale) {
-        for (DiscordLocale discordLocale : DiscordLocale.values()) {
-            if (discordLocale.toLocale().equals(locale)) {
-                return discordLocale;
+    /**
+     * Lists the properties files below {@code languages/} in every classpath entry, in directories and in jars.
+     */
+    private static Map<String, Set<Locale>> scanLanguages() {
+        Map<String, Set<Locale>> languages = new HashMap<>();
+        try {
+            Enumeration<URL> roots = LanguageUtils.class.getClassLoader().getResources(ROOT_DIRECTORY);
+            while (roots.hasMoreElements()) {
+                URI root = roots.nextElement().toURI();
+                if (root.getScheme().equals("jar")) {
+                    // jar:file:/bot.jar!/languages, a file system of its own is opened, the jar may be open elsewhere
+                    String location = root.getRawSchemeSpecificPart();
+                    int separator = location.indexOf("!/");
+                    try (FileSystem jar = FileSystems.newFileSystem(Path.of(URI.create(location.substring(0, separator))))) {
+                        scanDirectory(jar.getPath(location.substring(separator + 1)), languages);
+                    }
+                } else {
+                    scanDirectory(Path.of(root), languages);
+                }
             }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list the language files", e);
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException("Could not list the language files", e);
         }
-        return DiscordLocale.ENGLISH_US;
+        languages.replaceAll((bundleName, locales) -> Set.copyOf(locales));
+        logger.debug("Found the language bundles {}", languages);
+        return Map.copyOf(languages);
     }
 
+    private static void scanDirectory(Path directory, Map<String, Set<Locale>> languages) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.filter(file -> file.getFileName().toString().endsWith(EXTENSION)).forEach(file -> {
+                String relative = directory.relativize(file).toString().replace(file.getFileSystem().getSeparator(), ".");
+                String name = relative.substring(0, relative.length() - EXTENSION.length());
+                addBundleFile(ROOT_DIRECTORY + "." + name, languages);
+            });
+        }
+    }
 
+    /**
+     * Splits the locale suffix off the name of a file. The suffix has to be an ISO language, optionally followed
+     * by an ISO country, so names of commands that contain underscores stay intact.
+     */
+    private static void addBundleFile(String name, Map<String, Set<Locale>> languages) {
+        String[] parts = name.split("_");
+        int length = parts.length;
+        Locale locale = Locale.ROOT;
+        int suffix = 0;
+        if (length >= 3 && isoLanguages.contains(parts[length - 2]) && isoCountries.contains(parts[length - 1])) {
+            locale = Locale.of(parts[length - 2], parts[length - 1]);
+            suffix = 2;
+        } else if (length >= 2 && isoLanguages.contains(parts[length - 1])) {
+            locale = Locale.of(parts[length - 1]);
+            suffix = 1;
+        }
+        String bundleName = String.join("_", Arrays.copyOf(parts, length - suffix));
+        languages.computeIfAbsent(bundleName, ignored -> new HashSet<>()).add(locale);
+    }
 }
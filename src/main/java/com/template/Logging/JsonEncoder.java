@@ -0,0 +1,113 @@
+package com.template.Logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
+import ch.qos.logback.core.encoder.EncoderBase;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * JsonEncoder
+ * <p>
+ *     Writes every log event as one line of JSON, for log collectors that parse structured logs. The shard JDA puts
+ *     into the {@code jda.shard} MDC is written as its own field, further MDC entries are written into {@code mdc}.
+ * </p>
+ * <pre>
+ * {"time":"2024-01-01T12:00:00.000Z","level":"INFO","thread":"JDA MainWS-ReadThread","logger":"com.template.Bot.Bot","shard":"[0 / 2]","message":"Bot started"}
+ * </pre>
+ * <p>
+ *     Used in logback.xml with {@code -Dlog.format=json}.
+ * </p>
+ */
+public class JsonEncoder extends EncoderBase<ILoggingEvent> {
+
+    private static final byte[] EMPTY = new byte[0];
+    private static final String SHARD_KEY = "jda.shard";
+
+    @Override
+    public byte[] headerBytes() {
+        return EMPTY;
+    }
+
+    @Override
+    public byte[] encode(ILoggingEvent event) {
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"time\":\"").append(Instant.ofEpochMilli(event.getTimeStamp())).append('"');
+        json.append(",\"level\":\"").append(event.getLevel()).append('"');
+        field(json, "thread", event.getThreadName());
+        field(json, "logger", event.getLoggerName());
+
+        Map<String, String> mdc = event.getMDCPropertyMap();
+        String shard = mdc.get(SHARD_KEY);
+        if (shard != null) {
+            field(json, "shard", shard);
+        }
+        if (mdc.size() > (shard != null ? 1 : 0)) {
+            json.append(",\"mdc\":{");
+            boolean first = true;
+            for (Map.Entry<String, String> entry : mdc.entrySet()) {
+                if (entry.getKey().equals(SHARD_KEY)) {
+                    continue;
+                }
+                if (!first) {
+                    json.append(',');
+                }
+                first = false;
+                string(json, entry.getKey());
+                json.append(':');
+                string(json, entry.getValue());
+            }
+            json.append('}');
+        }
+
+        field(json, "message", event.getFormattedMessage());
+        IThrowableProxy throwable = event.getThrowableProxy();
+        if (throwable != null) {
+            field(json, "exception", ThrowableProxyUtil.asString(throwable));
+        }
+        json.append("}\n");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public byte[] footerBytes() {
+        return EMPTY;
+    }
+
+    private static void field(StringBuilder json, String name, String value) {
+        json.append(",\"").append(name).append("\":");
+        string(json, value);
+    }
+
+    /**
+     * Appends the value as a JSON string, or null.
+     */
+    private static void string(StringBuilder json, String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        json.append('"');
+    }
+}
@@ -1,6 +1,7 @@
 package com.template;
 
 import com.template.Bot.Bot;
+import com.template.Bot.Managers.Cooldown;
 import com.template.Database.MySQL;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,11 +11,11 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.Properties;
 
 public class Main {
 
-    public static final String basePackage = "com.template.Bot";
     static final Logger logger = LoggerFactory.getLogger(Main.class);
     public static Properties database = new Properties();
     public static Properties discord = new Properties();
@@ -54,6 +55,23 @@ public class Main {
             logger.info("Database connected");
         }
 
+        // Restore Cooldowns
+        switch (discord.getProperty("cooldown.backend", "memory").toLowerCase()) {
+            case "file" -> {
+                logger.info("Restoring Cooldowns from file");
+                Cooldown.enablePersistence(Path.of(discord.getProperty("cooldown.persistence.directory", "data")));
+            }
+            case "mysql" -> {
+                if (MySQL.isConnected()) {
+                    logger.info("Restoring Cooldowns from MySQL");
+                    Cooldown.enableDatabaseBackend();
+                } else {
+                    logger.warn("cooldown.backend is mysql but MySQL is disabled, cooldowns are kept in memory only");
+                }
+            }
+            default -> logger.info("Cooldowns are kept in memory only");
+        }
+
         // Start Bot
         logger.info("Starting Bot");
         try {
@@ -0,0 +1,146 @@
+package com.template.Processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * CommandRegistryProcessor
+ * <p>
+ *     An annotation processor that looks at every class of the compilation and generates
+ *     {@code com.template.Bot.Managers.CommandRegistry}, which creates one instance of every concrete
+ *     {@code SlashCommand}, {@code ContextInteraction} and {@code ComponentHandler}. The
+ *     {@link com.template.Bot.Managers.Command.CommandManager}, {@link com.template.Bot.Managers.Interaction.InteractionManager}
+ *     and {@link com.template.Bot.Managers.Component.ComponentManager} use the registry instead of scanning the
+ *     classpath on startup.
+ * </p>
+ * <p>
+ *     The processor is compiled on its own before the rest of the sources, see the compiler executions in the pom.
+ *     Commands are only picked up if their class and no-argument constructor are public.
+ * </p>
+ */
+@SupportedAnnotationTypes("*")
+public class CommandRegistryProcessor extends AbstractProcessor {
+
+    private static final String REGISTRY_PACKAGE = "com.template.Bot.Managers";
+    private static final String REGISTRY_NAME = "CommandRegistry";
+    private static final String SLASH_COMMAND = "com.template.Bot.Managers.Command.SlashCommand";
+    private static final String CONTEXT_INTERACTION = "com.template.Bot.Managers.Interaction.ContextInteraction";
+    private static final String COMPONENT_HANDLER = "com.template.Bot.Managers.Component.ComponentHandler";
+
+    private boolean generated;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        // The first round holds every source of the compilation, later rounds only hold generated sources
+        if (generated || roundEnv.processingOver()) {
+            return false;
+        }
+        TypeElement slashCommand = processingEnv.getElementUtils().getTypeElement(SLASH_COMMAND);
+        TypeElement contextInteraction = processingEnv.getElementUtils().getTypeElement(CONTEXT_INTERACTION);
+        TypeElement componentHandler = processingEnv.getElementUtils().getTypeElement(COMPONENT_HANDLER);
+        if (slashCommand == null || contextInteraction == null || componentHandler == null) {
+            return false;
+        }
+
+        Set<String> commands = new TreeSet<>();
+        Set<String> interactions = new TreeSet<>();
+        Set<String> components = new TreeSet<>();
+        for (TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements())) {
+            collect(type, slashCommand.asType(), commands);
+            collect(type, contextInteraction.asType(), interactions);
+            collect(type, componentHandler.asType(), components);
+        }
+
+        try {
+            writeRegistry(commands, interactions, components);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not write " + REGISTRY_NAME + ": " + e.getMessage());
+        }
+        generated = true;
+        return false;
+    }
+
+    /**
+     * Adds the type and its nested types to the registry if they are instantiable subclasses of the base type.
+     */
+    private void collect(TypeElement type, TypeMirror baseType, Set<String> registry) {
+        for (TypeElement nested : ElementFilter.typesIn(type.getEnclosedElements())) {
+            if (nested.getModifiers().contains(Modifier.STATIC)) {
+                collect(nested, baseType, registry);
+            }
+        }
+        if (type.getKind() != ElementKind.CLASS || type.getModifiers().contains(Modifier.ABSTRACT)
+                || !processingEnv.getTypeUtils().isSubtype(processingEnv.getTypeUtils().erasure(type.asType()), processingEnv.getTypeUtils().erasure(baseType))) {
+            return;
+        }
+        if (!type.getModifiers().contains(Modifier.PUBLIC) || !hasPublicNoArgConstructor(type)) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    type.getQualifiedName() + " is not registered, it needs to be public with a public no-argument constructor", type);
+            return;
+        }
+        registry.add(type.getQualifiedName().toString());
+    }
+
+    private static boolean hasPublicNoArgConstructor(TypeElement type) {
+        List<ExecutableElement> constructors = ElementFilter.constructorsIn(type.getEnclosedElements());
+        for (ExecutableElement constructor : constructors) {
+            if (constructor.getParameters().isEmpty() && constructor.getModifiers().contains(Modifier.PUBLIC)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeRegistry(Set<String> commands, Set<String> interactions, Set<String> components) throws IOException {
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(REGISTRY_PACKAGE + "." + REGISTRY_NAME);
+        try (Writer writer = file.openWriter()) {
+            writer.write("package " + REGISTRY_PACKAGE + ";\n\n");
+            writer.write("import " + SLASH_COMMAND + ";\n");
+            writer.write("import " + CONTEXT_INTERACTION + ";\n");
+            writer.write("import " + COMPONENT_HANDLER + ";\n\n");
+            writer.write("import java.util.List;\n\n");
+            writer.write("/**\n * CommandRegistry\n * <p>\n *     Generated by {@code " + getClass().getName() + "}, do not edit.\n * </p>\n */\n");
+            writer.write("public final class " + REGISTRY_NAME + " {\n\n");
+            writer.write("    private " + REGISTRY_NAME + "() {\n    }\n\n");
+            writeFactory(writer, "SlashCommand", "createCommands", commands);
+            writer.write("\n");
+            writeFactory(writer, "ContextInteraction", "createInteractions", interactions);
+            writer.write("\n");
+            writeFactory(writer, "ComponentHandler", "createComponents", components);
+            writer.write("}\n");
+        }
+    }
+
+    private static void writeFactory(Writer writer, String type, String method, Set<String> classes) throws IOException {
+        writer.write("    /**\n     * @return A new instance of every " + type + " found at compile time\n     */\n");
+        writer.write("    public static List<" + type + "> " + method + "() {\n");
+        writer.write("        return List.of(");
+        boolean first = true;
+        for (String className : classes) {
+            writer.write(first ? "\n" : ",\n");
+            writer.write("                new " + className + "()");
+            first = false;
+        }
+        writer.write(");\n    }\n");
+    }
+}
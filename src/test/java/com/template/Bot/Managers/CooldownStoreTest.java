@@ -0,0 +1,185 @@
+package com.template.Bot.Managers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Hammers one {@link CooldownStore} from several threads at once: checks, merges of other processes and the expiry
+ * thread all run against keys spread over every stripe.
+ */
+class CooldownStoreTest {
+
+    private static final long HOUR = 3_600_000;
+    private static final Cooldown cooldown = new Cooldown(1, Cooldown.Time.HOURS, Cooldown.Scope.USER);
+
+    @Test
+    void concurrentChecksGrantEveryKeyExactlyOnce() throws Exception {
+        CooldownStore store = new CooldownStore();
+        long start = CooldownStore.currentTimeMillis();
+        long[] targets = targets(20_000, 1);
+        long[] merged = targets(20_000, 2);
+        AtomicInteger granted = new AtomicInteger();
+        AtomicBoolean checking = new AtomicBoolean(true);
+
+        List<Runnable> tasks = new ArrayList<>();
+        for (int thread = 0; thread < 4; thread++) {
+            int offset = thread * 5_000;
+            tasks.add(() -> {
+                // Every thread walks all keys, starting at a different one, so they collide on the same stripes
+                for (int i = 0; i < targets.length; i++) {
+                    long target = targets[(offset + i) % targets.length];
+                    if (store.tryAcquire(target, target & 7, 1 + (int) (target & 1), start, cooldown) == 0) {
+                        granted.incrementAndGet();
+                    }
+                }
+            });
+        }
+        tasks.add(() -> {
+            // Entries of another process that run out within the first seconds
+            for (int i = 0; i < merged.length; i++) {
+                store.merge(merged[i], 0, 1, start + 500 + i % 2000, 0, cooldown);
+            }
+        });
+        tasks.add(() -> {
+            long now = start;
+            while (checking.get()) {
+                store.expire(now);
+                now = Math.min(now + 10, start + 3000);
+            }
+        });
+        runConcurrently(tasks, checking);
+
+        // Visits every bucket of the wheel once more, for merges filed into a bucket the expiry had already passed
+        store.expire(start + CooldownStore.WHEEL_SIZE * CooldownStore.TICK_MS + 3000);
+
+        assertEquals(targets.length, granted.get());
+        assertEquals(targets.length, store.size());
+        assertEquals(merged.length, store.evictedCount());
+        for (long target : targets) {
+            assertEquals(start + HOUR, store.nextAvailable(target, target & 7, 1 + (int) (target & 1), start, cooldown));
+        }
+        for (long target : merged) {
+            assertEquals(0, store.nextAvailable(target, 0, 1, start, cooldown));
+        }
+    }
+
+    @Test
+    void lookupsFindEveryKeyWhileCollidingKeysAreRemoved() throws Exception {
+        CooldownStore store = new CooldownStore();
+        long start = CooldownStore.currentTimeMillis();
+        long[] kept = targets(3_000, 3);
+        long[] expiring = targets(3_000, 4);
+
+        // Inserted interleaved, so kept and expiring keys share probe runs and every removal shifts kept keys back
+        List<long[]> entries = new ArrayList<>();
+        for (int i = 0; i < kept.length; i++) {
+            entries.add(new long[]{kept[i], start + HOUR});
+            entries.add(new long[]{expiring[i], start + 100 + i % 2500});
+        }
+        Collections.shuffle(entries, new Random(5));
+        for (long[] entry : entries) {
+            store.put(entry[0], 0, 1, entry[1], 0);
+        }
+
+        AtomicInteger lost = new AtomicInteger();
+        AtomicBoolean removing = new AtomicBoolean(true);
+        List<Runnable> tasks = new ArrayList<>();
+        for (int thread = 0; thread < 3; thread++) {
+            tasks.add(() -> {
+                do {
+                    for (long target : kept) {
+                        if (store.nextAvailable(target, 0, 1, start, cooldown) != start + HOUR) {
+                            lost.incrementAndGet();
+                        }
+                    }
+                } while (removing.get());
+            });
+        }
+        tasks.add(() -> {
+            for (long now = start; now <= start + 4000; now += 50) {
+                store.expire(now);
+            }
+            removing.set(false);
+        });
+        runConcurrently(tasks, null);
+
+        assertEquals(0, lost.get());
+        assertEquals(kept.length, store.size());
+        assertEquals(expiring.length, store.evictedCount());
+        for (long target : expiring) {
+            assertEquals(0, store.nextAvailable(target, 0, 1, start, cooldown));
+        }
+    }
+
+    @Test
+    void cooldownsWithoutALengthAreNoCooldownOrRejected() {
+        CooldownStore store = new CooldownStore();
+        long start = CooldownStore.currentTimeMillis();
+        Cooldown none = new Cooldown(0, Cooldown.Time.UNKNOWN, Cooldown.Scope.USER);
+        int slot = Cooldown.slotOf("store-test-no-length", none);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, store.tryAcquire(1, 0, slot, start, none));
+        }
+        // The window and the refill interval are divided by, so they are rejected before any event can reach the store
+        assertThrows(IllegalArgumentException.class, () -> Cooldown.slidingWindow(3, 0, Cooldown.Time.SECONDS, Cooldown.Scope.USER));
+        assertThrows(IllegalArgumentException.class, () -> Cooldown.slidingWindow(3, 1, Cooldown.Time.UNKNOWN, Cooldown.Scope.USER));
+        assertThrows(IllegalArgumentException.class, () -> Cooldown.slidingWindow(0, 1, Cooldown.Time.SECONDS, Cooldown.Scope.USER));
+        assertThrows(IllegalArgumentException.class, () -> Cooldown.tokenBucket(3, 0, Cooldown.Time.SECONDS, Cooldown.Scope.USER));
+        assertThrows(IllegalArgumentException.class, () -> Cooldown.tokenBucket(0, 1, Cooldown.Time.SECONDS, Cooldown.Scope.USER));
+    }
+
+    /**
+     * @return Distinct snowflake-like ids, spread over every stripe
+     */
+    private static long[] targets(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        return random.longs(count * 2L, 1L << 40, 1L << 60).distinct().limit(count).toArray();
+    }
+
+    /**
+     * Starts all tasks at once and waits for them. The flag, if given, is cleared once every task but the last has
+     * finished, so a background task like the expiry can run until the others are done.
+     */
+    private static void runConcurrently(List<Runnable> tasks, AtomicBoolean running) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        CountDownLatch ready = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Runnable task : tasks) {
+                futures.add(executor.submit(() -> {
+                    ready.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            ready.countDown();
+            for (int i = 0; i < futures.size() - 1; i++) {
+                futures.get(i).get(30, TimeUnit.SECONDS);
+            }
+            if (running != null) {
+                running.set(false);
+            }
+            futures.get(futures.size() - 1).get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+}
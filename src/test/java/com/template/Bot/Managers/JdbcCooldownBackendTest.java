@@ -0,0 +1,142 @@
+package com.template.Bot.Managers;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Two bot processes, each with its own {@link CooldownStore} and {@link JdbcCooldownBackend}, sharing one in-memory H2
+ * database in MySQL mode.
+ */
+class JdbcCooldownBackendTest {
+
+    private static final long MINUTE = 60_000;
+
+    private String url;
+    private CooldownStore storeA;
+    private CooldownStore storeB;
+    private JdbcCooldownBackend backendA;
+    private JdbcCooldownBackend backendB;
+    private long start;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        url = "jdbc:h2:mem:cooldowns-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+        storeA = new CooldownStore();
+        storeB = new CooldownStore();
+        backendA = new JdbcCooldownBackend(() -> DriverManager.getConnection(url), storeA);
+        backendB = new JdbcCooldownBackend(() -> DriverManager.getConnection(url), storeB);
+        // One second into a minute, so the uses of a test never cross into the next window
+        start = (CooldownStore.currentTimeMillis() / MINUTE + 1) * MINUTE + 1000;
+        backendA.load(start);
+        backendB.load(start);
+    }
+
+    @AfterEach
+    void tearDown() {
+        backendA.close();
+        backendB.close();
+    }
+
+    @Test
+    void slidingWindowUsesAreAddedUpAcrossProcesses() throws SQLException {
+        Cooldown cooldown = Cooldown.slidingWindow(4, 1, Cooldown.Time.MINUTES, Cooldown.Scope.USER);
+        int slot = Cooldown.slotOf("jdbc-test-sliding-window", cooldown);
+
+        assertEquals(0, storeA.tryAcquire(1, 0, slot, start, cooldown));
+        assertEquals(0, storeA.tryAcquire(1, 0, slot, start + 10, cooldown));
+        assertEquals(0, storeB.tryAcquire(1, 0, slot, start + 20, cooldown));
+        assertEquals(0, storeB.tryAcquire(1, 0, slot, start + 30, cooldown));
+
+        sync(start + 1000);
+
+        assertEquals(4, currentUses(slot));
+        assertNotEquals(0, storeA.tryAcquire(1, 0, slot, start + 3000, cooldown));
+        assertNotEquals(0, storeB.tryAcquire(1, 0, slot, start + 3000, cooldown));
+    }
+
+    @Test
+    void tokenBucketUsesAreAddedUpAcrossProcesses() throws SQLException {
+        Cooldown cooldown = Cooldown.tokenBucket(4, 1, Cooldown.Time.MINUTES, Cooldown.Scope.USER);
+        int slot = Cooldown.slotOf("jdbc-test-token-bucket", cooldown);
+
+        assertEquals(0, storeA.tryAcquire(1, 0, slot, start, cooldown));
+        assertEquals(0, storeA.tryAcquire(1, 0, slot, start, cooldown));
+        assertEquals(0, storeB.tryAcquire(1, 0, slot, start, cooldown));
+        assertEquals(0, storeB.tryAcquire(1, 0, slot, start, cooldown));
+
+        sync(start + 1000);
+
+        assertNotEquals(0, storeA.tryAcquire(1, 0, slot, start + 3000, cooldown));
+        assertNotEquals(0, storeB.tryAcquire(1, 0, slot, start + 3000, cooldown));
+        // The bucket refills for both processes alike
+        assertEquals(0, storeA.tryAcquire(1, 0, slot, start + 2 * MINUTE, cooldown));
+    }
+
+    @Test
+    void fixedCooldownKeepsTheLaterEnd() throws SQLException {
+        Cooldown shortCooldown = new Cooldown(1, Cooldown.Time.MINUTES, Cooldown.Scope.USER);
+        int slot = Cooldown.slotOf("jdbc-test-fixed", shortCooldown);
+
+        assertEquals(0, storeA.tryAcquire(1, 0, slot, start, shortCooldown));
+        assertEquals(0, storeB.tryAcquire(1, 0, slot, start + 500, shortCooldown));
+
+        sync(start + 1000);
+
+        assertEquals(start + 500 + MINUTE, storeA.nextAvailable(1, 0, slot, start + 2000, shortCooldown));
+        assertEquals(start + 500 + MINUTE, storeB.nextAvailable(1, 0, slot, start + 2000, shortCooldown));
+    }
+
+    @Test
+    void unflushedUsesSurviveAPull() throws SQLException {
+        Cooldown cooldown = Cooldown.slidingWindow(4, 1, Cooldown.Time.MINUTES, Cooldown.Scope.USER);
+        int slot = Cooldown.slotOf("jdbc-test-unflushed", cooldown);
+
+        assertEquals(0, storeB.tryAcquire(1, 0, slot, start, cooldown));
+        assertEquals(0, storeB.tryAcquire(1, 0, slot, start, cooldown));
+        backendB.flush(start + 1000);
+        // Still in the journal of A when the row of B arrives
+        assertEquals(0, storeA.tryAcquire(1, 0, slot, start + 1100, cooldown));
+        long[] row = row(slot);
+        storeA.merge(1, 0, slot, row[0], row[1], cooldown);
+
+        assertEquals(0, storeA.tryAcquire(1, 0, slot, start + 1200, cooldown));
+        assertNotEquals(0, storeA.tryAcquire(1, 0, slot, start + 1300, cooldown));
+    }
+
+    /**
+     * Flushes both processes twice, so each one has written its uses and pulled those of the other one.
+     */
+    private void sync(long now) throws SQLException {
+        backendA.flush(now);
+        backendB.flush(now);
+        backendA.flush(now + 1000);
+        backendB.flush(now + 1000);
+    }
+
+    private long currentUses(int slot) throws SQLException {
+        return row(slot)[1] & 0xFFFFFFFFL;
+    }
+
+    /**
+     * @return The end time and the state of the row of the slot
+     */
+    private long[] row(int slot) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT end_time, state FROM cooldowns WHERE operation = '" + Cooldown.nameOf(slot) + "'")) {
+            resultSet.next();
+            return new long[]{resultSet.getLong(1), resultSet.getLong(2)};
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.template.Bot.Managers.Metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.requests.RestConfig;
+import net.dv8tion.jda.api.requests.RestRateLimiter;
+import net.dv8tion.jda.api.requests.Route;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sends requests through the rate limiter of JDA, instrumented by {@link RestMetrics}, to a local stand-in for Discord
+ * that replays scripted rate limit headers. Every route has a script of responses the stand-in cycles through: buckets
+ * that run empty and reset, and 429 responses of the user, shared and global scope. The script is stricter than its
+ * headers on purpose, so the rate limiter runs into the 429s and retries.
+ */
+class RestMetricsTest {
+
+    private static final int REQUESTS = 20;
+
+    private static final Route.CompiledRoute MESSAGES = Route.post("channels/{channel_id}/messages").compile("1");
+    private static final Route.CompiledRoute REACTIONS = Route.put("channels/{channel_id}/messages/{message_id}/reactions/{reaction_code}/@me").compile("1", "2", "x");
+    private static final Route.CompiledRoute MEMBERS = Route.get("guilds/{guild_id}/members/{user_id}").compile("3", "4");
+
+    private static final Map<Route.CompiledRoute, List<Reply>> scripts = Map.of(
+            MESSAGES, List.of(
+                    Reply.ok("messages", 3, 2, 0.05), Reply.ok("messages", 3, 1, 0.05), Reply.ok("messages", 3, 0, 0.05),
+                    Reply.limited("user", false), Reply.ok("messages", 3, 2, 0.05)),
+            REACTIONS, List.of(
+                    Reply.ok("reactions", 1, 0, 0.1), Reply.limited("shared", false)),
+            MEMBERS, List.of(
+                    Reply.ok("members", 10, 9, 1), Reply.ok("members", 10, 8, 1), Reply.ok("members", 10, 7, 1),
+                    Reply.limited("global", true)));
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private ScheduledExecutorService scheduler;
+    private ExecutorService elastic;
+    private RestRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = startStandIn();
+        scheduler = Executors.newScheduledThreadPool(2);
+        elastic = Executors.newCachedThreadPool();
+        rateLimiter = RestMetrics.instrument(new RestConfig()).getRateLimiterFactory().apply(
+                new RestRateLimiter.RateLimitConfig(scheduler, elastic, RestRateLimiter.GlobalRateLimit.create(), true));
+    }
+
+    @AfterEach
+    void tearDown() {
+        rateLimiter.stop(true, () -> { });
+        scheduler.shutdownNow();
+        elastic.shutdownNow();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void retriesAndRateLimitsAreCountedPerRouteAndScope() throws InterruptedException {
+        OkHttpClient client = RestMetrics.instrument(new OkHttpClient.Builder()).build();
+        String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        CountDownLatch done = new CountDownLatch(REQUESTS * scripts.size());
+        for (int i = 0; i < REQUESTS; i++) {
+            for (Route.CompiledRoute route : List.of(MESSAGES, REACTIONS, MEMBERS)) {
+                rateLimiter.enqueue(new ReplayWork(client, baseUrl, route, done));
+            }
+        }
+        assertTrue(done.await(1, TimeUnit.MINUTES), done.getCount() + " requests did not finish");
+
+        assertRoute(MESSAGES, RestMetrics.RateLimitScope.USER);
+        assertRoute(REACTIONS, RestMetrics.RateLimitScope.SHARED);
+        assertRoute(MEMBERS, RestMetrics.RateLimitScope.GLOBAL);
+        // Every response has arrived, so nothing is in flight anymore
+        assertEquals(0, RestMetrics.getInFlightCount());
+    }
+
+    /**
+     * Every 429 of the script is retried once, so the route sees its requests plus one attempt per 429 it ran into.
+     */
+    private static void assertRoute(Route.CompiledRoute route, RestMetrics.RateLimitScope limitedScope) {
+        int rateLimited = rateLimitedAttempts(scripts.get(route), REQUESTS);
+        RestMetrics.RouteStats stats = RestMetrics.getRoutes().get(route.getBaseRoute());
+
+        assertEquals(REQUESTS + rateLimited, stats.getRequests(), stats.getLabel());
+        assertEquals(rateLimited, stats.getRetries(), stats.getLabel());
+        assertEquals(REQUESTS + rateLimited, stats.getBucketWait().count(), stats.getLabel());
+        for (RestMetrics.RateLimitScope scope : RestMetrics.RateLimitScope.values()) {
+            assertEquals(scope == limitedScope ? rateLimited : 0, stats.getRateLimited(scope), stats.getLabel() + " " + scope.getLabel());
+        }
+    }
+
+    /**
+     * @return The number of 429 responses the stand-in sends until it has answered the given number of requests
+     */
+    private static int rateLimitedAttempts(List<Reply> script, int requests) {
+        int rateLimited = 0;
+        for (int attempt = 0; requests > 0; attempt++) {
+            if (script.get(attempt % script.size()).status() == 429) {
+                rateLimited++;
+            } else {
+                requests--;
+            }
+        }
+        return rateLimited;
+    }
+
+    /**
+     * Starts the stand-in, every path cycles through its script.
+     */
+    private HttpServer startStandIn() throws IOException {
+        Map<String, List<Reply>> paths = new HashMap<>();
+        scripts.forEach((route, script) -> paths.put("/" + route.getCompiledRoute(), script));
+        Map<String, AtomicInteger> positions = new ConcurrentHashMap<>();
+
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            List<Reply> script = paths.get(path);
+            if (script == null) {
+                send(exchange, 404, "{\"message\":\"Unknown route\",\"code\":0}");
+                return;
+            }
+            Reply reply = script.get(positions.computeIfAbsent(path, ignored -> new AtomicInteger()).getAndIncrement() % script.size());
+            reply.headers().forEach((name, value) -> exchange.getResponseHeaders().set(name, value));
+            send(exchange, reply.status(), reply.body());
+        });
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+        return server;
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * A scripted response.
+     */
+    private record Reply(int status, Map<String, String> headers, String body) {
+
+        static Reply ok(String bucket, int limit, int remaining, double resetAfter) {
+            return new Reply(200, Map.of(
+                    RestRateLimiter.HASH_HEADER, bucket,
+                    RestRateLimiter.LIMIT_HEADER, Integer.toString(limit),
+                    RestRateLimiter.REMAINING_HEADER, Integer.toString(remaining),
+                    RestRateLimiter.RESET_AFTER_HEADER, Double.toString(resetAfter)), "{}");
+        }
+
+        /**
+         * Like Discord, the header has whole seconds, a retry after of 0 lets the rate limiter retry right away.
+         */
+        static Reply limited(String scope, boolean global) {
+            Map<String, String> headers = new HashMap<>();
+            headers.put(RestRateLimiter.RETRY_AFTER_HEADER, "0");
+            // JDA takes a 429 without this header for one of Cloudflare
+            headers.put("Via", "1.1 google");
+            headers.put(RestRateLimiter.SCOPE_HEADER, scope);
+            if (global) {
+                headers.put(RestRateLimiter.GLOBAL_HEADER, "true");
+            }
+            return new Reply(429, headers, "{\"message\":\"You are being rate limited.\",\"retry_after\":0,\"global\":" + global + "}");
+        }
+    }
+
+    /**
+     * A request as JDA would enqueue it, done once the stand-in answered with anything but 429.
+     */
+    private static final class ReplayWork implements RestRateLimiter.Work {
+
+        private final OkHttpClient client;
+        private final String baseUrl;
+        private final Route.CompiledRoute route;
+        private final CountDownLatch done;
+        private volatile boolean finished;
+
+        private ReplayWork(OkHttpClient client, String baseUrl, Route.CompiledRoute route, CountDownLatch done) {
+            this.client = client;
+            this.baseUrl = baseUrl;
+            this.route = route;
+            this.done = done;
+        }
+
+        @Override
+        public Response execute() {
+            String method = route.getMethod().name();
+            RequestBody body = method.equals("GET") ? null : RequestBody.create("{}", MediaType.get("application/json"));
+            Request request = new Request.Builder().url(baseUrl + "/" + route.getCompiledRoute()).method(method, body).build();
+            try (Response response = client.newCall(request).execute()) {
+                if (response.code() != 429) {
+                    // Like JDA, the caller is completed before the rate limiter gets the response back
+                    finished = true;
+                    done.countDown();
+                }
+                // The headers stay readable after the body is closed
+                return response;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public Route.CompiledRoute getRoute() {
+            return route;
+        }
+
+        @Override
+        public JDA getJDA() {
+            return null;
+        }
+
+        @Override
+        public boolean isSkipped() {
+            return false;
+        }
+
+        @Override
+        public boolean isDone() {
+            return finished;
+        }
+
+        @Override
+        public boolean isPriority() {
+            return false;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public void cancel() {
+        }
+    }
+}